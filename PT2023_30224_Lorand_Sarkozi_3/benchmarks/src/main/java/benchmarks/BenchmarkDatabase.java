@@ -0,0 +1,45 @@
+package benchmarks;
+
+import connection.ConnectionFactory;
+import dataAccessLayer.ClientDAO;
+import dataAccessLayer.ProductDAO;
+import model.Client;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code BenchmarkDatabase} class fills the embedded H2 database, in MySQL mode, the benchmarks run against.
+ * The benchmark JVMs are forked with {@link #PROFILE}, so the application's {@link ConnectionFactory} connects to
+ * it instead of MySQL and creates its tables; every fork gets a new, empty database.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class BenchmarkDatabase {
+
+    public static final String PROFILE = "-Ddb.profile=h2";
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Fills the tables with the given number of clients and products. The IDs of both start at 1.
+     *
+     * @param clients  the number of clients
+     * @param products the number of products
+     * @param stock    the stock of every product
+     */
+    public static void create(int clients, int products, int stock) {
+        List<Client> clientList = new ArrayList<>(clients);
+        for (int i = 1; i <= clients; i++) {
+            clientList.add(new Client(0, "client" + i));
+        }
+        new ClientDAO().insertAll(clientList);
+        List<Product> productList = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            productList.add(new Product("product" + i, stock));
+        }
+        new ProductDAO().insertAll(productList);
+    }
+}
@@ -0,0 +1,130 @@
+package benchmarks;
+
+import dataAccessLayer.DataGenerator;
+import dataAccessLayer.OrdersDAO;
+import model.Orders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reporting.OrdersColumnStore;
+import reporting.SalesTotals;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the {@link OrdersColumnStore} with the orders loaded as a {@code List<Orders>} by {@code findAll}, at
+ * 1M and 10M orders: the units of one client, scanning every row, and the totals of every product, in one thread
+ * over the list and in parallel over the columns. The heap retained by each copy of the orders is printed once
+ * they are loaded.
+ * <p>
+ * The 10M orders need about 6 GB of heap in the in-memory database and take minutes to generate.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.PROFILE, "-Xmx8g"})
+public class ColumnStoreBenchmark {
+
+    private static final int CLIENTS = 100_000;
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"1000000", "10000000"})
+    private int orders;
+
+    private int[] clientIds;
+    private List<Orders> list;
+    private OrdersColumnStore store;
+    private Object measured;
+
+    @Setup(Level.Trial)
+    public void load() {
+        DataGenerator generator = new DataGenerator(42L, 1.0);
+        clientIds = generator.generateClients(CLIENTS);
+        int[] productIds = generator.generateProducts(PRODUCTS, 1000);
+        generator.generateOrders(orders, clientIds, productIds, 10);
+
+        long listBytes = retainedBytes(() -> new OrdersDAO().findAll());
+        long storeBytes = retainedBytes(() -> {
+            OrdersColumnStore loaded = new OrdersColumnStore();
+            loaded.refresh();
+            return loaded;
+        });
+        list = new OrdersDAO().findAll();
+        store = new OrdersColumnStore();
+        store.refresh();
+        System.out.printf("%nList<Orders>: %d rows, %.1f MB, %.1f bytes/row%n", list.size(), listBytes / 1e6,
+                (double) listBytes / list.size());
+        System.out.printf("OrdersColumnStore: %d rows, %.1f MB, %.1f bytes/row (columns %.1f MB)%n", store.size(),
+                storeBytes / 1e6, (double) storeBytes / store.size(), store.getMemoryBytes() / 1e6);
+    }
+
+    /**
+     * Returns the heap freed by dropping what the loader returns, so the caches filled by the database while it
+     * loads are not counted.
+     */
+    private long retainedBytes(Supplier<Object> loader) {
+        measured = loader.get();
+        long used = usedHeap();
+        measured = null;
+        return used - usedHeap();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private int randomClient() {
+        return clientIds[ThreadLocalRandom.current().nextInt(clientIds.length)];
+    }
+
+    @Benchmark
+    public long listSumByClient() {
+        int clientId = randomClient();
+        long sum = 0;
+        for (Orders order : list) {
+            if (order.getClientId() == clientId) {
+                sum += order.getOrderAmm();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long storeSumByClient() {
+        return store.sumAmount(OrdersColumnStore.Column.CLIENT, randomClient());
+    }
+
+    @Benchmark
+    public SalesTotals listGroupByProduct() {
+        SalesTotals totals = new SalesTotals();
+        for (Orders order : list) {
+            totals.add(order.getProductId(), order.getOrderAmm());
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public SalesTotals storeGroupByProduct() {
+        return store.groupBy(OrdersColumnStore.Column.PRODUCT);
+    }
+}
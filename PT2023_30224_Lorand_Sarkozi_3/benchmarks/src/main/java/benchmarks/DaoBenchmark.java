@@ -0,0 +1,79 @@
+package benchmarks;
+
+import dataAccessLayer.ProductDAO;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single-row and page operations of {@link ProductDAO} on a table of 100k products:
+ * lookups by ID, batched lookups, keyset pages and inserts, from one thread and from eight.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDatabase.PROFILE)
+public class DaoBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private ProductDAO productDAO;
+
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        BenchmarkDatabase.create(1, PRODUCTS, 100);
+        productDAO = new ProductDAO();
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1);
+    }
+
+    @Benchmark
+    public Product findById() {
+        return productDAO.findById(randomId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Product findByIdConcurrent() {
+        return productDAO.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Product> findByIds64() {
+        int[] ids = new int[64];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = randomId();
+        }
+        return productDAO.findByIds(ids);
+    }
+
+    @Benchmark
+    public List<Product> findPage() {
+        return productDAO.findPage(randomId(), 100);
+    }
+
+    @Benchmark
+    public Product insert() {
+        return productDAO.insert(new Product("new product", 10));
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import dataAccessLayer.ProductDAO;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures reading a whole table through {@link ProductDAO}: the materialized {@code findAll}
+ * against the streaming {@code streamAll} and {@code forEach}, at 1k, 100k and 1M rows.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDatabase.PROFILE)
+public class FindAllBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ProductDAO productDAO;
+
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        BenchmarkDatabase.create(1, rows, 100);
+        productDAO = new ProductDAO();
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productDAO.findAll();
+    }
+
+    @Benchmark
+    public long streamAll() {
+        try (Stream<Product> products = productDAO.streamAll()) {
+            return products.mapToLong(Product::getAmmount).sum();
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        productDAO.forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import businessLayer.OrdersBLL;
+import connection.ConnectionFactory;
+import dataAccessLayer.DataGenerator;
+import model.Orders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first page of the orders of a client, of a product and of both, through
+ * {@link OrdersBLL#findOrders(Integer, Integer, int, int)}, at 1M and 10M orders, with the indexes of
+ * {@code schema.sql} and with them dropped, so the database scans the table. {@code scanForClient} filters the
+ * whole table in Java, as callers had to before the lookups existed. The clients and products of the orders
+ * follow a Zipf distribution; the queried ones are picked uniformly, so most have few orders.
+ * <p>
+ * The 10M orders need about 6 GB of heap in the in-memory database and take minutes to generate.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.PROFILE, "-Xmx8g"})
+public class OrderLookupBenchmark {
+
+    private static final int CLIENTS = 100_000;
+    private static final int PRODUCTS = 10_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000000", "10000000"})
+    private int orders;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private OrdersBLL ordersBLL;
+    private int[] clientIds;
+    private int[] productIds;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        DataGenerator generator = new DataGenerator(42L, 1.0);
+        clientIds = generator.generateClients(CLIENTS);
+        productIds = generator.generateProducts(PRODUCTS, 1000);
+        generator.generateOrders(orders, clientIds, productIds, 10);
+        if (!indexed) {
+            try (Connection connection = ConnectionFactory.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP INDEX orders_client_id");
+                statement.execute("DROP INDEX orders_product_id");
+                statement.execute("DROP INDEX orders_client_product");
+            }
+        }
+        ordersBLL = new OrdersBLL();
+    }
+
+    private int randomClient() {
+        return clientIds[ThreadLocalRandom.current().nextInt(clientIds.length)];
+    }
+
+    private int randomProduct() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+
+    @Benchmark
+    public List<Orders> findByClientId() {
+        return ordersBLL.findOrdersByClientId(randomClient(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Orders> findByProductId() {
+        return ordersBLL.findOrdersByProductId(randomProduct(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Orders> findByClientAndProductId() {
+        return ordersBLL.findOrders(randomClient(), randomProduct(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Orders> scanForClient() {
+        int clientId = randomClient();
+        List<Orders> page = new ArrayList<>(PAGE_SIZE);
+        ordersBLL.forEachOrder(order -> {
+            if (order.getClientId() == clientId && page.size() < PAGE_SIZE) {
+                page.add(order);
+            }
+        });
+        return page;
+    }
+}
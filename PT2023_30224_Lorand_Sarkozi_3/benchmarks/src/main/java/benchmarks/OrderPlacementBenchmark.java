@@ -0,0 +1,69 @@
+package benchmarks;
+
+import businessLayer.OrderResult;
+import businessLayer.OrdersBLL;
+import model.Orders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OrdersBLL#placeOrder(Orders)}, the transactional stock reservation and order insert,
+ * from one thread and from eight threads ordering from a small set of hot products.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDatabase.PROFILE)
+public class OrderPlacementBenchmark {
+
+    private static final int CLIENTS = 1000;
+    private static final int PRODUCTS = 1000;
+    private static final int HOT_PRODUCTS = 10;
+
+    private OrdersBLL ordersBLL;
+
+    @Setup(Level.Trial)
+    public void createDatabase() {
+        BenchmarkDatabase.create(CLIENTS, PRODUCTS, Integer.MAX_VALUE);
+        ordersBLL = new OrdersBLL();
+    }
+
+    private OrderResult placeRandomOrder(int products) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return ordersBLL.placeOrder(new Orders(0, random.nextInt(1, CLIENTS + 1), random.nextInt(1, products + 1), 1));
+    }
+
+    @Benchmark
+    public OrderResult placeOrder() {
+        return placeRandomOrder(PRODUCTS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderResult placeOrderConcurrent() {
+        return placeRandomOrder(PRODUCTS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderResult placeOrderHotProducts() {
+        return placeRandomOrder(HOT_PRODUCTS);
+    }
+}
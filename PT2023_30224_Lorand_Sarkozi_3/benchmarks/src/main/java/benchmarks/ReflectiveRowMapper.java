@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code ReflectiveRowMapper} class keeps the original reflective implementation of
+ * {@code AbstractDAO.createObjects} as the baseline the cached {@link dataAccessLayer.RowMapper} is compared with.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class ReflectiveRowMapper {
+
+    private ReflectiveRowMapper() {
+    }
+
+    /**
+     * Maps every row of the result set with a new {@link PropertyDescriptor} per field and row.
+     *
+     * @param type      the class of the mapped objects
+     * @param resultSet the result set to map
+     * @param <T>       the type of the mapped objects
+     * @return the mapped objects
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> List<T> createObjects(Class<T> type, ResultSet resultSet) {
+        List<T> list = new ArrayList<T>();
+        Constructor[] ctors = type.getDeclaredConstructors();
+        Constructor ctor = null;
+        for (int i = 0; i < ctors.length; i++) {
+            ctor = ctors[i];
+            if (ctor.getGenericParameterTypes().length == 0)
+                break;
+        }
+        try {
+            while (resultSet.next()) {
+                ctor.setAccessible(true);
+                T instance = (T) ctor.newInstance();
+                for (Field field : type.getDeclaredFields()) {
+                    String fieldName = field.getName();
+                    Object value = resultSet.getObject(fieldName);
+                    PropertyDescriptor propertyDescriptor = new PropertyDescriptor(fieldName, type);
+                    Method method = propertyDescriptor.getWriteMethod();
+                    method.invoke(instance, value);
+                }
+                list.add(instance);
+            }
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException
+                 | SQLException | IntrospectionException e) {
+            throw new IllegalStateException(e);
+        }
+        return list;
+    }
+}
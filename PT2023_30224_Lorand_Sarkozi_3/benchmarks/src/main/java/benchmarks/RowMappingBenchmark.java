@@ -0,0 +1,70 @@
+package benchmarks;
+
+import dataAccessLayer.RowMapper;
+import model.Product;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cached {@link RowMapper} with the original reflective row mapping.
+ * The rows come from an in-memory {@link SimpleResultSet}, so only the mapping itself is measured;
+ * run with {@code -prof gc} to compare the allocation per operation.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private SimpleResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("name", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("ammount", Types.INTEGER, 10, 0);
+        for (int i = 1; i <= rows; i++) {
+            resultSet.addRow(i, "product" + i, i % 100);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void rewind() throws SQLException {
+        resultSet.beforeFirst();
+    }
+
+    @Benchmark
+    public List<Product> reflective() {
+        return ReflectiveRowMapper.createObjects(Product.class, resultSet);
+    }
+
+    @Benchmark
+    public List<Product> cachedMapper() throws SQLException {
+        return RowMapper.of(Product.class).mapAll(resultSet);
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import presentation.EntityTableModel;
+import presentation.RefelectionExample;
+import presentation.TableModelFactory;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a table model from a list of entities with {@link RefelectionExample#retrieveProperties(List)},
+ * which copies every cell, against {@link TableModelFactory#create(Class, List)}, which reads the cells lazily.
+ * The {@code readVisibleRows} benchmark adds the cost of reading the cells of the first screen of rows.
+ * Run with {@code -prof gc} to compare the allocation per operation.
+ *
+ * @Author Sarkozi Lorand
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableModelBenchmark {
+
+    private static final int VISIBLE_ROWS = 50;
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void createProducts() {
+        products = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            products.add(new Product(i, "product" + i, i % 100));
+        }
+    }
+
+    @Benchmark
+    public DefaultTableModel retrieveProperties() {
+        return RefelectionExample.retrieveProperties(products);
+    }
+
+    @Benchmark
+    public EntityTableModel<Product> tableModelFactory() {
+        return TableModelFactory.create(Product.class, products);
+    }
+
+    @Benchmark
+    public void readVisibleRows(Blackhole blackhole) {
+        EntityTableModel<Product> model = TableModelFactory.create(Product.class, products);
+        int visible = Math.min(VISIBLE_ROWS, model.getRowCount());
+        for (int row = 0; row < visible; row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                blackhole.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package businessLayer;
+
+/**
+ * The {@code CacheStatistics} record is a snapshot of the counters of an {@link EntityCache}.
+ *
+ * @param size        the number of entries in the cache
+ * @param hits        the number of lookups served from the cache
+ * @param misses      the number of lookups that went to the database
+ * @param evictions   the number of entries dropped because the cache was full
+ * @param expirations the number of entries dropped because they were older than the time to live
+ *
+ * @Author Sarkozi Lorand
+ */
+public record CacheStatistics(int size, long hits, long misses, long evictions, long expirations) {
+
+    /**
+     * Returns the fraction of the lookups served from the cache.
+     *
+     * @return the hit ratio, between 0 and 1, or 0 if there was no lookup
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
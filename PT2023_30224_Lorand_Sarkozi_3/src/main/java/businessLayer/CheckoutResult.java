@@ -0,0 +1,30 @@
+package businessLayer;
+
+import model.OrderHeader;
+import model.OrderLine;
+
+import java.util.List;
+
+/**
+ * The {@code CheckoutResult} record is the outcome of {@link OrdersBLL#checkout(OrderHeader, List)}:
+ * the status of the checkout, the order and its lines, which have their generated IDs when the order was
+ * placed, and the product that could not be reserved when it was refused for one.
+ *
+ * @param order     the order that was placed or refused
+ * @param lines     the lines of the order
+ * @param status    the outcome of the checkout
+ * @param productId the ID of the unknown or out of stock product, or {@code 0}
+ *
+ * @Author Sarkozi Lorand
+ */
+public record CheckoutResult(OrderHeader order, List<OrderLine> lines, OrderResult.Status status, int productId) {
+
+    /**
+     * Returns whether the order was placed.
+     *
+     * @return {@code true} if the status is {@link OrderResult.Status#PLACED}
+     */
+    public boolean isPlaced() {
+        return status == OrderResult.Status.PLACED;
+    }
+}
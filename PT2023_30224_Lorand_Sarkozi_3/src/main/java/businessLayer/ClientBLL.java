@@ -1,9 +1,18 @@
 package businessLayer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
+import businessLayer.validator.ClientNameValidator;
+import businessLayer.search.NameIndex;
+import businessLayer.search.SearchHit;
+import businessLayer.validator.Validator;
 import dataAccessLayer.ClientDAO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 import model.Client;
+import util.IntHashMap;
 
 /**
  * The {@code ClientBLL} class represents the business logic for client-related operations.
@@ -13,6 +22,25 @@ import model.Client;
  */
 public class ClientBLL {
 
+    private static final ClientDAO clientDAO = new ClientDAO();
+    private static final EntityCache<Client> clientCache =
+            new EntityCache<>(client -> new Client(client.getId(), client.getName()));
+    private static final List<Validator<Client>> validators = new ArrayList<>();
+    private static final OperationMetrics findMetrics = MetricsRegistry.operation("ClientBLL.findClientById");
+    private static final OperationMetrics findByIdsMetrics = MetricsRegistry.operation("ClientBLL.findClientsByIds");
+    private static final OperationMetrics insertMetrics = MetricsRegistry.operation("ClientBLL.insertClient");
+    private static final OperationMetrics deleteMetrics = MetricsRegistry.operation("ClientBLL.deleteClient");
+    private static final OperationMetrics updateMetrics = MetricsRegistry.operation("ClientBLL.updateClient");
+    private static final OperationMetrics insertAllMetrics = MetricsRegistry.operation("ClientBLL.insertClients");
+    private static final OperationMetrics updateAllMetrics = MetricsRegistry.operation("ClientBLL.updateClients");
+    private static final OperationMetrics searchMetrics = MetricsRegistry.operation("ClientBLL.searchClients");
+    private static final NameIndex clientIndex = new NameIndex(
+            sink -> clientDAO.forEach(client -> sink.accept(client.getId(), client.getName())));
+
+    static {
+        validators.add(new ClientNameValidator());
+    }
+
     /**
      * Constructs a new {@code ClientBLL} instance.
      */
@@ -20,46 +48,231 @@ public class ClientBLL {
     }
 
     /**
-     * Finds a client by the specified ID.
+     * Finds a client by the specified ID. Recently used clients are served from the cache.
      *
      * @param id the ID of the client to find
      * @return the found client
      * @throws NoSuchElementException if the client with the given ID was not found
      */
     public Client findClientById(int id) {
-        Client client = ClientDAO.findById(id);
-        if (client == null) {
-            throw new NoSuchElementException("The client with id=" + id + " was not found!");
+        return findClientById(id, false);
+    }
+
+    /**
+     * Finds a client by the specified ID, optionally reading it from the database even if it is cached,
+     * e.g. before updating it.
+     *
+     * @param id          the ID of the client to find
+     * @param bypassCache whether the client must be read from the database
+     * @return the found client
+     * @throws NoSuchElementException if the client with the given ID was not found
+     */
+    public Client findClientById(int id, boolean bypassCache) {
+        long start = findMetrics.start();
+        try {
+            Client client = bypassCache ? clientDAO.findById(id) : clientCache.get(id, clientDAO::findById);
+            if (client == null) {
+                throw new NoSuchElementException("The client with id=" + id + " was not found!");
+            }
+            return client;
+        } catch (RuntimeException e) {
+            findMetrics.error();
+            throw e;
+        } finally {
+            findMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Finds the clients with the specified IDs, serving the cached ones from the cache and loading
+     * all the others with one query.
+     *
+     * @param ids the IDs of the clients to find; duplicates are allowed
+     * @return the clients found, by ID; IDs without a client are missing from the map
+     */
+    public static IntHashMap<Client> findClientsByIds(int[] ids) {
+        long start = findByIdsMetrics.start();
+        try {
+            return clientCache.getAll(ids, clientDAO::findByIds, Client::getId);
+        } catch (RuntimeException e) {
+            findByIdsMetrics.error();
+            throw e;
+        } finally {
+            findByIdsMetrics.finished(start);
         }
-        return client;
     }
 
     /**
      * Inserts a new client.
      *
      * @param client the client to insert
-     * @return the ID of the inserted client
+     * @return the ID of the inserted client, or -1 if it could not be inserted
      */
     public static int insertClient(Client client) {
-        return ClientDAO.insert(client);
+        long start = insertMetrics.start();
+        try {
+            for (Validator<Client> validator : validators) {
+                validator.validate(client);
+            }
+            Client inserted = clientDAO.insert(client);
+            if (inserted == null) {
+                return -1;
+            }
+            clientCache.put(inserted.getId(), inserted);
+            clientIndex.put(inserted.getId(), inserted.getName());
+            return inserted.getId();
+        } catch (RuntimeException e) {
+            insertMetrics.error();
+            throw e;
+        } finally {
+            insertMetrics.finished(start);
+        }
     }
 
     /**
      * Deletes a client.
      *
      * @param client the client to delete
+     * @return {@code true} if it was deleted, {@code false} if the database could not be written
      */
-    public static void deleteClient(Client client) {
-        ClientDAO.delete(client);
+    public static boolean deleteClient(Client client) {
+        long start = deleteMetrics.start();
+        try {
+            if (!clientDAO.delete(client)) {
+                return false;
+            }
+            clientCache.invalidate(client.getId());
+            clientIndex.remove(client.getId());
+            return true;
+        } catch (RuntimeException e) {
+            deleteMetrics.error();
+            throw e;
+        } finally {
+            deleteMetrics.finished(start);
+        }
     }
 
     /**
      * Updates a client.
      *
      * @param client the client to update
+     * @return {@code true} if it was updated, {@code false} if the database could not be written or the client does not
+     *         exist
+     */
+    public static boolean updateClient(Client client) {
+        long start = updateMetrics.start();
+        try {
+            for (Validator<Client> validator : validators) {
+                validator.validate(client);
+            }
+            if (clientDAO.update(client) != null) {
+                clientCache.put(client.getId(), client);
+                clientIndex.put(client.getId(), client.getName());
+                return true;
+            }
+            clientCache.invalidate(client.getId());
+            return false;
+        } catch (RuntimeException e) {
+            updateMetrics.error();
+            throw e;
+        } finally {
+            updateMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Inserts a batch of new clients, as in a bulk import. Every client is validated before the first one
+     * is written, and the IDs generated by the database are set on the clients.
+     *
+     * @param clients the clients to insert
+     * @return the number of clients inserted
+     * @throws IllegalArgumentException if any of the clients fails validation
      */
-    public static void updateClient(Client client) {
-        ClientDAO.update(client);
+    public static int insertClients(List<Client> clients) {
+        long start = insertAllMetrics.start();
+        try {
+            validateAll(clients);
+            int inserted = clientDAO.insertAll(clients);
+            indexNames(clients, inserted);
+            return inserted;
+        } catch (RuntimeException e) {
+            insertAllMetrics.error();
+            throw e;
+        } finally {
+            insertAllMetrics.finished(start);
+        }
     }
 
+    /**
+     * Updates a batch of clients. Every client is validated before the first one is written.
+     *
+     * @param clients the clients to update
+     * @return the number of clients updated; those that do not exist are not counted
+     * @throws IllegalArgumentException if any of the clients fails validation
+     */
+    public static int updateClients(List<Client> clients) {
+        long start = updateAllMetrics.start();
+        try {
+            validateAll(clients);
+            List<Client> updated = new ArrayList<>(clients.size());
+            int count = clientDAO.updateAll(clients, updated);
+            for (Client client : clients) {
+                clientCache.invalidate(client.getId());
+            }
+            indexNames(updated, updated.size());
+            return count;
+        } catch (RuntimeException e) {
+            updateAllMetrics.error();
+            throw e;
+        } finally {
+            updateAllMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the counters of the client cache.
+     *
+     * @return the statistics of the client cache
+     */
+    public static CacheStatistics getCacheStatistics() {
+        return clientCache.getStatistics();
+    }
+
+    /**
+     * Returns the clients whose names start with or, for queries of at least three characters, contain the query,
+     * from an in-memory index filled on the first search.
+     *
+     * @param query the text to look for, in any case
+     * @param limit the largest number of clients returned
+     * @return the matching clients, names starting with the query first
+     */
+    public static List<SearchHit> searchClients(String query, int limit) {
+        long start = searchMetrics.start();
+        try {
+            return clientIndex.search(query, limit);
+        } catch (RuntimeException e) {
+            searchMetrics.error();
+            throw e;
+        } finally {
+            searchMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Indexes the names of the first clients of a batch, those written in committed batches.
+     */
+    private static void indexNames(List<Client> clients, int count) {
+        for (int i = 0; i < count; i++) {
+            Client client = clients.get(i);
+            clientIndex.put(client.getId(), client.getName());
+        }
+    }
+
+    private static void validateAll(List<Client> clients) {
+        for (Client client : clients) {
+            for (Validator<Client> validator : validators) {
+                validator.validate(client);
+            }
+        }
+    }
 }
@@ -0,0 +1,200 @@
+package businessLayer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+import connection.DatabaseConfig;
+import util.IntHashMap;
+
+/**
+ * The {@code EntityCache} class is a bounded, read-through cache of entities by ID, kept in front of a DAO.
+ * When it is full, the least recently used entry is evicted, and entries older than the time to live are
+ * loaded again. The cache keeps its own copies of the entities, so callers can modify what they get
+ * without changing the cached state; the BLL refreshes or invalidates entries when it writes them.
+ * <p>
+ * The size and time to live default to the {@code cache.maxSize} and {@code cache.ttlMillis} settings of
+ * {@link DatabaseConfig}.
+ *
+ * @param <T> the type of the cached entities
+ *
+ * @Author Sarkozi Lorand
+ */
+class EntityCache<T> {
+
+    static final int DEFAULT_MAX_SIZE = DatabaseConfig.getInt("cache.maxSize", 1000);
+    static final long DEFAULT_TTL_MILLIS = DatabaseConfig.getLong("cache.ttlMillis", 60_000L);
+
+    private final UnaryOperator<T> copier;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry<T>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long writes;
+
+    private record Entry<T>(T value, long loadedAt) {
+    }
+
+    /**
+     * Constructs a new cache with the default size and time to live.
+     *
+     * @param copier copies an entity
+     */
+    EntityCache(UnaryOperator<T> copier) {
+        this(copier, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param copier    copies an entity
+     * @param maxSize   the maximum number of entries; 0 disables the cache
+     * @param ttlMillis the time after which an entry is loaded again
+     */
+    EntityCache(UnaryOperator<T> copier, int maxSize, long ttlMillis) {
+        this.copier = copier;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<T>> eldest) {
+                if (size() > maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the entity with the given ID, loading it on a miss.
+     * The loader runs outside the lock of the cache; entities not found are not cached, and neither are
+     * entities loaded while the cache was written, as the loaded row may predate that write.
+     *
+     * @param id     the ID of the entity
+     * @param loader loads the entity from the database, returning {@code null} if it does not exist
+     * @return a copy of the entity, or {@code null} if it does not exist
+     */
+    T get(int id, IntFunction<T> loader) {
+        long seenWrites;
+        synchronized (this) {
+            seenWrites = writes;
+            Entry<T> entry = entries.get(id);
+            if (entry != null) {
+                if (System.currentTimeMillis() - entry.loadedAt() < ttlMillis) {
+                    hits++;
+                    return copier.apply(entry.value());
+                }
+                entries.remove(id);
+                expirations++;
+            }
+            misses++;
+        }
+        T loaded = loader.apply(id);
+        if (loaded != null) {
+            synchronized (this) {
+                if (writes == seenWrites) {
+                    entries.put(id, new Entry<>(copier.apply(loaded), System.currentTimeMillis()));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns copies of the entities with the given IDs, loading all the misses with one call of the loader.
+     *
+     * @param ids    the IDs of the entities; duplicates are allowed
+     * @param loader loads the entities with the given IDs from the database
+     * @param idOf   returns the ID of an entity
+     * @return the entities found, by ID
+     */
+    IntHashMap<T> getAll(int[] ids, Function<int[], List<T>> loader, ToIntFunction<T> idOf) {
+        IntHashMap<T> found = new IntHashMap<>(ids.length);
+        int[] missing = new int[ids.length];
+        int missingCount = 0;
+        long seenWrites;
+        synchronized (this) {
+            seenWrites = writes;
+            long now = System.currentTimeMillis();
+            for (int id : ids) {
+                if (found.containsKey(id)) {
+                    continue;
+                }
+                Entry<T> entry = entries.get(id);
+                if (entry != null && now - entry.loadedAt() >= ttlMillis) {
+                    entries.remove(id);
+                    expirations++;
+                    entry = null;
+                }
+                if (entry != null) {
+                    hits++;
+                    found.put(id, copier.apply(entry.value()));
+                } else {
+                    misses++;
+                    missing[missingCount++] = id;
+                }
+            }
+        }
+        if (missingCount == 0) {
+            return found;
+        }
+        List<T> loaded = loader.apply(Arrays.copyOf(missing, missingCount));
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (T entity : loaded) {
+                int id = idOf.applyAsInt(entity);
+                found.put(id, entity);
+                if (writes == seenWrites) {
+                    entries.put(id, new Entry<>(copier.apply(entity), now));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores a copy of the entity, replacing the cached one, e.g. after it was written.
+     *
+     * @param id     the ID of the entity
+     * @param entity the entity
+     */
+    synchronized void put(int id, T entity) {
+        writes++;
+        entries.put(id, new Entry<>(copier.apply(entity), System.currentTimeMillis()));
+    }
+
+    /**
+     * Drops the entity with the given ID, so the next lookup loads it again.
+     *
+     * @param id the ID of the entity
+     */
+    synchronized void invalidate(int id) {
+        writes++;
+        entries.remove(id);
+    }
+
+    /**
+     * Drops every entity.
+     */
+    synchronized void clear() {
+        writes++;
+        entries.clear();
+    }
+
+    /**
+     * Returns a snapshot of the counters of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(entries.size(), hits, misses, evictions, expirations);
+    }
+}
@@ -0,0 +1,40 @@
+package businessLayer;
+
+import model.Orders;
+
+/**
+ * The {@code OrderResult} record is the outcome of {@link OrdersBLL#placeOrder(Orders)}:
+ * the status of the placement and the order, which has its generated ID when it was placed.
+ *
+ * @param order  the order that was placed or refused
+ * @param status the outcome of the placement
+ *
+ * @Author Sarkozi Lorand
+ */
+public record OrderResult(Orders order, Status status) {
+
+    /**
+     * The {@code Status} enum lists the possible outcomes of placing an order.
+     */
+    public enum Status {
+        /** The stock was reserved and the order was inserted. */
+        PLACED,
+        /** No client has the ID of the order. */
+        UNKNOWN_CLIENT,
+        /** No product has the ID of the order. */
+        UNKNOWN_PRODUCT,
+        /** The product has less in stock than the amount ordered. */
+        INSUFFICIENT_STOCK,
+        /** The database failed; nothing was changed. */
+        FAILED
+    }
+
+    /**
+     * Returns whether the order was placed.
+     *
+     * @return {@code true} if the status is {@link Status#PLACED}
+     */
+    public boolean isPlaced() {
+        return status == Status.PLACED;
+    }
+}
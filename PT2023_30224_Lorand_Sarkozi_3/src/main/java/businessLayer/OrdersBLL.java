@@ -1,24 +1,68 @@
 package businessLayer;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import businessLayer.validator.Validator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import connection.ConnectionFactory;
+import connection.DatabaseConfig;
+import dataAccessLayer.ClientDAO;
+import dataAccessLayer.GroupCommitWriter;
+import dataAccessLayer.OrderHeaderDAO;
+import dataAccessLayer.OrderLineDAO;
 import dataAccessLayer.ProductDAO;
 import dataAccessLayer.OrdersDAO;
+import businessLayer.validator.OrderLineAmmValidator;
 import businessLayer.validator.OrdersAmmValidator;
-import model.Product;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.OrderHeader;
+import model.OrderLine;
 import model.Orders;
 
 /**
  * The {@code OrdersBLL} class represents the business logic for order-related operations.
  * It provides methods for finding and inserting orders.
+ * <p>
+ * With the {@code orders.groupCommit} setting of {@link DatabaseConfig} set to {@code true},
+ * {@link #insertOrder(Orders)} hands the orders to a {@link GroupCommitWriter}, which commits concurrent orders
+ * together in groups of up to {@code orders.groupCommit.batchSize} (500 by default);
+ * {@link #insertOrderAsync(Orders)} always uses it.
+ * By default a group is the orders that arrived while the previous one was being committed; a positive
+ * {@code orders.groupCommit.maxDelayMillis} makes each group wait that long to fill up.
+ * <p>
+ * Every order inserted or placed here is added to the sales counters of its product and its client in the same
+ * transaction, through {@link SalesCountersBLL}, so the counters always agree with the committed orders.
+ * Checkouts are kept in the {@code OrderHeader} and {@code OrderLine} tables; each line is counted as an order of
+ * its product, and each checkout as one order of its client.
  *
  * @Author Sarkozi Lorand
  */
 public class OrdersBLL {
 
+    private static final Logger LOGGER = Logger.getLogger(OrdersBLL.class.getName());
+    private static final OrdersDAO ordersDAO = new OrdersDAO();
+    private static final ClientDAO clientDAO = new ClientDAO();
+    private static final ProductDAO productDAO = new ProductDAO();
+    private static final OrderHeaderDAO orderHeaderDAO = new OrderHeaderDAO();
+    private static final OrderLineDAO orderLineDAO = new OrderLineDAO();
+    private static final OperationMetrics findMetrics = MetricsRegistry.operation("OrdersBLL.findOrdersById");
+    private static final OperationMetrics findPageMetrics = MetricsRegistry.operation("OrdersBLL.findOrders");
+    private static final OperationMetrics insertMetrics = MetricsRegistry.operation("OrdersBLL.insertOrder");
+    private static final boolean GROUP_COMMIT = DatabaseConfig.getBoolean("orders.groupCommit", false);
+    private static final OperationMetrics placeMetrics = MetricsRegistry.operation("OrdersBLL.placeOrder");
+    private static final OperationMetrics checkoutMetrics = MetricsRegistry.operation("OrdersBLL.checkout");
     private List<Validator<Orders>> validators;
+    private List<Validator<OrderLine>> lineValidators;
 
     /**
      * Constructs a new {@code OrdersBLL} instance.
@@ -27,6 +71,8 @@ public class OrdersBLL {
     public OrdersBLL() {
         validators = new ArrayList<Validator<Orders>>();
         validators.add(new OrdersAmmValidator());
+        lineValidators = new ArrayList<Validator<OrderLine>>();
+        lineValidators.add(new OrderLineAmmValidator());
     }
 
     /**
@@ -37,23 +83,319 @@ public class OrdersBLL {
      * @throws NoSuchElementException if the order with the given ID was not found
      */
     public Orders findOrdersById(int id) {
-        Orders order = OrdersDAO.findById(id);
-        if (order == null) {
-            throw new NoSuchElementException("The order with id=" + id + " was not found!");
+        long start = findMetrics.start();
+        try {
+            Orders order = ordersDAO.findById(id);
+            if (order == null) {
+                throw new NoSuchElementException("The order with id=" + id + " was not found!");
+            }
+            return order;
+        } catch (RuntimeException e) {
+            findMetrics.error();
+            throw e;
+        } finally {
+            findMetrics.finished(start);
         }
-        return order;
     }
 
     /**
-     * Inserts a new order.
+     * Finds a page of the orders of a client, in ID order.
+     *
+     * @param clientId the ID of the client
+     * @param afterId  the ID of the last order of the previous page; 0 for the first page
+     * @param limit    the maximum number of orders of the page
+     * @return the orders of the page, fewer than {@code limit} on the last page
+     */
+    public List<Orders> findOrdersByClientId(int clientId, int afterId, int limit) {
+        return findOrders(clientId, null, afterId, limit);
+    }
+
+    /**
+     * Finds a page of the orders of a product, in ID order.
+     *
+     * @param productId the ID of the product
+     * @param afterId   the ID of the last order of the previous page; 0 for the first page
+     * @param limit     the maximum number of orders of the page
+     * @return the orders of the page, fewer than {@code limit} on the last page
+     */
+    public List<Orders> findOrdersByProductId(int productId, int afterId, int limit) {
+        return findOrders(null, productId, afterId, limit);
+    }
+
+    /**
+     * Finds a page of the orders matching a filter, in ID order. Either criterion may be left out; without both,
+     * the page is taken from all the orders. Pages are fetched by keyset pagination, so any page costs the same:
+     * pass the ID of the last order of a page to get the next one.
+     *
+     * @param clientId  the ID of the client of the orders, or {@code null} for any client
+     * @param productId the ID of the product of the orders, or {@code null} for any product
+     * @param afterId   the ID of the last order of the previous page; 0 for the first page
+     * @param limit     the maximum number of orders of the page
+     * @return the orders of the page, fewer than {@code limit} on the last page
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public List<Orders> findOrders(Integer clientId, Integer productId, int afterId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The page size must be positive: " + limit);
+        }
+        long start = findPageMetrics.start();
+        try {
+            if (clientId != null && productId != null) {
+                return ordersDAO.findByClientAndProductId(clientId, productId, afterId, limit);
+            } else if (clientId != null) {
+                return ordersDAO.findByClientId(clientId, afterId, limit);
+            } else if (productId != null) {
+                return ordersDAO.findByProductId(productId, afterId, limit);
+            }
+            return ordersDAO.findPage(afterId, limit);
+        } catch (RuntimeException e) {
+            findPageMetrics.error();
+            throw e;
+        } finally {
+            findPageMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Streams all the orders without loading the table into memory.
+     * The stream holds a database connection and must be closed, e.g. with try-with-resources.
+     *
+     * @return a stream of all the orders
+     * @throws IllegalStateException if the orders could not be read, when the stream is opened or while it is
+     *                               consumed
+     */
+    public Stream<Orders> streamOrders() {
+        return ordersDAO.streamAll();
+    }
+
+    /**
+     * Passes every order to the given action, one row at a time.
+     *
+     * @param action the action to perform on each order
+     * @return the number of orders processed, or -1 if they could not be read
+     */
+    public int forEachOrder(Consumer<? super Orders> action) {
+        return ordersDAO.forEach(action);
+    }
+
+    /**
+     * Inserts a new order. In group commit mode the order is committed together with the orders inserted by
+     * other threads at the same time; either way it is committed, together with the sales counters of its product
+     * and its client, when this method returns its ID. In group commit mode the caller waits at most
+     * {@code orders.groupCommit.timeoutMillis} (30 seconds by default) for the commit; an order that timed out is
+     * reported as not inserted but may still be committed.
      *
      * @param order the order to insert
-     * @return the ID of the inserted order
+     * @return the ID of the inserted order, or -1 if it could not be inserted
      */
     public int insertOrder(Orders order) {
+        long start = insertMetrics.start();
+        try {
+            for (Validator<Orders> validator : validators) {
+                validator.validate(order);
+            }
+            if (GROUP_COMMIT) {
+                return GroupCommit.writer.submit(order)
+                        .orTimeout(GroupCommit.timeoutMillis, TimeUnit.MILLISECONDS)
+                        .handle((inserted, e) -> {
+                            if (e != null) {
+                                insertMetrics.error();
+                                LOGGER.log(Level.WARNING, "OrdersBLL:insertOrder " + e);
+                                return -1;
+                            }
+                            return inserted.getId();
+                        }).join();
+            }
+            ConnectionFactory.inTransaction(connection -> {
+                ordersDAO.insert(connection, order);
+                SalesCountersBLL.record(connection, List.of(order));
+                return order;
+            });
+            return order.getId();
+        } catch (SQLException e) {
+            insertMetrics.error();
+            LOGGER.log(Level.WARNING, "OrdersBLL:insertOrder " + e.getMessage());
+            return -1;
+        } catch (RuntimeException e) {
+            insertMetrics.error();
+            throw e;
+        } finally {
+            insertMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Inserts a new order with the next group commit, without waiting for it. The order is committed, and its
+     * generated ID set, when the future completes.
+     *
+     * @param order the order to insert
+     * @return a future completed with the ID of the committed order, or exceptionally if it could not be inserted
+     * @throws IllegalArgumentException if the order is not valid
+     */
+    public CompletableFuture<Integer> insertOrderAsync(Orders order) {
         for (Validator<Orders> validator : validators) {
             validator.validate(order);
         }
-        return OrdersDAO.insert(order);
+        return GroupCommit.writer.submit(order).thenApply(Orders::getId);
+    }
+
+    /**
+     * Places an order: checks the client, takes the amount out of the stock of the product, inserts
+     * the order and adds it to the sales counters, all in one transaction on one connection. The stock
+     * is reserved with a conditional decrement, so concurrent orders for the same product never oversell
+     * it; if any step fails, nothing is changed. The generated ID is set on the order when it is placed.
+     * The stock is never read from the product cache; the cached product is dropped once its stock changed.
+     *
+     * @param order the order to place
+     * @return the outcome of the placement
+     * @throws IllegalArgumentException if the order is not valid
+     */
+    public OrderResult placeOrder(Orders order) {
+        long start = placeMetrics.start();
+        try {
+            for (Validator<Orders> validator : validators) {
+                validator.validate(order);
+            }
+            OrderResult.Status status = ConnectionFactory.inTransaction(connection -> {
+                if (!clientDAO.exists(connection, order.getClientId())) {
+                    return OrderResult.Status.UNKNOWN_CLIENT;
+                }
+                if (!productDAO.reserveStock(connection, order.getProductId(), order.getOrderAmm())) {
+                    return productDAO.exists(connection, order.getProductId())
+                            ? OrderResult.Status.INSUFFICIENT_STOCK
+                            : OrderResult.Status.UNKNOWN_PRODUCT;
+                }
+                ordersDAO.insert(connection, order);
+                SalesCountersBLL.record(connection, List.of(order));
+                return OrderResult.Status.PLACED;
+            });
+            if (status == OrderResult.Status.PLACED) {
+                ProductBLL.invalidateCachedProduct(order.getProductId());
+            }
+            return new OrderResult(order, status);
+        } catch (SQLException e) {
+            placeMetrics.error();
+            LOGGER.log(Level.WARNING, "OrdersBLL:placeOrder " + e.getMessage());
+            return new OrderResult(order, OrderResult.Status.FAILED);
+        } catch (RuntimeException e) {
+            placeMetrics.error();
+            throw e;
+        } finally {
+            placeMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Checks out an order of several products: checks the client, takes the amount of every line out of the
+     * stock of its product, inserts the order, batch-inserts its lines and adds them to the sales counters, all in
+     * one transaction on one connection. The stock of all the products is reserved with one batch of conditional
+     * decrements, in ascending product ID order, so concurrent checkouts lock the product rows in the same order
+     * and never deadlock; lines of the same product are reserved together. If any product is unknown or out of stock,
+     * or any step fails, nothing is changed.
+     * The generated IDs are set on the order and its lines when it is placed, and the cached products are
+     * dropped once their stock changed.
+     *
+     * @param order the order, with its client ID set
+     * @param lines the lines of the order, with their product IDs and amounts set
+     * @return the outcome of the checkout
+     * @throws IllegalArgumentException if the order has no lines or a line is not valid
+     */
+    public CheckoutResult checkout(OrderHeader order, List<OrderLine> lines) {
+        long start = checkoutMetrics.start();
+        try {
+            if (lines.isEmpty()) {
+                throw new IllegalArgumentException("The order has no lines!");
+            }
+            for (OrderLine line : lines) {
+                for (Validator<OrderLine> validator : lineValidators) {
+                    validator.validate(line);
+                }
+            }
+            List<OrderLine> byProduct = new ArrayList<>(lines);
+            byProduct.sort(Comparator.comparingInt(OrderLine::getProductId));
+            int[] productIds = new int[byProduct.size()];
+            int[] amounts = new int[byProduct.size()];
+            int products = 0;
+            for (OrderLine line : byProduct) {
+                if (products > 0 && productIds[products - 1] == line.getProductId()) {
+                    amounts[products - 1] = Math.addExact(amounts[products - 1], line.getAmount());
+                } else {
+                    productIds[products] = line.getProductId();
+                    amounts[products] = line.getAmount();
+                    products++;
+                }
+            }
+            int[] reservedIds = products == productIds.length ? productIds : Arrays.copyOf(productIds, products);
+            int[] reservedAmounts = products == amounts.length ? amounts : Arrays.copyOf(amounts, products);
+
+            OrderResult.Status status = ConnectionFactory.inTransaction(connection -> {
+                if (!clientDAO.exists(connection, order.getClientId())) {
+                    return OrderResult.Status.UNKNOWN_CLIENT;
+                }
+                int refused = productDAO.reserveStock(connection, reservedIds, reservedAmounts);
+                if (refused >= 0) {
+                    throw new CheckoutRefused(productDAO.exists(connection, reservedIds[refused])
+                            ? OrderResult.Status.INSUFFICIENT_STOCK
+                            : OrderResult.Status.UNKNOWN_PRODUCT, reservedIds[refused]);
+                }
+                orderHeaderDAO.insert(connection, order);
+                for (OrderLine line : lines) {
+                    line.setOrderId(order.getId());
+                }
+                orderLineDAO.insertAll(connection, lines);
+                SalesCountersBLL.record(connection, order, lines);
+                return OrderResult.Status.PLACED;
+            });
+            if (status == OrderResult.Status.PLACED) {
+                for (int productId : reservedIds) {
+                    ProductBLL.invalidateCachedProduct(productId);
+                }
+            }
+            return new CheckoutResult(order, lines, status, 0);
+        } catch (CheckoutRefused e) {
+            return new CheckoutResult(order, lines, e.status, e.productId);
+        } catch (SQLException e) {
+            checkoutMetrics.error();
+            LOGGER.log(Level.WARNING, "OrdersBLL:checkout " + e.getMessage());
+            return new CheckoutResult(order, lines, OrderResult.Status.FAILED, 0);
+        } catch (RuntimeException e) {
+            checkoutMetrics.error();
+            throw e;
+        } finally {
+            checkoutMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Holds the group commit writer of the orders, so its thread is only started when it is first used.
+     */
+    private static final class GroupCommit {
+
+        private static final long timeoutMillis = DatabaseConfig.getLong("orders.groupCommit.timeoutMillis", 30_000L);
+
+        private static final GroupCommitWriter<Orders> writer = new GroupCommitWriter<>("OrdersBLL",
+                (connection, orders) -> {
+                    ordersDAO.insertAll(connection, orders);
+                    SalesCountersBLL.record(connection, orders);
+                },
+                DatabaseConfig.getInt("orders.groupCommit.batchSize", 500),
+                DatabaseConfig.getLong("orders.groupCommit.maxDelayMillis", 0L),
+                DatabaseConfig.getInt("orders.groupCommit.queueCapacity", 10_000));
+    }
+
+    /**
+     * Thrown inside the transaction of a checkout when a product cannot be reserved, so the transaction
+     * rolls back the products reserved before it.
+     */
+    private static final class CheckoutRefused extends RuntimeException {
+
+        private final OrderResult.Status status;
+        private final int productId;
+
+        CheckoutRefused(OrderResult.Status status, int productId) {
+            super(null, null, false, false);
+            this.status = status;
+            this.productId = productId;
+        }
     }
 }
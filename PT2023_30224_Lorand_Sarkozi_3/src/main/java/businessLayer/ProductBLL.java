@@ -5,8 +5,13 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import dataAccessLayer.ProductDAO;
 import businessLayer.validator.ProductAmmValidator;
+import businessLayer.search.NameIndex;
+import businessLayer.search.SearchHit;
 import businessLayer.validator.Validator;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 import model.Product;
+import util.IntHashMap;
 
 /**
  * The {@code ProductBLL} class represents the business logic for product-related operations.
@@ -16,63 +21,268 @@ import model.Product;
  */
 public class ProductBLL {
 
-    private static List<Validator<Product>> validators = new ArrayList<>();
+    private static final ProductDAO productDAO = new ProductDAO();
+    private static final EntityCache<Product> productCache =
+            new EntityCache<>(product -> new Product(product.getId(), product.getName(), product.getAmmount()));
+    private static final List<Validator<Product>> validators = new ArrayList<>();
+    private static final OperationMetrics findMetrics = MetricsRegistry.operation("ProductBLL.findProductById");
+    private static final OperationMetrics findByIdsMetrics = MetricsRegistry.operation("ProductBLL.findProductsByIds");
+    private static final OperationMetrics insertMetrics = MetricsRegistry.operation("ProductBLL.insertProduct");
+    private static final OperationMetrics updateMetrics = MetricsRegistry.operation("ProductBLL.updateProduct");
+    private static final OperationMetrics deleteMetrics = MetricsRegistry.operation("ProductBLL.deleteProduct");
+    private static final OperationMetrics insertAllMetrics = MetricsRegistry.operation("ProductBLL.insertProducts");
+    private static final OperationMetrics updateAllMetrics = MetricsRegistry.operation("ProductBLL.updateProducts");
+    private static final OperationMetrics searchMetrics = MetricsRegistry.operation("ProductBLL.searchProducts");
+    private static final NameIndex productIndex = new NameIndex(
+            sink -> productDAO.forEach(product -> sink.accept(product.getId(), product.getName())));
+
+    static {
+        validators.add(new ProductAmmValidator());
+    }
 
     /**
      * Constructs a new {@code ProductBLL} instance.
-     * Initializes the list of validators.
      */
     public ProductBLL() {
-        validators = new ArrayList<>();
-        validators.add(new ProductAmmValidator());
     }
 
     /**
-     * Finds a product by the specified ID.
+     * Finds a product by the specified ID. Recently used products are served from the cache,
+     * so the stock of the product may be out of date; use {@link #findProductById(int, boolean)}
+     * to read it for an update.
      *
      * @param id the ID of the product to find
      * @return the found product
      * @throws NoSuchElementException if the product with the given ID was not found
      */
     public Product findProductById(int id) {
-        Product product = ProductDAO.findById(id);
-        if (product == null) {
-            throw new NoSuchElementException("The product with id = " + id + " was not found!");
+        return findProductById(id, false);
+    }
+
+    /**
+     * Finds a product by the specified ID, optionally reading it from the database even if it is cached,
+     * e.g. before updating it.
+     *
+     * @param id          the ID of the product to find
+     * @param bypassCache whether the product must be read from the database
+     * @return the found product
+     * @throws NoSuchElementException if the product with the given ID was not found
+     */
+    public Product findProductById(int id, boolean bypassCache) {
+        long start = findMetrics.start();
+        try {
+            Product product = bypassCache ? productDAO.findById(id) : productCache.get(id, productDAO::findById);
+            if (product == null) {
+                throw new NoSuchElementException("The product with id = " + id + " was not found!");
+            }
+            return product;
+        } catch (RuntimeException e) {
+            findMetrics.error();
+            throw e;
+        } finally {
+            findMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Finds the products with the specified IDs, serving the cached ones from the cache and loading
+     * all the others with one query.
+     *
+     * @param ids the IDs of the products to find; duplicates are allowed
+     * @return the products found, by ID; IDs without a product are missing from the map
+     */
+    public static IntHashMap<Product> findProductsByIds(int[] ids) {
+        long start = findByIdsMetrics.start();
+        try {
+            return productCache.getAll(ids, productDAO::findByIds, Product::getId);
+        } catch (RuntimeException e) {
+            findByIdsMetrics.error();
+            throw e;
+        } finally {
+            findByIdsMetrics.finished(start);
         }
-        return product;
     }
 
     /**
      * Inserts a new product.
      *
      * @param product the product to insert
-     * @return the ID of the inserted product
+     * @return the ID of the inserted product, or -1 if it could not be inserted
      */
     public int insertProduct(Product product) {
-        for (Validator<Product> validator : validators) {
-            validator.validate(product);
+        long start = insertMetrics.start();
+        try {
+            for (Validator<Product> validator : validators) {
+                validator.validate(product);
+            }
+            Product inserted = productDAO.insert(product);
+            if (inserted == null) {
+                return -1;
+            }
+            productCache.put(inserted.getId(), inserted);
+            productIndex.put(inserted.getId(), inserted.getName());
+            return inserted.getId();
+        } catch (RuntimeException e) {
+            insertMetrics.error();
+            throw e;
+        } finally {
+            insertMetrics.finished(start);
         }
-        return ProductDAO.insert(product);
     }
 
     /**
      * Updates an existing product.
      *
      * @param product the product to update
+     * @return {@code true} if it was updated, {@code false} if the database could not be written or the product does not
+     *         exist
      */
-    public static void updateProduct(Product product) {
-        for (Validator<Product> validator : validators) {
-            validator.validate(product);
+    public static boolean updateProduct(Product product) {
+        long start = updateMetrics.start();
+        try {
+            for (Validator<Product> validator : validators) {
+                validator.validate(product);
+            }
+            if (productDAO.update(product) != null) {
+                productCache.put(product.getId(), product);
+                productIndex.put(product.getId(), product.getName());
+                return true;
+            }
+            productCache.invalidate(product.getId());
+            return false;
+        } catch (RuntimeException e) {
+            updateMetrics.error();
+            throw e;
+        } finally {
+            updateMetrics.finished(start);
         }
-        ProductDAO.update(product);
     }
 
     /**
      * Deletes an existing product.
      *
      * @param product the product to delete
+     * @return {@code true} if it was deleted, {@code false} if the database could not be written
+     */
+    public static boolean deleteProduct(Product product) {
+        long start = deleteMetrics.start();
+        try {
+            if (!productDAO.delete(product)) {
+                return false;
+            }
+            productCache.invalidate(product.getId());
+            productIndex.remove(product.getId());
+            return true;
+        } catch (RuntimeException e) {
+            deleteMetrics.error();
+            throw e;
+        } finally {
+            deleteMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Inserts a batch of new products, as in a catalogue import. Every product is validated before the
+     * first one is written, and the IDs generated by the database are set on the products.
+     *
+     * @param products the products to insert
+     * @return the number of products inserted
+     * @throws IllegalArgumentException if any of the products fails validation
+     */
+    public int insertProducts(List<Product> products) {
+        long start = insertAllMetrics.start();
+        try {
+            validateAll(products);
+            int inserted = productDAO.insertAll(products);
+            indexNames(products, inserted);
+            return inserted;
+        } catch (RuntimeException e) {
+            insertAllMetrics.error();
+            throw e;
+        } finally {
+            insertAllMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Updates a batch of products. Every product is validated before the first one is written.
+     *
+     * @param products the products to update
+     * @return the number of products updated; those that do not exist are not counted
+     * @throws IllegalArgumentException if any of the products fails validation
+     */
+    public static int updateProducts(List<Product> products) {
+        long start = updateAllMetrics.start();
+        try {
+            validateAll(products);
+            List<Product> updated = new ArrayList<>(products.size());
+            int count = productDAO.updateAll(products, updated);
+            for (Product product : products) {
+                productCache.invalidate(product.getId());
+            }
+            indexNames(updated, updated.size());
+            return count;
+        } catch (RuntimeException e) {
+            updateAllMetrics.error();
+            throw e;
+        } finally {
+            updateAllMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Drops the cached product with the given ID, after its row was changed outside this class.
+     *
+     * @param id the ID of the product
      */
-    public static void deleteProduct(Product product) {
-        ProductDAO.delete(product);
+    static void invalidateCachedProduct(int id) {
+        productCache.invalidate(id);
+    }
+
+    /**
+     * Returns a snapshot of the counters of the product cache.
+     *
+     * @return the statistics of the product cache
+     */
+    public static CacheStatistics getCacheStatistics() {
+        return productCache.getStatistics();
+    }
+
+    /**
+     * Returns the products whose names start with or, for queries of at least three characters, contain the query,
+     * from an in-memory index filled on the first search.
+     *
+     * @param query the text to look for, in any case
+     * @param limit the largest number of products returned
+     * @return the matching products, names starting with the query first
+     */
+    public static List<SearchHit> searchProducts(String query, int limit) {
+        long start = searchMetrics.start();
+        try {
+            return productIndex.search(query, limit);
+        } catch (RuntimeException e) {
+            searchMetrics.error();
+            throw e;
+        } finally {
+            searchMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Indexes the names of the first products of a batch, those written in committed batches.
+     */
+    private static void indexNames(List<Product> products, int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = products.get(i);
+            productIndex.put(product.getId(), product.getName());
+        }
+    }
+
+    private static void validateAll(List<Product> products) {
+        for (Product product : products) {
+            for (Validator<Product> validator : validators) {
+                validator.validate(product);
+            }
+        }
     }
 }
@@ -0,0 +1,131 @@
+package businessLayer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import dataAccessLayer.ClientSalesDAO;
+import dataAccessLayer.ProductSalesDAO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.OrderHeader;
+import model.OrderLine;
+import model.Orders;
+import model.SalesCounter;
+
+/**
+ * The {@code SalesCountersBLL} class represents the business logic of the sales counters: the units and the
+ * number of orders of every product and every client, kept up to date by {@link OrdersBLL} in the transaction of
+ * each order and each checkout, whose lines count as orders of their products and which counts as one order of
+ * its client. Reading the sales of a product or a client is one primary key lookup, however many orders there
+ * are. The counters are recomputed from the orders by {@link reporting.SalesCounterRebuild}, e.g. after orders
+ * were bulk-loaded without them.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesCountersBLL {
+
+    private static final ProductSalesDAO productSalesDAO = new ProductSalesDAO();
+    private static final ClientSalesDAO clientSalesDAO = new ClientSalesDAO();
+    private static final OperationMetrics findProductMetrics =
+            MetricsRegistry.operation("SalesCountersBLL.findProductSales");
+    private static final OperationMetrics findClientMetrics =
+            MetricsRegistry.operation("SalesCountersBLL.findClientSales");
+
+    /**
+     * Constructs a new {@code SalesCountersBLL} instance.
+     */
+    public SalesCountersBLL() {
+    }
+
+    /**
+     * Finds the sales of a product.
+     *
+     * @param productId the ID of the product
+     * @return its counter, with zero units and orders if it was never ordered
+     * @throws IllegalStateException if the counter could not be read
+     */
+    public SalesCounter findProductSales(int productId) {
+        return find(productSalesDAO::find, findProductMetrics, "product", productId);
+    }
+
+    /**
+     * Finds the sales of a client.
+     *
+     * @param clientId the ID of the client
+     * @return its counter, with zero units and orders if it never ordered
+     * @throws IllegalStateException if the counter could not be read
+     */
+    public SalesCounter findClientSales(int clientId) {
+        return find(clientSalesDAO::find, findClientMetrics, "client", clientId);
+    }
+
+    private static SalesCounter find(IntFunction<SalesCounter> reader, OperationMetrics metrics, String kind,
+                                     int key) {
+        long start = metrics.start();
+        try {
+            SalesCounter counter = reader.apply(key);
+            if (counter == null) {
+                throw new IllegalStateException("The sales of the " + kind + " with id=" + key
+                        + " could not be read!");
+            }
+            return counter;
+        } catch (RuntimeException e) {
+            metrics.error();
+            throw e;
+        } finally {
+            metrics.finished(start);
+        }
+    }
+
+    /**
+     * Adds inserted orders to the counters of their products and clients, on the connection of the transaction
+     * that inserted them. The products are updated before the clients, each in ascending ID order, so concurrent
+     * transactions lock the counters in the same order.
+     *
+     * @param connection the connection of the transaction; it is not closed nor committed
+     * @param orders     the inserted orders
+     * @throws SQLException if the counters could not be updated; the caller must roll back
+     */
+    static void record(Connection connection, List<Orders> orders) throws SQLException {
+        int[] productIds = new int[orders.size()];
+        int[] clientIds = new int[orders.size()];
+        int[] amounts = new int[orders.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            Orders order = orders.get(i);
+            productIds[i] = order.getProductId();
+            clientIds[i] = order.getClientId();
+            amounts[i] = order.getOrderAmm();
+        }
+        record(connection, productIds, amounts, clientIds, amounts);
+    }
+
+    /**
+     * Adds a checked out order to the counters, like {@link #record(Connection, List)}: each line as one order of
+     * its product, and the whole order as one order of its client, with the units of all its lines.
+     *
+     * @param connection the connection of the transaction; it is not closed nor committed
+     * @param order      the inserted order
+     * @param lines      the inserted lines of the order
+     * @throws SQLException if the counters could not be updated; the caller must roll back
+     */
+    static void record(Connection connection, OrderHeader order, List<OrderLine> lines) throws SQLException {
+        int[] productIds = new int[lines.size()];
+        int[] amounts = new int[lines.size()];
+        int units = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            OrderLine line = lines.get(i);
+            productIds[i] = line.getProductId();
+            amounts[i] = line.getAmount();
+            units = Math.addExact(units, line.getAmount());
+        }
+        record(connection, productIds, amounts, new int[]{order.getClientId()}, new int[]{units});
+    }
+
+    private static void record(Connection connection, int[] productIds, int[] productAmounts, int[] clientIds,
+                               int[] clientAmounts) throws SQLException {
+        productSalesDAO.addOrders(connection, productIds, productAmounts);
+        clientSalesDAO.addOrders(connection, clientIds, clientAmounts);
+    }
+}
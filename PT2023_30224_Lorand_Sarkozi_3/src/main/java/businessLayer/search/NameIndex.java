@@ -0,0 +1,301 @@
+package businessLayer.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+import util.IntHashMap;
+
+/**
+ * The {@code NameIndex} class answers type-ahead searches over the names of one kind of entity, without
+ * querying the database. Names are compared in lower case. A query returns first the names starting with it,
+ * in alphabetical order, then, for queries of three characters or more, the names containing it elsewhere,
+ * in ID order; both stop as soon as enough hits were found, so a query costs microseconds even over hundreds
+ * of thousands of names.
+ * <p>
+ * Prefixes are looked up in a sorted map of the names. Substrings are looked up in a trigram index: every
+ * three consecutive characters of a name map to the sorted IDs of the names containing them, so the candidates
+ * of a query are the IDs in the postings of all its trigrams, which are then checked against the name.
+ * <p>
+ * The index is filled from the database on the first search, through the loader given to the constructor,
+ * and kept up to date by the BLL through {@link #put(int, String)} and {@link #remove(int)}. Changes made
+ * while it is being filled win over the rows read by the loader. Searches and changes are safe from any thread.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class NameIndex {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ToIntFunction<IntHashMap.IntObjConsumer<String>> loader;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntHashMap<String> names = new IntHashMap<>();
+    private final IntHashMap<String> keys = new IntHashMap<>();
+    private final TreeMap<String, Integer> sorted = new TreeMap<>();
+    private final IntHashMap<Posting> postings = new IntHashMap<>();
+    private final Object loadLock = new Object();
+    private IntHashMap<Boolean> changedWhileLoading;
+    private volatile boolean loaded;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param loader passes the ID and the name of every entity in the database to the given consumer and
+     *               returns their number, or {@code -1} if they could not be read; it is called on the first
+     *               search, and again on the next one if it failed
+     */
+    public NameIndex(ToIntFunction<IntHashMap.IntObjConsumer<String>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Adds or renames an entity.
+     *
+     * @param id   the ID of the entity
+     * @param name its name; a {@code null} name removes the entity
+     */
+    public void put(int id, String name) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            index(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an entity.
+     *
+     * @param id the ID of the entity
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities whose names start with the query and, for queries of at least three characters,
+     * the entities whose names contain it, up to the given number of hits.
+     *
+     * @param query the text to look for, in any case
+     * @param limit the largest number of hits
+     * @return the hits, names starting with the query first
+     */
+    public List<SearchHit> search(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        loadIfNeeded();
+        List<SearchHit> hits = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, Integer> entry : sorted.subMap(key, key + Character.MAX_VALUE).entrySet()) {
+                if (hits.size() == limit) {
+                    return hits;
+                }
+                int id = entry.getValue();
+                hits.add(new SearchHit(id, names.get(id)));
+            }
+            if (key.length() >= 3) {
+                addContaining(key, limit, hits);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed entities.
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the entities whose names contain the key but do not start with it: walks the shortest posting
+     * of the trigrams of the key, skipping the IDs missing from the other postings.
+     */
+    private void addContaining(String key, int limit, List<SearchHit> hits) {
+        int count = key.length() - 2;
+        Posting[] lists = new Posting[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = postings.get(trigram(key, i));
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        Posting shortest = lists[0];
+        for (int i = 0; i < shortest.size && hits.size() < limit; i++) {
+            int id = shortest.ids[i];
+            if (containsAll(lists, id)) {
+                String name = keys.get(id);
+                if (!name.startsWith(key) && name.contains(key)) {
+                    hits.add(new SearchHit(id, names.get(id)));
+                }
+            }
+        }
+    }
+
+    private static boolean containsAll(Posting[] lists, int id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the index on the first search. Other searches wait for it; changes are applied meanwhile and
+     * recorded, so the loader does not overwrite them with rows it read before they were committed.
+     */
+    private void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                changedWhileLoading = new IntHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            int count = -1;
+            try {
+                count = loader.applyAsInt((id, name) -> {
+                    lock.writeLock().lock();
+                    try {
+                        if (!changedWhileLoading.containsKey(id)) {
+                            index(id, name);
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changedWhileLoading = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            loaded = count >= 0;
+        }
+    }
+
+    private void markChanged(int id) {
+        if (changedWhileLoading != null) {
+            changedWhileLoading.put(id, Boolean.TRUE);
+        }
+    }
+
+    private void index(int id, String name) {
+        unindex(id);
+        if (name == null) {
+            return;
+        }
+        String key = normalize(name);
+        names.put(id, name);
+        keys.put(id, key);
+        sorted.put(key + KEY_SEPARATOR + id, id);
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            int trigram = trigram(key, i);
+            Posting posting = postings.get(trigram);
+            if (posting == null) {
+                posting = new Posting();
+                postings.put(trigram, posting);
+            }
+            posting.add(id);
+        }
+    }
+
+    private void unindex(int id) {
+        String key = keys.remove(id);
+        if (key == null) {
+            return;
+        }
+        names.remove(id);
+        sorted.remove(key + KEY_SEPARATOR + id);
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            int trigram = trigram(key, i);
+            Posting posting = postings.get(trigram);
+            if (posting != null && posting.remove(id) && posting.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Hashes the three characters starting at the given index; different trigrams may share a hash, which only
+     * adds candidates, since every candidate is checked against its name.
+     */
+    private static int trigram(String key, int index) {
+        return (key.charAt(index) << 20) ^ (key.charAt(index + 1) << 10) ^ key.charAt(index + 2);
+    }
+
+    /**
+     * The sorted IDs of the names containing one trigram.
+     */
+    private static final class Posting {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
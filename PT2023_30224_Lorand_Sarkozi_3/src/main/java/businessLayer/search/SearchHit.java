@@ -0,0 +1,22 @@
+package businessLayer.search;
+
+/**
+ * The {@code SearchHit} record is one result of a {@link NameIndex} search: the ID of the entity and its name.
+ *
+ * @param id   the ID of the entity
+ * @param name the name of the entity, as it was indexed
+ *
+ * @Author Sarkozi Lorand
+ */
+public record SearchHit(int id, String name) {
+
+    /**
+     * Returns the name and the ID, as shown in a list of results.
+     *
+     * @return the text of the hit
+     */
+    @Override
+    public String toString() {
+        return name + " (" + id + ")";
+    }
+}
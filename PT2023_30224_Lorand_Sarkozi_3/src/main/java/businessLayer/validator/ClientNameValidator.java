@@ -0,0 +1,24 @@
+package businessLayer.validator;
+
+import model.Client;
+
+/**
+ * The {@code ClientNameValidator} class validates the name of clients.
+ * It implements the {@link Validator} interface with {@code Client} as the type to validate.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class ClientNameValidator implements Validator<Client> {
+
+    /**
+     * Validates the name of the client.
+     *
+     * @param client the client to validate
+     * @throws IllegalArgumentException if the client name is missing or blank
+     */
+    public void validate(Client client) {
+        if (client.getName() == null || client.getName().isBlank()) {
+            throw new IllegalArgumentException("The Client Name must not be empty!");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package businessLayer.validator;
+
+import model.OrderLine;
+
+/**
+ * The {@code OrderLineAmmValidator} class validates the amount of order lines.
+ * It implements the {@link Validator} interface with {@code OrderLine} as the type to validate.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrderLineAmmValidator implements Validator<OrderLine> {
+
+    /**
+     * Validates the amount of an order line.
+     *
+     * @param line the order line to validate
+     * @throws IllegalArgumentException if the amount of the line is less than 1
+     */
+    public void validate(OrderLine line) {
+        if (line.getAmount() < 1) {
+            throw new IllegalArgumentException("The Order Line Amount limit is not respected!");
+        }
+    }
+}
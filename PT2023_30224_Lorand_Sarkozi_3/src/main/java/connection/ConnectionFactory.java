@@ -1,63 +1,193 @@
 package connection;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * The {@code ConnectionFactory} class provides methods to establish and manage database connections.
+ * Connections are lent out by a {@link ConnectionPool}; closing them through {@link #close(Connection)}
+ * gives them back to the pool instead of closing the physical connection, and closing a prepared statement
+ * through {@link #close(Statement)} gives it back to the statement cache of its connection.
+ * <p>
+ * The database and the pool are configured through {@link DatabaseConfig}, from system properties,
+ * environment variables or a properties file; with the {@code h2} profile the application runs against an
+ * embedded, in-memory database whose tables are created from the {@code schema.sql} resource.
  *
  * @Author Sarkozi Lorand
  */
 public class ConnectionFactory {
 
     private static final Logger LOGGER = Logger.getLogger(ConnectionFactory.class.getName());
-    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
-    private static final String DBURL = "jdbc:mysql://localhost:3306/orders_management";
-    private static final String USER = "root";
-    private static final String PASS = "Timea.25";
+    private static final String DRIVER = DatabaseConfig.getDriver();
+    private static final String DBURL = DatabaseConfig.getUrl();
+    private static final String USER = DatabaseConfig.getUser();
+    private static final String PASS = DatabaseConfig.getPassword();
+    private static final int TRANSACTION_ATTEMPTS = 3;
 
     private static ConnectionFactory singleInstance = new ConnectionFactory();
 
+    private final ConnectionPool pool;
+    private final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+
     private ConnectionFactory() {
         try {
             Class.forName(DRIVER);
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
         }
+        pool = new ConnectionPool(DBURL, USER, PASS, new PoolConfig());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::runShutdownTasks, "connection-pool-shutdown"));
+        String schema = DatabaseConfig.getSchemaResource();
+        if (schema != null) {
+            runScript(schema);
+        }
+    }
+
+    /**
+     * Runs the statements of an SQL script from the classpath, separated by semicolons.
+     * Lines starting with {@code --} are comments.
+     */
+    private void runScript(String resource) {
+        try (InputStream in = ConnectionFactory.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                LOGGER.log(Level.WARNING, "ConnectionFactory: the script " + resource + " was not found");
+                return;
+            }
+            StringBuilder script = new StringBuilder();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                if (!line.trim().startsWith("--")) {
+                    script.append(line).append('\n');
+                }
+            }
+            Connection connection = pool.borrow();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : script.toString().split(";")) {
+                    if (!sql.isBlank()) {
+                        statement.execute(sql);
+                    }
+                }
+            } finally {
+                close(connection);
+            }
+        } catch (IOException | SQLException e) {
+            LOGGER.log(Level.WARNING, "ConnectionFactory:runScript " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the registered shutdown tasks, in registration order, then closes the pool.
+     */
+    private void runShutdownTasks() {
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "A shutdown task failed: " + e.getMessage());
+            }
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Borrows a database connection from the pool; closing it through {@link #close(Connection)} gives it back.
+     *
+     * @return the database connection
+     * @throws SQLException if no connection could be obtained: the pool is closed, timed out or was interrupted
+     *                      while waiting, or could not open a new connection
+     */
+    public static Connection getConnection() throws SQLException {
+        return singleInstance.pool.borrow();
+    }
+
+    /**
+     * Opens a physical connection outside the pool, for short work that must never wait for a pooled
+     * connection, such as reserving a block of IDs while the caller holds one. The caller must close it.
+     *
+     * @return the new connection
+     * @throws SQLException if the connection could not be opened
+     */
+    public static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(DBURL, USER, PASS);
     }
 
     /**
-     * Creates a new database connection.
+     * Runs the given work in one transaction, on one pooled connection. The transaction is committed when
+     * the callback returns and rolled back when it throws. A transaction rolled back by the database because
+     * of a deadlock or a serialization failure is retried from the start, up to three attempts in total,
+     * so the callback must not have side effects outside the database.
      *
-     * @return the newly created database connection
+     * @param callback the work to do in the transaction
+     * @param <R>      the type of the result of the work
+     * @return the result of the callback
+     * @throws SQLException if no connection could be obtained, or the work failed and was rolled back
      */
-    private Connection createConnection() {
-        Connection connection = null;
+    public static <R> R inTransaction(TransactionCallback<R> callback) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            Connection connection = singleInstance.pool.borrow();
+            try {
+                connection.setAutoCommit(false);
+                R result = callback.execute(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollback(connection);
+                if (!(e instanceof SQLTransactionRollbackException) || attempt == TRANSACTION_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.log(Level.INFO, "Retrying a transaction rolled back by the database: " + e.getMessage());
+            } finally {
+                close(connection);
+            }
+        }
+    }
+
+    private static void rollback(Connection connection) {
         try {
-            connection = DriverManager.getConnection(DBURL, USER, PASS);
+            connection.rollback();
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while trying to connect to the database");
-            e.printStackTrace();
+            LOGGER.log(Level.WARNING, "An error occurred while trying to roll back the transaction");
         }
-        return connection;
     }
 
     /**
-     * Returns a database connection.
+     * Returns a snapshot of the connection pool statistics.
      *
-     * @return the database connection
+     * @return the pool statistics
+     */
+    public static PoolStatistics getPoolStatistics() {
+        return singleInstance.pool.getStatistics();
+    }
+
+    /**
+     * Registers a task to run when the JVM shuts down, before the connection pool is closed,
+     * so it can still use the database, e.g. to flush pending work.
+     *
+     * @param task the task to run
+     */
+    public static void addShutdownTask(Runnable task) {
+        singleInstance.shutdownTasks.add(task);
+    }
+
+    /**
+     * Closes every pooled connection. Connections still borrowed are closed when they are given back.
      */
-    public static Connection getConnection() {
-        return singleInstance.createConnection();
+    public static void shutdown() {
+        singleInstance.pool.shutdown();
     }
 
     /**
-     * Closes the specified database connection.
+     * Gives the specified database connection back to the pool.
      *
      * @param connection the database connection to close
      */
@@ -72,7 +202,8 @@ public class ConnectionFactory {
     }
 
     /**
-     * Closes the specified statement.
+     * Closes the specified statement. Prepared statements of a pooled connection are reset and
+     * returned to the statement cache of the connection instead of being closed.
      *
      * @param statement the statement to close
      */
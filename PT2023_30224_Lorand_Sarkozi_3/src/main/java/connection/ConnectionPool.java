@@ -0,0 +1,309 @@
+package connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code ConnectionPool} class keeps a bounded set of physical database connections open and lends them out.
+ * Borrowed connections are validated, retired after their maximum lifetime, evicted when idle for too long
+ * and reported when they are held longer than the leak detection threshold.
+ * Each physical connection keeps its own {@link StatementCache}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final PoolConfig config;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder leaksReported = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(PoolStatistics.WAIT_BUCKET_BOUNDS_MILLIS.length + 1);
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new pool for the given database and starts its housekeeping task.
+     *
+     * @param url      the JDBC URL of the database
+     * @param user     the database user
+     * @param password the database password
+     * @param config   the pool settings
+     */
+    public ConnectionPool(String url, String user, String password, PoolConfig config) {
+        if (config.getMaxSize() < 1 || config.getMinSize() < 0 || config.getMinSize() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + config.getMinSize() + ", max=" + config.getMaxSize());
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, config.getHousekeepingPeriodMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout when all connections are in use.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return a validated connection
+     * @throws SQLException if the pool is closed, the wait timed out or a new connection could not be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLException("Timed out after " + config.getBorrowTimeoutMillis()
+                    + " ms waiting for a connection, " + getStatistics());
+        }
+        try {
+            PooledConnection pooledConnection = null;
+            while (pooledConnection == null) {
+                pooledConnection = takeIdle();
+                if (pooledConnection == null) {
+                    pooledConnection = tryCreate();
+                }
+                if (pooledConnection == null) {
+                    // a connection is on its way back to the idle deque
+                    Thread.onSpinWait();
+                }
+            }
+            Connection proxy = pooledConnection.checkOut(config.getLeakDetectionThresholdMillis() > 0);
+            active.add(pooledConnection);
+            borrowed.increment();
+            recordWait(System.nanoTime() - start);
+            return proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool. Open transactions are rolled back;
+     * connections that are broken or past their lifetime are closed instead of reused.
+     *
+     * @param pooledConnection the connection to give back
+     */
+    void release(PooledConnection pooledConnection) {
+        active.remove(pooledConnection);
+        try {
+            if (!closed && !isExpired(pooledConnection, System.currentTimeMillis()) && reset(pooledConnection)) {
+                idle.offerFirst(pooledConnection);
+            } else {
+                destroy(pooledConnection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool gauges and counters.
+     *
+     * @return the pool statistics
+     */
+    public PoolStatistics getStatistics() {
+        long[] histogram = new long[waitHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = waitHistogram.get(i);
+        }
+        return new PoolStatistics(total.get(), active.size(), idle.size(), waiters.get(), borrowed.sum(),
+                timeouts.sum(), created.sum(), destroyed.sum(), leaksReported.sum(), histogram,
+                statementCacheHits.sum(), statementCacheMisses.sum(), statementCacheEvictions.sum());
+    }
+
+    /**
+     * Returns the settings of the pool.
+     *
+     * @return the pool settings
+     */
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping task.
+     * Connections still borrowed are closed when they are given back.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idle.pollFirst()) != null) {
+            destroy(pooledConnection);
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooledConnection;
+        while ((pooledConnection = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (isExpired(pooledConnection, now)) {
+                destroy(pooledConnection);
+            } else if (now - pooledConnection.getLastUsedAt() > config.getValidationIntervalMillis()
+                    && !isValid(pooledConnection)) {
+                destroy(pooledConnection);
+            } else {
+                return pooledConnection;
+            }
+        }
+        return null;
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        int current;
+        do {
+            current = total.get();
+            if (current >= config.getMaxSize()) {
+                return null;
+            }
+        } while (!total.compareAndSet(current, current + 1));
+        try {
+            Connection connection = DriverManager.getConnection(url, user, password);
+            created.increment();
+            return new PooledConnection(this, connection, new StatementCache(config.getStatementCacheSize(),
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions));
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean reset(PooledConnection pooledConnection) {
+        Connection connection = pooledConnection.getPhysical();
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding a connection that could not be reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isValid(PooledConnection pooledConnection) {
+        try {
+            return pooledConnection.getPhysical().isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooledConnection, long now) {
+        return config.getMaxLifetimeMillis() > 0 && now - pooledConnection.getCreatedAt() > config.getMaxLifetimeMillis();
+    }
+
+    private void destroy(PooledConnection pooledConnection) {
+        total.decrementAndGet();
+        destroyed.increment();
+        pooledConnection.getStatementCache().clear();
+        try {
+            pooledConnection.getPhysical().close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "An error occurred while closing a pooled connection", e);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        long[] bounds = PoolStatistics.WAIT_BUCKET_BOUNDS_MILLIS;
+        int bucket = 0;
+        while (bucket < bounds.length && millis > bounds[bucket]) {
+            bucket++;
+        }
+        waitHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * Reports leaked connections, evicts idle and expired connections and refills the pool to its minimum size.
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            long leakThreshold = config.getLeakDetectionThresholdMillis();
+            if (leakThreshold > 0) {
+                for (PooledConnection pooledConnection : active) {
+                    if (!pooledConnection.isLeakReported() && now - pooledConnection.getBorrowedAt() > leakThreshold) {
+                        pooledConnection.setLeakReported(true);
+                        leaksReported.increment();
+                        LOGGER.log(Level.WARNING, "Possible connection leak: a connection has been borrowed for "
+                                + (now - pooledConnection.getBorrowedAt()) + " ms", pooledConnection.getBorrowStack());
+                    }
+                }
+            }
+            for (PooledConnection pooledConnection : idle) {
+                boolean idleTooLong = config.getIdleTimeoutMillis() > 0
+                        && now - pooledConnection.getLastUsedAt() > config.getIdleTimeoutMillis()
+                        && total.get() > config.getMinSize();
+                if ((idleTooLong || isExpired(pooledConnection, now)) && idle.remove(pooledConnection)) {
+                    destroy(pooledConnection);
+                }
+            }
+            while (!closed && total.get() < config.getMinSize()) {
+                PooledConnection pooledConnection = tryCreate();
+                if (pooledConnection == null) {
+                    break;
+                }
+                idle.offerLast(pooledConnection);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "An error occurred while refilling the connection pool: " + e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "An error occurred during connection pool housekeeping", e);
+        }
+    }
+}
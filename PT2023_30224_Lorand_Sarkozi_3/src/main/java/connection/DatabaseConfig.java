@@ -0,0 +1,231 @@
+package connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code DatabaseConfig} class resolves the settings of the database connection and of the
+ * {@link ConnectionPool}, so no URL or credential has to be written in the source, as well as the tuning settings
+ * of the rest of the application, such as {@code dao.batchSize} or {@code cache.maxSize}. Each setting, such as
+ * {@code db.url} or {@code pool.maxSize}, is looked up in this order:
+ * <ol>
+ *     <li>the system property with the same name, e.g. {@code -Ddb.url=...};</li>
+ *     <li>the environment variable with the name in upper case and dots replaced by underscores,
+ *     e.g. {@code DB_URL} or {@code POOL_MAXSIZE};</li>
+ *     <li>the properties file named by {@code db.config} (or {@code DB_CONFIG}), otherwise {@code db.properties}
+ *     in the working directory or on the classpath, if there is one;</li>
+ *     <li>the defaults of the selected profile.</li>
+ * </ol>
+ * The {@code db.profile} setting selects the defaults: {@code mysql}, the default, connects to the local
+ * {@code orders_management} database as {@code root}, with the password given by {@code db.password};
+ * {@code h2} boots an embedded, in-memory H2 database in MySQL mode and creates the tables from the
+ * {@code schema.sql} resource, so the application, load tests and benchmarks run without a MySQL server.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class DatabaseConfig {
+
+    private static final Logger LOGGER = Logger.getLogger(DatabaseConfig.class.getName());
+    private static final String DEFAULT_FILE = "db.properties";
+
+    /**
+     * The profile connecting to a MySQL server.
+     */
+    public static final String MYSQL_PROFILE = "mysql";
+
+    /**
+     * The profile booting an embedded, in-memory H2 database in MySQL mode.
+     */
+    public static final String H2_PROFILE = "h2";
+
+    private static final Properties FILE = loadFile();
+
+    private DatabaseConfig() {
+    }
+
+    /**
+     * Loads the properties file, if there is one.
+     */
+    private static Properties loadFile() {
+        Properties properties = new Properties();
+        String configured = System.getProperty("db.config", System.getenv("DB_CONFIG"));
+        Path path = Path.of(configured != null ? configured : DEFAULT_FILE);
+        try {
+            if (Files.isRegularFile(path)) {
+                try (Reader reader = Files.newBufferedReader(path)) {
+                    properties.load(reader);
+                }
+            } else if (configured != null) {
+                LOGGER.log(Level.WARNING, "DatabaseConfig: the file " + path + " does not exist");
+            } else {
+                try (InputStream in = DatabaseConfig.class.getClassLoader().getResourceAsStream(DEFAULT_FILE)) {
+                    if (in != null) {
+                        properties.load(in);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "DatabaseConfig:loadFile " + e.getMessage());
+        }
+        return properties;
+    }
+
+    /**
+     * Returns the value of a setting, from a system property, an environment variable or the properties file.
+     *
+     * @param key          the name of the setting, e.g. {@code pool.maxSize}
+     * @param defaultValue the value used when the setting is not configured
+     * @return the value of the setting
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.toUpperCase(Locale.ROOT).replace('.', '_'));
+        }
+        if (value == null) {
+            value = FILE.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Returns the value of an integer setting.
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value used when the setting is not configured or is not a number
+     * @return the value of the setting
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "DatabaseConfig: " + key + " is not a number: " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the value of a long setting.
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value used when the setting is not configured or is not a number
+     * @return the value of the setting
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "DatabaseConfig: " + key + " is not a number: " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the value of a boolean setting.
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value used when the setting is not configured or is neither {@code true} nor
+     *                     {@code false}
+     * @return the value of the setting
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        LOGGER.log(Level.WARNING, "DatabaseConfig: " + key + " is not a boolean: " + value);
+        return defaultValue;
+    }
+
+    /**
+     * Returns the selected profile.
+     *
+     * @return {@link #MYSQL_PROFILE} or {@link #H2_PROFILE}
+     */
+    public static String getProfile() {
+        return get("db.profile", MYSQL_PROFILE).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isH2() {
+        return H2_PROFILE.equals(getProfile());
+    }
+
+    /**
+     * Returns the class name of the JDBC driver.
+     *
+     * @return the {@code db.driver} setting
+     */
+    public static String getDriver() {
+        return get("db.driver", isH2() ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+    }
+
+    /**
+     * Returns the JDBC URL of the database.
+     *
+     * @return the {@code db.url} setting
+     */
+    public static String getUrl() {
+        return get("db.url", isH2()
+                ? "jdbc:h2:mem:orders_management;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+                : "jdbc:mysql://localhost:3306/orders_management?useServerPrepStmts=true&rewriteBatchedStatements=true");
+    }
+
+    /**
+     * Returns the database user.
+     *
+     * @return the {@code db.user} setting
+     */
+    public static String getUser() {
+        return get("db.user", isH2() ? "sa" : "root");
+    }
+
+    /**
+     * Returns the password of the database user.
+     *
+     * @return the {@code db.password} setting, empty if it is not configured
+     */
+    public static String getPassword() {
+        return get("db.password", "");
+    }
+
+    /**
+     * Returns the fetch size of the streaming queries. The MySQL default, {@link Integer#MIN_VALUE}, makes the
+     * driver stream the rows one by one instead of reading the whole result into memory; H2 rejects it and
+     * fetches 1000 rows per round trip by default. A positive value also suits MySQL with
+     * {@code useCursorFetch=true}.
+     *
+     * @return the {@code dao.fetchSize} setting
+     */
+    public static int getFetchSize() {
+        return getInt("dao.fetchSize", isH2() ? 1000 : Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns the classpath resource holding the SQL script run when the pool is created, e.g. to create
+     * the tables of an in-memory database.
+     *
+     * @return the {@code db.schema} setting, or {@code null} if no script is run
+     */
+    public static String getSchemaResource() {
+        String schema = get("db.schema", isH2() ? "schema.sql" : "");
+        return schema.isEmpty() ? null : schema;
+    }
+}
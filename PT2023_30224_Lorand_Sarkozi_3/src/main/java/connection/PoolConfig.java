@@ -0,0 +1,204 @@
+package connection;
+
+/**
+ * The {@code PoolConfig} class holds the settings of the {@link ConnectionPool}.
+ * Every setting has a default that can be overridden through {@link DatabaseConfig}, with a system property
+ * (for example {@code -Dpool.maxSize=20}), an environment variable ({@code POOL_MAXSIZE=20}) or the
+ * properties file, or with the matching setter before the pool is created.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class PoolConfig {
+
+    private int minSize = DatabaseConfig.getInt("pool.minSize", 2);
+    private int maxSize = DatabaseConfig.getInt("pool.maxSize", 10);
+    private long idleTimeoutMillis = DatabaseConfig.getLong("pool.idleTimeoutMillis", 10 * 60 * 1000L);
+    private long maxLifetimeMillis = DatabaseConfig.getLong("pool.maxLifetimeMillis", 30 * 60 * 1000L);
+    private long borrowTimeoutMillis = DatabaseConfig.getLong("pool.borrowTimeoutMillis", 30 * 1000L);
+    private long leakDetectionThresholdMillis = DatabaseConfig.getLong("pool.leakDetectionThresholdMillis", 0L);
+    private long validationIntervalMillis = DatabaseConfig.getLong("pool.validationIntervalMillis", 500L);
+    private int validationTimeoutSeconds = DatabaseConfig.getInt("pool.validationTimeoutSeconds", 2);
+    private long housekeepingPeriodMillis = DatabaseConfig.getLong("pool.housekeepingPeriodMillis", 30 * 1000L);
+    private int statementCacheSize = DatabaseConfig.getInt("pool.statementCacheSize", 64);
+
+    /**
+     * Returns the number of idle connections the pool tries to keep open.
+     *
+     * @return the minimum pool size
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Sets the number of idle connections the pool tries to keep open.
+     *
+     * @param minSize the minimum pool size
+     */
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * Returns the maximum number of physical connections the pool may open.
+     *
+     * @return the maximum pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of physical connections the pool may open.
+     *
+     * @param maxSize the maximum pool size
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns how long a connection may stay idle before it is evicted (above the minimum size).
+     *
+     * @return the idle timeout in milliseconds, {@code 0} to disable eviction
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is evicted (above the minimum size).
+     *
+     * @param idleTimeoutMillis the idle timeout in milliseconds, {@code 0} to disable eviction
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Returns the maximum age of a physical connection before it is retired.
+     *
+     * @return the maximum lifetime in milliseconds, {@code 0} for no limit
+     */
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    /**
+     * Sets the maximum age of a physical connection before it is retired.
+     *
+     * @param maxLifetimeMillis the maximum lifetime in milliseconds, {@code 0} for no limit
+     */
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    /**
+     * Returns how long a caller waits for a free connection before giving up.
+     *
+     * @return the borrow timeout in milliseconds
+     */
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a caller waits for a free connection before giving up.
+     *
+     * @param borrowTimeoutMillis the borrow timeout in milliseconds
+     */
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * Returns how long a connection may stay borrowed before it is reported as a possible leak.
+     *
+     * @return the leak detection threshold in milliseconds, {@code 0} to disable leak detection
+     */
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay borrowed before it is reported as a possible leak.
+     * Enabling leak detection records the stack of every borrow, so it is off by default.
+     *
+     * @param leakDetectionThresholdMillis the threshold in milliseconds, {@code 0} to disable leak detection
+     */
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    /**
+     * Returns how long a connection may stay idle before it is validated again on borrow.
+     *
+     * @return the validation interval in milliseconds
+     */
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is validated again on borrow.
+     *
+     * @param validationIntervalMillis the validation interval in milliseconds
+     */
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    /**
+     * Returns the timeout passed to {@link java.sql.Connection#isValid(int)}.
+     *
+     * @return the validation timeout in seconds
+     */
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    /**
+     * Sets the timeout passed to {@link java.sql.Connection#isValid(int)}.
+     *
+     * @param validationTimeoutSeconds the validation timeout in seconds
+     */
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Returns the period of the background task that evicts, retires, refills and checks for leaks.
+     *
+     * @return the housekeeping period in milliseconds
+     */
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    /**
+     * Sets the period of the background task that evicts, retires, refills and checks for leaks.
+     *
+     * @param housekeepingPeriodMillis the housekeeping period in milliseconds
+     */
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    /**
+     * Returns the number of idle prepared statements each connection keeps open.
+     *
+     * @return the statement cache size, {@code 0} when statement caching is disabled
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Sets the number of idle prepared statements each connection keeps open.
+     *
+     * @param statementCacheSize the statement cache size, {@code 0} to disable statement caching
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+}
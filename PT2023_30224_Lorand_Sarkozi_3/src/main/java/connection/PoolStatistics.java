@@ -0,0 +1,183 @@
+package connection;
+
+import java.util.Arrays;
+
+/**
+ * The {@code PoolStatistics} class is an immutable snapshot of the state of a {@link ConnectionPool}.
+ * Besides the current gauges it carries a histogram of the time callers waited to borrow a connection.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class PoolStatistics {
+
+    /**
+     * The upper bounds (inclusive, in milliseconds) of the borrow wait histogram buckets.
+     * The last bucket collects every wait longer than the last bound.
+     */
+    public static final long[] WAIT_BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final long borrowed;
+    private final long timeouts;
+    private final long created;
+    private final long destroyed;
+    private final long leaksReported;
+    private final long[] waitHistogram;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    PoolStatistics(int total, int active, int idle, int waiters, long borrowed, long timeouts,
+                   long created, long destroyed, long leaksReported, long[] waitHistogram,
+                   long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.borrowed = borrowed;
+        this.timeouts = timeouts;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.leaksReported = leaksReported;
+        this.waitHistogram = waitHistogram;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    /**
+     * Returns the number of open physical connections.
+     *
+     * @return the number of open connections
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of connections currently borrowed.
+     *
+     * @return the number of active connections
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Returns the number of connections waiting in the pool.
+     *
+     * @return the number of idle connections
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the number of callers currently waiting for a connection.
+     *
+     * @return the number of waiters
+     */
+    public int getWaiters() {
+        return waiters;
+    }
+
+    /**
+     * Returns the number of successful borrows since the pool was created.
+     *
+     * @return the number of borrows
+     */
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    /**
+     * Returns the number of borrows that gave up after the borrow timeout.
+     *
+     * @return the number of timeouts
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns the number of physical connections opened since the pool was created.
+     *
+     * @return the number of created connections
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Returns the number of physical connections closed since the pool was created.
+     *
+     * @return the number of destroyed connections
+     */
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * Returns the number of connections reported as possible leaks.
+     *
+     * @return the number of leak reports
+     */
+    public long getLeaksReported() {
+        return leaksReported;
+    }
+
+    /**
+     * Returns the borrow wait histogram. Bucket {@code i} counts the waits up to
+     * {@code WAIT_BUCKET_BOUNDS_MILLIS[i]}, the last bucket counts the longer ones.
+     *
+     * @return a copy of the bucket counts
+     */
+    public long[] getWaitHistogram() {
+        return waitHistogram.clone();
+    }
+
+    /**
+     * Returns the number of prepared statements served from a statement cache.
+     *
+     * @return the number of statement cache hits
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    /**
+     * Returns the number of prepared statements that were not cached and had to be prepared.
+     *
+     * @return the number of statement cache misses
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    /**
+     * Returns the number of cached statements closed to make room for others.
+     *
+     * @return the number of statement cache evictions
+     */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    /**
+     * Returns a string representation of the statistics.
+     *
+     * @return a string representation of the statistics
+     */
+    @Override
+    public String toString() {
+        return "PoolStatistics [total=" + total + ", active=" + active + ", idle=" + idle + ", waiters=" + waiters
+                + ", borrowed=" + borrowed + ", timeouts=" + timeouts + ", created=" + created
+                + ", destroyed=" + destroyed + ", leaksReported=" + leaksReported
+                + ", waitHistogram=" + Arrays.toString(waitHistogram) + ", statementCacheHits=" + statementCacheHits
+                + ", statementCacheMisses=" + statementCacheMisses
+                + ", statementCacheEvictions=" + statementCacheEvictions + "]";
+    }
+}
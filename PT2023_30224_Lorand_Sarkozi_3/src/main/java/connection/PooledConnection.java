@@ -0,0 +1,262 @@
+package connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code PooledConnection} class wraps one physical connection owned by a {@link ConnectionPool}.
+ * Callers only ever see a proxy of the connection: closing the proxy hands the physical
+ * connection back to the pool instead of closing it. Every borrow gets its own proxy,
+ * so a reference kept after {@code close()} cannot reach a connection lent to someone else.
+ * <p>
+ * Statements prepared through {@code prepareStatement(String)} and {@code prepareStatement(String, int)}
+ * come from the {@link StatementCache} of the physical connection; closing them puts them back in the cache.
+ *
+ * @Author Sarkozi Lorand
+ */
+class PooledConnection {
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final long createdAt;
+
+    private volatile long lastUsedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowStack;
+    private volatile boolean leakReported;
+
+    /**
+     * Constructs a new pooled connection around the given physical connection.
+     *
+     * @param pool           the pool owning the connection
+     * @param physical       the physical connection
+     * @param statementCache the cache of the statements prepared on the connection
+     */
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statementCache) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = createdAt;
+    }
+
+    /**
+     * Marks the connection as borrowed and creates the proxy handed to the borrower.
+     *
+     * @param recordStack whether the stack of the borrowing thread should be kept for leak reports
+     * @return the proxy of the connection
+     */
+    Connection checkOut(boolean recordStack) {
+        borrowedAt = System.currentTimeMillis();
+        borrowStack = recordStack ? new Exception("Connection borrowed here") : null;
+        leakReported = false;
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease());
+    }
+
+    /**
+     * Marks the connection as returned to the pool.
+     */
+    private void checkIn() {
+        borrowStack = null;
+        lastUsedAt = System.currentTimeMillis();
+        pool.release(this);
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowStack() {
+        return borrowStack;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    /**
+     * Intercepts the calls made on the proxy of one borrow: {@code close} releases the connection to the pool,
+     * {@code prepareStatement} goes through the statement cache and every other call is forwarded
+     * to the physical connection until then.
+     */
+    private class Lease implements InvocationHandler {
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final List<CachedStatement> statements = new ArrayList<>();
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (open.compareAndSet(true, false)) {
+                        releaseStatements();
+                        checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return !open.get() || physical.isClosed();
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                case "toString":
+                    return "PooledConnection [" + physical + "]";
+                default:
+                    break;
+            }
+            if (!open.get()) {
+                throw new SQLException("The connection was already returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length <= 2
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return prepareCached((Connection) target, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private PreparedStatement prepareCached(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+            StatementCache.Key key = new StatementCache.Key(sql, autoGeneratedKeys);
+            PreparedStatement statement = statementCache.take(key);
+            if (statement == null) {
+                statement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                        ? physical.prepareStatement(sql)
+                        : physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            CachedStatement cached = new CachedStatement(this, owner, key, statement);
+            statements.add(cached);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, cached);
+        }
+
+        /**
+         * Puts back every statement the borrower did not close, as closing a connection closes its statements.
+         */
+        private void releaseStatements() {
+            for (CachedStatement cached : statements.toArray(new CachedStatement[0])) {
+                cached.release();
+            }
+            statements.clear();
+        }
+    }
+
+    /**
+     * Intercepts the calls made on a cached statement: {@code close} resets the statement and puts it back
+     * in the cache, every other call is forwarded to the physical statement.
+     */
+    private class CachedStatement implements InvocationHandler {
+
+        private final Lease lease;
+        private final Connection owner;
+        private final StatementCache.Key key;
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        CachedStatement(Lease lease, Connection owner, StatementCache.Key key, PreparedStatement statement) throws SQLException {
+            this.lease = lease;
+            this.owner = owner;
+            this.key = key;
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+        }
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (open.get()) {
+                        lease.statements.remove(this);
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return !open.get();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                case "toString":
+                    return "CachedStatement [" + statement + "]";
+                default:
+                    break;
+            }
+            if (!open.get()) {
+                throw new SQLException("The statement is closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Resets the statement and puts it back in the cache, or closes it if it cannot be reset.
+         */
+        private void release() {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                if (statement.getFetchSize() != defaultFetchSize) {
+                    statement.setFetchSize(defaultFetchSize);
+                }
+                if (statement.getMaxRows() != 0) {
+                    statement.setMaxRows(0);
+                }
+                statement.clearWarnings();
+                statementCache.put(key, statement);
+            } catch (SQLException e) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // the statement is discarded either way
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package connection;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code StatementCache} class keeps the prepared statements of one physical connection open between borrows.
+ * Statements are keyed by their SQL text and generated-keys mode. A statement in use is taken out of the cache
+ * and put back when it is closed, so the cache only holds idle statements in least recently used order.
+ *
+ * @Author Sarkozi Lorand
+ */
+class StatementCache {
+
+    /**
+     * Identifies a cached statement.
+     *
+     * @param sql               the SQL text of the statement
+     * @param autoGeneratedKeys the generated-keys mode the statement was prepared with
+     */
+    record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<Key, PreparedStatement> idle = new LinkedHashMap<>();
+
+    /**
+     * Constructs a new statement cache.
+     *
+     * @param maxSize   the maximum number of idle statements kept, {@code 0} disables the cache
+     * @param hits      the counter of statements found in the cache
+     * @param misses    the counter of statements that had to be prepared
+     * @param evictions the counter of statements closed to make room
+     */
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Takes an idle statement out of the cache.
+     *
+     * @param key the key of the statement
+     * @return the cached statement, or {@code null} if it has to be prepared
+     */
+    synchronized PreparedStatement take(Key key) {
+        PreparedStatement statement = idle.remove(key);
+        if (statement != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return statement;
+    }
+
+    /**
+     * Puts a statement that is no longer used back into the cache, closing the least recently used
+     * statement when the cache is full.
+     *
+     * @param key       the key of the statement
+     * @param statement the statement, already reset
+     */
+    synchronized void put(Key key, PreparedStatement statement) {
+        if (maxSize <= 0) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement previous = idle.put(key, statement);
+        if (previous != null && previous != statement) {
+            closeQuietly(previous);
+        }
+        if (idle.size() > maxSize) {
+            Iterator<Map.Entry<Key, PreparedStatement>> eldest = idle.entrySet().iterator();
+            closeQuietly(eldest.next().getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+    synchronized void clear() {
+        for (PreparedStatement statement : idle.values()) {
+            closeQuietly(statement);
+        }
+        idle.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // the statement is discarded either way
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The {@code TransactionCallback} interface represents work done inside a database transaction,
+ * on the connection given by {@link ConnectionFactory#inTransaction(TransactionCallback)}.
+ *
+ * @param <R> the type of the result of the work
+ *
+ * @Author Sarkozi Lorand
+ */
+@FunctionalInterface
+public interface TransactionCallback<R> {
+
+    /**
+     * Does the work of the transaction. The callback must not commit, roll back or close the connection.
+     *
+     * @param connection the connection of the transaction
+     * @return the result of the work
+     * @throws SQLException if a statement fails; the transaction is then rolled back
+     */
+    R execute(Connection connection) throws SQLException;
+}
@@ -1,115 +1,985 @@
 package dataAccessLayer;
 
-import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.*;
+import java.lang.reflect.ParameterizedType;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import connection.ConnectionFactory;
+import connection.DatabaseConfig;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 
-
+/**
+ * The {@code AbstractDAO} class implements the CRUD operations shared by every DAO.
+ * The SQL statements are generated from the fields of the entity class, mapping each camelCase field
+ * to a snake_case column (for example {@code clientId} to {@code client_id}); subclasses can override
+ * {@link #columnName(String)} and {@link #tableName()} where the schema differs.
+ * The generated SQL, row mapper and parameter binders are built once per DAO class and cached.
+ * <p>
+ * Inserted entities get their IDs in the round trip that inserts them: by default the database generates them
+ * and they are read back as generated keys; a DAO can instead keep the IDs chosen by the application
+ * ({@link #assignsIds()}) or take them from a {@link HiLoIdAllocator} ({@link #idAllocator()}), which suits
+ * batches, since their IDs are known before the rows are sent.
+ * <p>
+ * Every operation is timed through the {@link MetricsRegistry}, under {@code <DAO class>.<method>}: calls,
+ * errors, rows, and the latency of acquiring the connection, executing the statements and mapping the rows.
+ *
+ * @param <T> the type of the entity handled by the DAO
+ *
+ * @Author Sarkozi Lorand
+ */
 public class AbstractDAO<T> {
     protected static final Logger LOGGER = Logger.getLogger(AbstractDAO.class.getName());
 
+    /**
+     * The number of rows sent per JDBC batch (and committed per transaction) by the batch operations,
+     * the {@code dao.batchSize} setting of {@link DatabaseConfig}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = DatabaseConfig.getInt("dao.batchSize", 500);
+
+    /**
+     * The fetch size of the streaming queries, the {@code dao.fetchSize} setting of {@link DatabaseConfig},
+     * whose default depends on the database profile.
+     */
+    public static final int DEFAULT_FETCH_SIZE = DatabaseConfig.getFetchSize();
+
+    private static final int MAX_IDS_PER_QUERY = 256;
+
+    private static final ConcurrentHashMap<Class<?>, EntityMetadata<?>> METADATA = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, OperationMetrics[]> METRICS = new ConcurrentHashMap<>();
+
+    /**
+     * The operations timed by every DAO, named after their methods.
+     */
+    private enum Operation {
+        FIND_ALL("findAll"), STREAM_ALL("streamAll"), FOR_EACH("forEach"), FIND_BY_ID("findById"),
+        FIND_BY_IDS("findByIds"), FIND_PAGE("findPage"), INSERT("insert"), EXISTS("exists"), UPDATE("update"),
+        DELETE("delete"), INSERT_ALL("insertAll"), UPDATE_ALL("updateAll");
+
+        private final String method;
+
+        Operation(String method) {
+            this.method = method;
+        }
+    }
+
     private final Class<T> type;
+    private final EntityMetadata<T> metadata;
+    private final OperationMetrics[] metrics;
+    private final HiLoIdAllocator idAllocator;
 
     @SuppressWarnings("unchecked")
     public AbstractDAO() {
         this.type = (Class<T>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        this.metadata = (EntityMetadata<T>) METADATA.computeIfAbsent(getClass(),
+                daoClass -> EntityMetadata.of(type, tableName(), this::columnName));
+        this.metrics = METRICS.computeIfAbsent(getClass(), daoClass -> {
+            OperationMetrics[] operations = new OperationMetrics[Operation.values().length];
+            for (Operation operation : Operation.values()) {
+                String name = daoClass.getSimpleName() + "." + operation.method;
+                operations[operation.ordinal()] = MetricsRegistry.operation(name);
+            }
+            return operations;
+        });
+        this.idAllocator = idAllocator();
+    }
 
+    private OperationMetrics metrics(Operation operation) {
+        return metrics[operation.ordinal()];
     }
 
-    private String createSelectQuery(String field) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("SELECT ");
-        sb.append(" * ");
-        sb.append(" FROM ");
-        sb.append(type.getSimpleName());
-        sb.append(" WHERE " + field + " =?");
+    /**
+     * Returns the name of the table of the entity. Defaults to the simple name of the entity class.
+     *
+     * @return the table name
+     */
+    protected String tableName() {
+        return type.getSimpleName();
+    }
+
+    /**
+     * Returns the name of the column a field is stored in. Defaults to the snake_case form of the field name.
+     * Called once per field when the DAO class is first used, so overrides must not depend on instance state.
+     *
+     * @param fieldName the name of the field
+     * @return the column name
+     */
+    protected String columnName(String fieldName) {
+        StringBuilder sb = new StringBuilder(fieldName.length() + 4);
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    sb.append('_');
+                }
+                sb.append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
         return sb.toString();
     }
 
-    public List<T> findAll() {
-        // TODO:
+    /**
+     * Returns whether a positive ID set on an entity is inserted as its ID, instead of letting the database
+     * generate one. Entities whose ID is {@code 0} get a generated ID either way. Defaults to {@code false}.
+     *
+     * @return {@code true} if the application chooses the IDs of the entities
+     */
+    protected boolean assignsIds() {
+        return false;
+    }
+
+    /**
+     * Returns the allocator the IDs of inserted entities are taken from, replacing any ID already set on them,
+     * or {@code null} to let the database generate them. Called once per DAO instance, when it is constructed;
+     * every DAO of a table must return the same allocator. Defaults to {@code null}.
+     *
+     * @return the ID allocator of the table, or {@code null}
+     */
+    protected HiLoIdAllocator idAllocator() {
         return null;
     }
 
+    /**
+     * Sets the ID of an entity about to be inserted when the application chooses it.
+     *
+     * @return {@code true} if the ID is inserted with the row, {@code false} if the database generates it
+     */
+    private boolean assignId(T entity) throws SQLException {
+        if (idAllocator != null) {
+            metadata.setId(entity, idAllocator.nextId());
+            return true;
+        }
+        return assignsIds() && metadata.getId(entity) > 0;
+    }
+
+    /**
+     * Sets the IDs of entities about to be inserted in one batch when the application chooses them.
+     * Without an allocator the IDs are only inserted when every entity has one.
+     *
+     * @return {@code true} if the IDs are inserted with the rows, {@code false} if the database generates them
+     */
+    private boolean assignIds(List<T> entities) throws SQLException {
+        if (idAllocator != null) {
+            for (T entity : entities) {
+                metadata.setId(entity, idAllocator.nextId());
+            }
+            return true;
+        }
+        if (!assignsIds()) {
+            return false;
+        }
+        for (T entity : entities) {
+            if (metadata.getId(entity) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PreparedStatement prepareInsert(Connection connection, boolean withIds) throws SQLException {
+        return withIds
+                ? connection.prepareStatement(metadata.getInsertWithIdSql())
+                : connection.prepareStatement(metadata.getInsertSql(), Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private ParameterBinder<T> insertBinder(boolean withIds) {
+        return withIds ? metadata.getInsertWithIdBinder() : metadata.getInsertBinder();
+    }
+
+    /**
+     * Retrieves all the records of the table.
+     *
+     * @return a list of all the entities, empty if they could not be retrieved
+     */
+    public List<T> findAll() {
+        OperationMetrics metrics = metrics(Operation.FIND_ALL);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(metadata.getFindAllSql());
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+
+            List<T> objects = createObjects(resultSet);
+            metrics.mapped(lap, objects.size());
+            return objects;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":findAll " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Streams all the records of the table without loading them into memory. The rows are read
+     * from a forward-only, read-only result set with {@link #DEFAULT_FETCH_SIZE} as fetch size, and mapped
+     * one at a time as the stream is consumed.
+     * <p>
+     * The stream holds a pooled connection until it is closed, so it must be used in a try-with-resources
+     * statement; while it is open, the connection cannot run other statements. A failed read is never
+     * mistaken for the end of the table: if the query cannot be run, or a row cannot be read while the stream
+     * is consumed, an {@link IllegalStateException} wrapping the {@link SQLException} is thrown and the
+     * connection is released. The call is timed until the stream is closed, and its mapping phase includes the
+     * time spent by the consumer of the stream.
+     *
+     * @return a stream of all the entities
+     * @throws IllegalStateException if the records could not be retrieved
+     */
+    public Stream<T> streamAll() {
+        OperationMetrics metrics = metrics(Operation.STREAM_ALL);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, metadata.getFindAllSql());
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            RowMapper.Bound<T> mapper = metadata.getRowMapper().bind(resultSet);
+
+            Cursor cursor = new Cursor(connection, statement, resultSet, mapper, start, lap);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":streamAll " + e.getMessage());
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+            throw new IllegalStateException(getClass().getSimpleName() + ":streamAll " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Passes every record of the table to the given action, one row at a time, without loading the table
+     * into memory. The rows are read like in {@link #streamAll()}, and the connection is given back
+     * to the pool when the last row was processed or the action threw. The mapping phase of the call
+     * includes the time spent by the action.
+     *
+     * @param action the action to perform on each entity
+     * @return the number of entities processed, or -1 if the records could not be read
+     */
+    public int forEach(Consumer<? super T> action) {
+        OperationMetrics metrics = metrics(Operation.FOR_EACH);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, metadata.getFindAllSql());
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            RowMapper.Bound<T> mapper = metadata.getRowMapper().bind(resultSet);
+
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(mapper.map(resultSet));
+                count++;
+            }
+            metrics.mapped(lap, count);
+            return count;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":forEach " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return -1;
+    }
+
+    /**
+     * Prepares a query whose result is read as a stream, with {@link #DEFAULT_FETCH_SIZE} as fetch size.
+     * Such statements bypass the statement cache, as a streaming result set keeps the connection busy until
+     * it is closed.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param sql        the query
+     * @return the statement
+     * @throws SQLException if the statement could not be prepared
+     */
+    protected static PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement =
+                connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            statement.setFetchSize(DEFAULT_FETCH_SIZE);
+        } catch (SQLException e) {
+            ConnectionFactory.close(statement);
+            throw e;
+        }
+        return statement;
+    }
+
+    /**
+     * Retrieves the record with the specified ID.
+     *
+     * @param id the ID of the record to retrieve
+     * @return the retrieved entity, or {@code null} if not found
+     */
     public T findById(int id) {
+        OperationMetrics metrics = metrics(Operation.FIND_BY_ID);
+        long start = metrics.start();
+        long lap = start;
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
-        String query = createSelectQuery("id");
         try {
             connection = ConnectionFactory.getConnection();
-            statement = connection.prepareStatement(query);
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(metadata.getFindByIdSql());
             statement.setInt(1, id);
             resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
 
-            return createObjects(resultSet).get(0);
+            if (resultSet.next()) {
+                T found = metadata.getRowMapper().bind(resultSet).map(resultSet);
+                metrics.mapped(lap, 1);
+                return found;
+            }
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, type.getName() + "DAO:findById " + e.getMessage());
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":findById " + e.getMessage());
         } finally {
             ConnectionFactory.close(resultSet);
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            metrics.finished(start);
         }
         return null;
     }
 
-    private List<T> createObjects(ResultSet resultSet) {
-        List<T> list = new ArrayList<T>();
-        Constructor[] ctors = type.getDeclaredConstructors();
-        Constructor ctor = null;
-        for (int i = 0; i < ctors.length; i++) {
-            ctor = ctors[i];
-            if (ctor.getGenericParameterTypes().length == 0)
-                break;
+    /**
+     * Retrieves the records with the specified IDs in as few queries as possible, using
+     * {@code WHERE id IN (...)} with at most 256 IDs per query. The number of parameters is rounded up
+     * to a power of two, repeating the last ID, so only a handful of distinct statements are prepared
+     * and they are reused from the statement cache.
+     *
+     * @param ids the IDs of the records to retrieve; duplicates are allowed
+     * @return the records found, in no particular order; empty if they could not be retrieved
+     */
+    public List<T> findByIds(int[] ids) {
+        List<T> found = new ArrayList<>();
+        if (ids.length == 0) {
+            return found;
         }
+        int[] sorted = Arrays.stream(ids).sorted().distinct().toArray();
+        OperationMetrics metrics = metrics(Operation.FIND_BY_IDS);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
         try {
-            while (resultSet.next()) {
-                ctor.setAccessible(true);
-                T instance = (T)ctor.newInstance();
-                for (Field field : type.getDeclaredFields()) {
-                    String fieldName = field.getName();
-                    Object value = resultSet.getObject(fieldName);
-                    PropertyDescriptor propertyDescriptor = new PropertyDescriptor(fieldName, type);
-                    Method method = propertyDescriptor.getWriteMethod();
-                    method.invoke(instance, value);
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            for (int from = 0; from < sorted.length; from += MAX_IDS_PER_QUERY) {
+                int count = Math.min(MAX_IDS_PER_QUERY, sorted.length - from);
+                int parameters = Integer.highestOneBit(count) == count ? count : Integer.highestOneBit(count) << 1;
+                statement = connection.prepareStatement(metadata.getFindByIdsSql(parameters));
+                for (int i = 0; i < parameters; i++) {
+                    statement.setInt(i + 1, sorted[from + Math.min(i, count - 1)]);
                 }
-                list.add(instance);
-            }
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        } catch (SecurityException e) {
-            e.printStackTrace();
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
-        } catch (InvocationTargetException e) {
-            e.printStackTrace();
+                resultSet = statement.executeQuery();
+                lap = metrics.executed(lap);
+                List<T> chunk = createObjects(resultSet);
+                found.addAll(chunk);
+                lap = metrics.mapped(lap, chunk.size());
+                ConnectionFactory.close(resultSet);
+                ConnectionFactory.close(statement);
+                resultSet = null;
+                statement = null;
+            }
+            return found;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":findByIds " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Retrieves a page of records in ID order, using keyset pagination: the page starts after the
+     * given ID, so the database seeks to it through the primary key instead of skipping the earlier rows,
+     * and fetching any page costs the same. Pass the ID of the last record of a page to get the next one.
+     *
+     * @param afterId the ID after which the page starts; 0 (or any ID below the first) for the first page
+     * @param limit   the maximum number of records of the page
+     * @return the records of the page, fewer than {@code limit} on the last page; empty if they could not be retrieved
+     */
+    public List<T> findPage(int afterId, int limit) {
+        OperationMetrics metrics = metrics(Operation.FIND_PAGE);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(metadata.getFindPageSql());
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+
+            List<T> page = createObjects(resultSet);
+            metrics.mapped(lap, page.size());
+            return page;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":findPage " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Builds a filtered page query, for a subclass to keep and pass to {@link #findPage(PageQuery, int, int, int...)}.
+     * The query selects the records whose fields are equal to the given values, in ID order. With an index on the
+     * columns of the fields followed by the ID, the database seeks straight to the first row of any page.
+     *
+     * @param method the name of the public method running the query, used for its metrics and log messages
+     * @param fields the filtered fields, in the order of their values
+     * @return the query
+     */
+    protected PageQuery pageQuery(String method, String... fields) {
+        List<String> columns = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            columns.add(columnName(field));
+        }
+        return new PageQuery(method, metadata.getFindPageWhereSql(columns),
+                MetricsRegistry.operation(getClass().getSimpleName() + "." + method), fields.length);
+    }
+
+    /**
+     * Retrieves a page of the records matching a filtered page query, with the keyset pagination of
+     * {@link #findPage(int, int)}: pass the ID of the last record of a page to get the next one.
+     *
+     * @param query   the query, from {@link #pageQuery(String, String...)}
+     * @param afterId the ID after which the page starts; 0 for the first page
+     * @param limit   the maximum number of records of the page
+     * @param values  the values of the filtered fields
+     * @return the records of the page, fewer than {@code limit} on the last page; empty if they could not be retrieved
+     */
+    protected List<T> findPage(PageQuery query, int afterId, int limit, int... values) {
+        if (values.length != query.parameters) {
+            throw new IllegalArgumentException(query.method + " takes " + query.parameters + " values");
+        }
+        OperationMetrics metrics = query.metrics;
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(query.sql);
+            int index = 1;
+            for (int value : values) {
+                statement.setInt(index++, value);
+            }
+            statement.setInt(index++, afterId);
+            statement.setInt(index, limit);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+
+            List<T> page = createObjects(resultSet);
+            metrics.mapped(lap, page.size());
+            return page;
         } catch (SQLException e) {
-            e.printStackTrace();
-        } catch (IntrospectionException e) {
-            e.printStackTrace();
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":" + query.method + " " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * The {@code PageQuery} class is a filtered keyset pagination query of a DAO, with its metrics.
+     */
+    protected static final class PageQuery {
+
+        private final String method;
+        private final String sql;
+        private final OperationMetrics metrics;
+        private final int parameters;
+
+        private PageQuery(String method, String sql, OperationMetrics metrics, int parameters) {
+            this.method = method;
+            this.sql = sql;
+            this.metrics = metrics;
+            this.parameters = parameters;
         }
-        return list;
     }
 
+    private List<T> createObjects(ResultSet resultSet) throws SQLException {
+        return metadata.getRowMapper().mapAll(resultSet);
+    }
+
+    /**
+     * Inserts a new record. The ID of the record is set on the entity, in the same round trip.
+     * The connection acquisition is timed here, and counted as a failed call if no connection could be acquired;
+     * the call itself is timed and counted by {@link #insert(Connection, Object)}.
+     *
+     * @param t the entity to insert
+     * @return the inserted entity, or {@code null} if it could not be inserted
+     */
     public T insert(T t) {
-        // TODO:
-        return t;
+        OperationMetrics metrics = metrics(Operation.INSERT);
+        long start = metrics.start();
+        Connection connection = null;
+        try {
+            try {
+                connection = ConnectionFactory.getConnection();
+            } catch (SQLException e) {
+                metrics.error();
+                metrics.finished(start);
+                throw e;
+            }
+            metrics.acquired(start);
+            return insert(connection, t);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":insert " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(connection);
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a new record on the given connection, as part of the transaction of the caller.
+     * The ID of the record is set on the entity, in the same round trip.
+     *
+     * @param connection the connection to use; it is not closed
+     * @param t          the entity to insert
+     * @return the inserted entity
+     * @throws SQLException if the entity could not be inserted
+     */
+    public T insert(Connection connection, T t) throws SQLException {
+        OperationMetrics metrics = metrics(Operation.INSERT);
+        long start = metrics.start();
+        PreparedStatement statement = null;
+        ResultSet generatedKeys = null;
+        try {
+            boolean withId = assignId(t);
+            statement = prepareInsert(connection, withId);
+            insertBinder(withId).bind(statement, t, 1);
+            metrics.rows(statement.executeUpdate());
+
+            if (!withId) {
+                generatedKeys = statement.getGeneratedKeys();
+                if (generatedKeys.next()) {
+                    metadata.setId(t, generatedKeys.getInt(1));
+                }
+            }
+            metrics.executed(start);
+            return t;
+        } catch (SQLException e) {
+            metrics.error();
+            throw e;
+        } finally {
+            ConnectionFactory.close(generatedKeys);
+            ConnectionFactory.close(statement);
+            metrics.finished(start);
+        }
     }
 
+    /**
+     * Checks on the given connection whether the record with the specified ID exists,
+     * as part of the transaction of the caller.
+     *
+     * @param connection the connection to use; it is not closed
+     * @param id         the ID of the record
+     * @return {@code true} if the record exists
+     * @throws SQLException if the record could not be looked up
+     */
+    public boolean exists(Connection connection, int id) throws SQLException {
+        OperationMetrics metrics = metrics(Operation.EXISTS);
+        long start = metrics.start();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(metadata.getExistsSql());
+            statement.setInt(1, id);
+            resultSet = statement.executeQuery();
+            boolean exists = resultSet.next();
+            metrics.executed(start);
+            return exists;
+        } catch (SQLException e) {
+            metrics.error();
+            throw e;
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            metrics.finished(start);
+        }
+    }
+
+    /**
+     * Updates the record with the ID of the entity.
+     *
+     * @param t the entity to update
+     * @return the updated entity, or {@code null} if it could not be updated or no record has its ID
+     */
     public T update(T t) {
-        // TODO:
-        return t;
+        OperationMetrics metrics = metrics(Operation.UPDATE);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(metadata.getUpdateSql());
+            metadata.getUpdateBinder().bind(statement, t, 1);
+            int updated = statement.executeUpdate();
+            metrics.rows(updated);
+            metrics.executed(lap);
+            return updated > 0 ? t : null;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":update " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the record with the ID of the entity.
+     *
+     * @param t the entity to delete
+     * @return {@code true} if the statement ran, whether or not the record existed; {@code false} if it failed
+     */
+    public boolean delete(T t) {
+        OperationMetrics metrics = metrics(Operation.DELETE);
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = connection.prepareStatement(metadata.getDeleteSql());
+            statement.setInt(1, metadata.getId(t));
+            metrics.rows(statement.executeUpdate());
+            metrics.executed(lap);
+            return true;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":delete " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return false;
+    }
+
+    /**
+     * Inserts the entities in JDBC batches of {@link #DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param entities the entities to insert
+     * @return the number of entities inserted
+     * @see #insertAll(List, int)
+     */
+    public int insertAll(List<T> entities) {
+        return insertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Inserts the entities in JDBC batches, one transaction per batch, on a single connection.
+     * The IDs of the records are set on the entities. If a batch fails it is rolled back
+     * and the remaining batches are not attempted.
+     *
+     * @param entities  the entities to insert
+     * @param batchSize the number of rows per batch and transaction
+     * @return the number of entities inserted, in committed batches
+     */
+    public int insertAll(List<T> entities, int batchSize) {
+        return executeBatches(entities, batchSize, true, null);
+    }
+
+    /**
+     * Inserts the entities in JDBC batches of {@link #DEFAULT_BATCH_SIZE} rows on the given connection,
+     * as part of the transaction of the caller, which commits or rolls back all of them.
+     * The IDs of the records are set on the entities.
+     *
+     * @param connection the connection to use; it is not closed
+     * @param entities   the entities to insert
+     * @return the number of entities inserted
+     * @throws SQLException if a batch could not be inserted
+     */
+    public int insertAll(Connection connection, List<T> entities) throws SQLException {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        OperationMetrics metrics = metrics(Operation.INSERT_ALL);
+        long start = metrics.start();
+        int done = 0;
+        PreparedStatement statement = null;
+        try {
+            boolean withIds = assignIds(entities);
+            statement = prepareInsert(connection, withIds);
+            ParameterBinder<T> binder = insertBinder(withIds);
+            while (done < entities.size()) {
+                List<T> chunk = entities.subList(done, Math.min(done + DEFAULT_BATCH_SIZE, entities.size()));
+                for (T entity : chunk) {
+                    binder.bind(statement, entity, 1);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                if (!withIds) {
+                    readGeneratedKeys(statement, chunk);
+                }
+                done += chunk.size();
+            }
+            return done;
+        } catch (SQLException e) {
+            metrics.error();
+            throw e;
+        } finally {
+            metrics.executed(start);
+            metrics.rows(done);
+            ConnectionFactory.close(statement);
+            metrics.finished(start);
+        }
+    }
+
+    /**
+     * Updates the entities in JDBC batches of {@link #DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param entities the entities to update
+     * @return the number of entities updated
+     * @see #updateAll(List, int)
+     */
+    public int updateAll(List<T> entities) {
+        return updateAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Updates the entities in JDBC batches of {@link #DEFAULT_BATCH_SIZE} rows, and adds those that were updated
+     * to the given collection.
+     *
+     * @param entities the entities to update
+     * @param updated  receives the updated entities, in committed batches and with a record of their ID
+     * @return the number of entities updated
+     * @see #updateAll(List, int)
+     */
+    public int updateAll(List<T> entities, Collection<? super T> updated) {
+        return executeBatches(entities, DEFAULT_BATCH_SIZE, false, updated);
+    }
+
+    /**
+     * Updates the entities in JDBC batches, one transaction per batch, on a single connection.
+     * If a batch fails it is rolled back and the remaining batches are not attempted.
+     *
+     * @param entities  the entities to update
+     * @param batchSize the number of rows per batch and transaction
+     * @return the number of entities updated, in committed batches; those whose ID has no record are not counted
+     */
+    public int updateAll(List<T> entities, int batchSize) {
+        return executeBatches(entities, batchSize, false, null);
+    }
+
+    /**
+     * Runs the batches of an {@code insertAll} or an {@code updateAll}. An update counts as done if the driver
+     * reports that it matched a row, or cannot tell.
+     */
+    private int executeBatches(List<T> entities, int batchSize, boolean insert, Collection<? super T> updated) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        String operation = insert ? ":insertAll " : ":updateAll ";
+        OperationMetrics metrics = metrics(insert ? Operation.INSERT_ALL : Operation.UPDATE_ALL);
+        long start = metrics.start();
+        long lap = start;
+        int done = 0;
+        int written = 0;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            connection.setAutoCommit(false);
+            boolean withIds = insert && assignIds(entities);
+            statement = insert
+                    ? prepareInsert(connection, withIds)
+                    : connection.prepareStatement(metadata.getUpdateSql());
+            ParameterBinder<T> binder = insert ? insertBinder(withIds) : metadata.getUpdateBinder();
+            while (done < entities.size()) {
+                List<T> chunk = entities.subList(done, Math.min(done + batchSize, entities.size()));
+                try {
+                    for (T entity : chunk) {
+                        binder.bind(statement, entity, 1);
+                        statement.addBatch();
+                    }
+                    int[] counts = statement.executeBatch();
+                    if (insert && !withIds) {
+                        readGeneratedKeys(statement, chunk);
+                    }
+                    connection.commit();
+                    written += insert ? chunk.size() : countUpdated(chunk, counts, updated);
+                } catch (SQLException e) {
+                    statement.clearBatch();
+                    connection.rollback();
+                    throw e;
+                }
+                done += chunk.size();
+            }
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + operation + e.getMessage());
+        } finally {
+            metrics.executed(lap);
+            metrics.rows(written);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return written;
+    }
+
+    private int countUpdated(List<T> chunk, int[] counts, Collection<? super T> updated) {
+        int count = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i >= counts.length || counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                count++;
+                if (updated != null) {
+                    updated.add(chunk.get(i));
+                }
+            }
+        }
+        return count;
+    }
+
+    private void readGeneratedKeys(PreparedStatement statement, List<T> chunk) throws SQLException {
+        ResultSet generatedKeys = statement.getGeneratedKeys();
+        try {
+            for (T entity : chunk) {
+                if (!generatedKeys.next()) {
+                    break;
+                }
+                metadata.setId(entity, generatedKeys.getInt(1));
+            }
+        } finally {
+            ConnectionFactory.close(generatedKeys);
+        }
+    }
+
+    /**
+     * Walks an open result set for {@link #streamAll()}, mapping one row per step and releasing
+     * the result set, the statement and the connection once the rows run out, a row cannot be read or the stream
+     * is closed.
+     */
+    private final class Cursor extends Spliterators.AbstractSpliterator<T> {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper.Bound<T> mapper;
+        private final long start;
+        private final long executed;
+        private int rows;
+        private boolean closed;
+
+        Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet, RowMapper.Bound<T> mapper,
+               long start, long executed) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+            this.start = start;
+            this.executed = executed;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (resultSet.next()) {
+                    rows++;
+                    action.accept(mapper.map(resultSet));
+                    return true;
+                }
+            } catch (SQLException e) {
+                metrics(Operation.STREAM_ALL).error();
+                String message = AbstractDAO.this.getClass().getSimpleName() + ":streamAll " + e.getMessage();
+                LOGGER.log(Level.WARNING, message);
+                close();
+                throw new IllegalStateException(message, e);
+            }
+            close();
+            return false;
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                ConnectionFactory.close(resultSet);
+                ConnectionFactory.close(statement);
+                ConnectionFactory.close(connection);
+                OperationMetrics metrics = metrics(Operation.STREAM_ALL);
+                metrics.mapped(executed, rows);
+                metrics.finished(start);
+            }
+        }
     }
 }
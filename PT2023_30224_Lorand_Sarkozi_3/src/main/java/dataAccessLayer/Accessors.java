@@ -0,0 +1,208 @@
+package dataAccessLayer;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@code Accessors} class turns the constructor, getters and setters of an entity class into
+ * functional interface instances generated with {@link LambdaMetafactory}, so they can be called
+ * on every row without reflection and without boxing primitive values.
+ *
+ * @Author Sarkozi Lorand
+ */
+final class Accessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Accessors() {
+    }
+
+    /**
+     * Returns a supplier calling the no-argument constructor of the given class.
+     *
+     * @param type the class to instantiate
+     * @param <T>  the type of the class
+     * @return the constructor as a supplier
+     * @throws IllegalStateException if the class has no no-argument constructor
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> constructor(Class<T> type) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            } catch (IllegalAccessException e) {
+                handle = MethodHandles.privateLookupIn(type, LOOKUP).findConstructor(type, MethodType.methodType(void.class));
+            }
+            return (Supplier<T>) lambda(Supplier.class, handle, MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(type.getName() + " has no no-argument constructor", e);
+        }
+    }
+
+    /**
+     * Returns the setter of a field as an {@link ObjIntConsumer}, {@link ObjLongConsumer},
+     * {@link ObjDoubleConsumer} or {@link BiConsumer}, depending on the type of the field.
+     *
+     * @param type  the class declaring the field
+     * @param field the field to set
+     * @return the setter
+     */
+    static Object setter(Class<?> type, Field field) {
+        MethodHandle handle = setterHandle(type, field);
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return lambda(ObjIntConsumer.class, handle, MethodType.methodType(void.class, Object.class, int.class));
+        } else if (fieldType == long.class) {
+            return lambda(ObjLongConsumer.class, handle, MethodType.methodType(void.class, Object.class, long.class));
+        } else if (fieldType == double.class) {
+            return lambda(ObjDoubleConsumer.class, handle, MethodType.methodType(void.class, Object.class, double.class));
+        }
+        return lambda(BiConsumer.class, handle, MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    /**
+     * Returns the getter of a field as a {@link ToIntFunction}, {@link ToLongFunction},
+     * {@link ToDoubleFunction} or {@link Function}, depending on the type of the field.
+     *
+     * @param type  the class declaring the field
+     * @param field the field to read
+     * @return the getter
+     */
+    static Object getter(Class<?> type, Field field) {
+        MethodHandle handle = getterHandle(type, field);
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return lambda(ToIntFunction.class, handle, MethodType.methodType(int.class, Object.class));
+        } else if (fieldType == long.class) {
+            return lambda(ToLongFunction.class, handle, MethodType.methodType(long.class, Object.class));
+        } else if (fieldType == double.class) {
+            return lambda(ToDoubleFunction.class, handle, MethodType.methodType(double.class, Object.class));
+        }
+        return lambda(Function.class, handle, MethodType.methodType(Object.class, Object.class));
+    }
+
+    /**
+     * Finds the public setter of a field, falling back to the field itself when there is no setter.
+     */
+    private static MethodHandle setterHandle(Class<?> type, Field field) {
+        try {
+            Method method = type.getMethod(accessorName("set", field), field.getType());
+            return LOOKUP.unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                return MethodHandles.privateLookupIn(type, LOOKUP).unreflectSetter(field);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("Cannot set the field " + type.getName() + "." + field.getName(), ex);
+            }
+        }
+    }
+
+    /**
+     * Finds the public getter of a field, falling back to the field itself when there is no getter.
+     */
+    private static MethodHandle getterHandle(Class<?> type, Field field) {
+        try {
+            Method method = type.getMethod(accessorName("get", field));
+            if (method.getReturnType() == field.getType()) {
+                return LOOKUP.unreflect(method);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // fall back to the field
+        }
+        try {
+            return MethodHandles.privateLookupIn(type, LOOKUP).unreflectGetter(field);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot read the field " + type.getName() + "." + field.getName(), ex);
+        }
+    }
+
+    private static String accessorName(String prefix, Field field) {
+        String name = field.getName();
+        return prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Implements the single method of a functional interface with the given method handle. Direct handles of
+     * accessible members are spun into a lambda class; other handles are wrapped around {@code invokeExact}.
+     */
+    private static Object lambda(Class<?> functionalInterface, MethodHandle target, MethodType erasedType) {
+        String name = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers())) {
+                name = method.getName();
+            }
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(functionalInterface),
+                    erasedType, target, target.type());
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            return wrap(functionalInterface, target.asType(erasedType));
+        }
+    }
+
+    private static Object wrap(Class<?> functionalInterface, MethodHandle handle) {
+        if (functionalInterface == ObjIntConsumer.class) {
+            return (ObjIntConsumer<Object>) (target, value) -> run(() -> handle.invokeExact(target, value));
+        } else if (functionalInterface == ObjLongConsumer.class) {
+            return (ObjLongConsumer<Object>) (target, value) -> run(() -> handle.invokeExact(target, value));
+        } else if (functionalInterface == ObjDoubleConsumer.class) {
+            return (ObjDoubleConsumer<Object>) (target, value) -> run(() -> handle.invokeExact(target, value));
+        } else if (functionalInterface == BiConsumer.class) {
+            return (BiConsumer<Object, Object>) (target, value) -> run(() -> handle.invokeExact(target, value));
+        } else if (functionalInterface == ToIntFunction.class) {
+            return (ToIntFunction<Object>) target -> (int) call(() -> (int) handle.invokeExact(target));
+        } else if (functionalInterface == ToLongFunction.class) {
+            return (ToLongFunction<Object>) target -> (long) call(() -> (long) handle.invokeExact(target));
+        } else if (functionalInterface == ToDoubleFunction.class) {
+            return (ToDoubleFunction<Object>) target -> (double) call(() -> (double) handle.invokeExact(target));
+        } else if (functionalInterface == Function.class) {
+            return (Function<Object, Object>) target -> call(() -> (Object) handle.invokeExact(target));
+        }
+        return (Supplier<Object>) () -> call(() -> (Object) handle.invokeExact());
+    }
+
+    private interface HandleRun {
+        void run() throws Throwable;
+    }
+
+    private interface HandleCall {
+        Object call() throws Throwable;
+    }
+
+    private static void run(HandleRun run) {
+        try {
+            run.run();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object call(HandleCall call) {
+        try {
+            return call.call();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
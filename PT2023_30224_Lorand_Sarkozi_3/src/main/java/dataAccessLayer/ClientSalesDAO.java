@@ -0,0 +1,16 @@
+package dataAccessLayer;
+
+/**
+ * The {@code ClientSalesDAO} class reads and updates the sales counters of the clients, in the "ClientSales" table.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class ClientSalesDAO extends SalesCounterDAO {
+
+    /**
+     * Constructs a DAO for the "ClientSales" table.
+     */
+    public ClientSalesDAO() {
+        super("ClientSales", "client_id");
+    }
+}
@@ -0,0 +1,202 @@
+package dataAccessLayer;
+
+import model.Client;
+import model.Orders;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code DataGenerator} class fills the database with synthetic clients, products and orders, so performance
+ * work can be reproduced on any machine, e.g. against the embedded database of the {@code h2} profile.
+ * Rows are inserted in JDBC batches, a chunk at a time, so millions of rows never sit in memory together.
+ * <p>
+ * The clients and products of the orders follow a Zipf distribution: with a skew of {@code s}, the k-th most
+ * popular client or product is ordered in proportion to {@code 1 / k^s}. A skew of {@code 0} spreads the orders
+ * uniformly, and a skew of {@code 1} or more concentrates them on a few hot rows. The popular rows are scattered
+ * over the ID range, not packed at its start. The same seed generates the same data.
+ * <p>
+ * Run it with {@code java dataAccessLayer.DataGenerator <clients> <products> <orders> [skew] [seed]}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class DataGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(DataGenerator.class.getName());
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final Random random;
+    private final double skew;
+
+    /**
+     * Constructs a new data generator.
+     *
+     * @param seed the seed of the random values
+     * @param skew the exponent of the Zipf distribution of the orders over clients and products, {@code 0} for uniform
+     */
+    public DataGenerator(long seed, double skew) {
+        if (skew < 0) {
+            throw new IllegalArgumentException("The skew must not be negative");
+        }
+        this.random = new Random(seed);
+        this.skew = skew;
+    }
+
+    /**
+     * Inserts the given number of clients, named {@code client1}, {@code client2}, ...
+     *
+     * @param count the number of clients
+     * @return the IDs of the inserted clients
+     */
+    public int[] generateClients(int count) {
+        ClientDAO clientDAO = new ClientDAO();
+        int[] ids = new int[count];
+        List<Client> chunk = new ArrayList<>(Math.min(count, CHUNK_SIZE));
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Client(0, "client" + (i + 1)));
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                clientDAO.insertAll(chunk);
+                for (Client client : chunk) {
+                    ids[inserted++] = client.getId();
+                }
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the given number of products, named {@code product1}, {@code product2}, ..., each with a random stock.
+     *
+     * @param count    the number of products
+     * @param maxStock the largest stock of a product
+     * @return the IDs of the inserted products
+     */
+    public int[] generateProducts(int count, int maxStock) {
+        ProductDAO productDAO = new ProductDAO();
+        int[] ids = new int[count];
+        List<Product> chunk = new ArrayList<>(Math.min(count, CHUNK_SIZE));
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Product("product" + (i + 1), random.nextInt(maxStock + 1)));
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                productDAO.insertAll(chunk);
+                for (Product product : chunk) {
+                    ids[inserted++] = product.getId();
+                }
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the given number of orders of the given clients and products, picked with the skew of the generator.
+     * The orders are written as they are, as a history: the stock of the products is not decreased.
+     *
+     * @param count      the number of orders
+     * @param clientIds  the IDs of the clients to pick from
+     * @param productIds the IDs of the products to pick from
+     * @param maxAmount  the largest amount of an order
+     * @return the number of orders inserted
+     */
+    public int generateOrders(int count, int[] clientIds, int[] productIds, int maxAmount) {
+        if (clientIds.length == 0 || productIds.length == 0) {
+            throw new IllegalArgumentException("Orders need at least one client and one product");
+        }
+        OrdersDAO ordersDAO = new OrdersDAO();
+        ZipfSampler clients = new ZipfSampler(clientIds.length, skew);
+        ZipfSampler products = new ZipfSampler(productIds.length, skew);
+        List<Orders> chunk = new ArrayList<>(Math.min(count, CHUNK_SIZE));
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Orders(0, clientIds[clients.next(random)], productIds[products.next(random)],
+                    1 + random.nextInt(maxAmount)));
+            if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                inserted += ordersDAO.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * The {@code ZipfSampler} class picks indexes in {@code [0, n)} following a Zipf distribution, by a binary
+     * search over its cumulative distribution. The ranks are mapped to indexes by a fixed permutation,
+     * so the popular indexes are scattered.
+     */
+    private static final class ZipfSampler {
+
+        private final int n;
+        private final double[] cumulative;
+        private final long stride;
+
+        ZipfSampler(int n, double skew) {
+            this.n = n;
+            if (skew == 0) {
+                cumulative = null;
+            } else {
+                cumulative = new double[n];
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += 1 / Math.pow(k + 1, skew);
+                    cumulative[k] = sum;
+                }
+                for (int k = 0; k < n; k++) {
+                    cumulative[k] /= sum;
+                }
+            }
+            long step = Math.max(1, (long) (n * 0.6180339887)) | 1;
+            while (gcd(step, n) != 1) {
+                step++;
+            }
+            this.stride = step;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        int next(Random random) {
+            int rank;
+            if (cumulative == null) {
+                rank = random.nextInt(n);
+            } else {
+                int found = Arrays.binarySearch(cumulative, random.nextDouble());
+                rank = Math.min(found >= 0 ? found : -found - 1, n - 1);
+            }
+            return (int) (rank * stride % n);
+        }
+    }
+
+    /**
+     * Fills the database configured by {@link connection.DatabaseConfig}.
+     *
+     * @param args the number of clients, products and orders, then optionally the skew and the seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: DataGenerator <clients> <products> <orders> [skew] [seed]");
+            System.exit(1);
+        }
+        int clientCount = Integer.parseInt(args[0]);
+        int productCount = Integer.parseInt(args[1]);
+        int orderCount = Integer.parseInt(args[2]);
+        double skew = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        DataGenerator generator = new DataGenerator(seed, skew);
+        long start = System.nanoTime();
+        int[] clientIds = generator.generateClients(clientCount);
+        int[] productIds = generator.generateProducts(productCount, 1000);
+        int orders = generator.generateOrders(orderCount, clientIds, productIds, 10);
+        LOGGER.log(Level.INFO, "Generated " + clientIds.length + " clients, " + productIds.length + " products and "
+                + orders + " orders in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
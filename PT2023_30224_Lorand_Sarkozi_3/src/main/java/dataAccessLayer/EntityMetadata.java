@@ -0,0 +1,216 @@
+package dataAccessLayer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The {@code EntityMetadata} class holds everything a DAO needs to persist one entity class:
+ * the SQL of its statements, generated once from the fields of the class, the row mapper that reads it
+ * and the binders that write it. It is built once per DAO class and shared by all its instances.
+ *
+ * @param <T> the type of the entity
+ *
+ * @Author Sarkozi Lorand
+ */
+final class EntityMetadata<T> {
+
+    static final String ID_FIELD = "id";
+
+    private final Class<T> type;
+    private final String table;
+    private final String idColumn;
+    private final String selectColumns;
+    private final String findByIdSql;
+    private final String findAllSql;
+    private final String findPageSql;
+    private final String existsSql;
+    private final String insertSql;
+    private final String insertWithIdSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final RowMapper<T> rowMapper;
+    private final ParameterBinder<T> insertBinder;
+    private final ParameterBinder<T> insertWithIdBinder;
+    private final ParameterBinder<T> updateBinder;
+    private final ToIntFunction<Object> idGetter;
+    private final ObjIntConsumer<Object> idSetter;
+
+    @SuppressWarnings("unchecked")
+    private EntityMetadata(Class<T> type, String table, Function<String, String> columnNames) {
+        this.type = type;
+        this.table = table;
+        Field idField = null;
+        List<Field> valueFields = new ArrayList<>();
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner valueColumns = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ");
+        StringJoiner assignments = new StringJoiner(", ");
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String column = columnNames.apply(field.getName());
+            columns.add(column);
+            if (field.getName().equals(ID_FIELD)) {
+                idField = field;
+            } else {
+                valueFields.add(field);
+                valueColumns.add(column);
+                placeholders.add("?");
+                assignments.add(column + " = ?");
+            }
+        }
+        if (idField == null || idField.getType() != int.class) {
+            throw new IllegalStateException(type.getName() + " has no int " + ID_FIELD + " field");
+        }
+        this.idColumn = columnNames.apply(ID_FIELD);
+        this.selectColumns = columns.toString();
+        this.findByIdSql = "SELECT " + selectColumns + " FROM " + table + " WHERE " + idColumn + " = ?";
+        this.findAllSql = "SELECT " + selectColumns + " FROM " + table;
+        this.findPageSql = "SELECT " + selectColumns + " FROM " + table + " WHERE " + idColumn + " > ? ORDER BY "
+                + idColumn + " LIMIT ?";
+        this.existsSql = "SELECT 1 FROM " + table + " WHERE " + idColumn + " = ?";
+        this.insertSql = "INSERT INTO " + table + " (" + valueColumns + ") VALUES (" + placeholders + ")";
+        this.insertWithIdSql = "INSERT INTO " + table + " (" + columnNames.apply(ID_FIELD) + ", " + valueColumns
+                + ") VALUES (?, " + placeholders + ")";
+        this.updateSql = "UPDATE " + table + " SET " + assignments + " WHERE " + idColumn + " = ?";
+        this.deleteSql = "DELETE FROM " + table + " WHERE " + idColumn + " = ?";
+        this.rowMapper = RowMapper.of(type, columnNames);
+        this.insertBinder = new ParameterBinder<>(type, valueFields);
+        List<Field> insertWithIdFields = new ArrayList<>();
+        insertWithIdFields.add(idField);
+        insertWithIdFields.addAll(valueFields);
+        this.insertWithIdBinder = new ParameterBinder<>(type, insertWithIdFields);
+        List<Field> updateFields = new ArrayList<>(valueFields);
+        updateFields.add(idField);
+        this.updateBinder = new ParameterBinder<>(type, updateFields);
+        this.idGetter = (ToIntFunction<Object>) Accessors.getter(type, idField);
+        this.idSetter = (ObjIntConsumer<Object>) Accessors.setter(type, idField);
+    }
+
+    /**
+     * Builds the metadata of an entity class.
+     *
+     * @param type        the entity class
+     * @param table       the name of its table
+     * @param columnNames maps a field name to its column name
+     * @param <T>         the type of the entity
+     * @return the metadata of the class
+     */
+    static <T> EntityMetadata<T> of(Class<T> type, String table, Function<String, String> columnNames) {
+        return new EntityMetadata<>(type, table, columnNames);
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    String getIdColumn() {
+        return idColumn;
+    }
+
+    String getSelectColumns() {
+        return selectColumns;
+    }
+
+    String getFindByIdSql() {
+        return findByIdSql;
+    }
+
+    String getFindAllSql() {
+        return findAllSql;
+    }
+
+    String getFindPageSql() {
+        return findPageSql;
+    }
+
+    /**
+     * Returns the keyset pagination query of the records whose columns are equal to parameters: the parameters of
+     * the columns come first, then the ID the page starts after and the size of the page.
+     *
+     * @param columns the filtered columns
+     * @return the SQL of the query
+     */
+    String getFindPageWhereSql(List<String> columns) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(selectColumns).append(" FROM ").append(table)
+                .append(" WHERE ");
+        for (String column : columns) {
+            sql.append(column).append(" = ? AND ");
+        }
+        return sql.append(idColumn).append(" > ? ORDER BY ").append(idColumn).append(" LIMIT ?").toString();
+    }
+
+    /**
+     * Returns the query selecting the records whose ID is one of {@code count} parameters.
+     *
+     * @param count the number of IDs
+     * @return the SQL of the query
+     */
+    String getFindByIdsSql(int count) {
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < count; i++) {
+            placeholders.add("?");
+        }
+        return "SELECT " + selectColumns + " FROM " + table + " WHERE " + idColumn + " IN " + placeholders;
+    }
+
+    String getExistsSql() {
+        return existsSql;
+    }
+
+    String getInsertSql() {
+        return insertSql;
+    }
+
+    /**
+     * Returns the insert statement that also sets the ID column, for IDs chosen by the application.
+     *
+     * @return the SQL of the statement
+     */
+    String getInsertWithIdSql() {
+        return insertWithIdSql;
+    }
+
+    String getUpdateSql() {
+        return updateSql;
+    }
+
+    String getDeleteSql() {
+        return deleteSql;
+    }
+
+    RowMapper<T> getRowMapper() {
+        return rowMapper;
+    }
+
+    ParameterBinder<T> getInsertBinder() {
+        return insertBinder;
+    }
+
+    ParameterBinder<T> getInsertWithIdBinder() {
+        return insertWithIdBinder;
+    }
+
+    ParameterBinder<T> getUpdateBinder() {
+        return updateBinder;
+    }
+
+    int getId(T entity) {
+        return idGetter.applyAsInt(entity);
+    }
+
+    void setId(T entity, int id) {
+        idSetter.accept(entity, id);
+    }
+}
@@ -0,0 +1,240 @@
+package dataAccessLayer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import connection.ConnectionFactory;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+
+/**
+ * The {@code GroupCommitWriter} class inserts entities submitted by many threads in shared transactions, so the
+ * database flushes its log once per group of rows instead of once per row. A writer thread takes the queued
+ * entities and inserts up to {@code maxBatch} of them in one batch and one transaction, waiting at most
+ * {@code maxDelayMillis} after the first one for more to arrive. With {@code rewriteBatchedStatements} the MySQL
+ * driver sends each batch as multi-row {@code INSERT} statements.
+ * <p>
+ * Each caller gets a future that completes with its entity, with its ID set, only once the
+ * transaction holding it was committed, so a completed future is exactly as durable as a plain
+ * {@link AbstractDAO#insert(Object)}. If a group fails, its entities are retried one transaction each, so one
+ * bad row only fails its own future. A writer can also run a {@link GroupWriter} of its own, to write more than the
+ * rows of the entities in the same transaction. The futures are completed on the writer thread, so callers should not
+ * chain slow work on them without an executor. Queued entities are written when the JVM shuts down.
+ *
+ * @param <T> the type of the entities
+ *
+ * @Author Sarkozi Lorand
+ */
+public class GroupCommitWriter<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(GroupCommitWriter.class.getName());
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000L;
+
+    private final GroupWriter<T> groupWriter;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending<T>> queue;
+    private final OperationMetrics metrics;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Writes a group of entities on the connection of a transaction.
+     *
+     * @param <T> the type of the entities
+     */
+    @FunctionalInterface
+    public interface GroupWriter<T> {
+        /**
+         * Writes the entities, setting their IDs.
+         *
+         * @param connection the connection of the transaction; it is not closed nor committed
+         * @param entities   the entities to write
+         * @throws SQLException if they could not be written; the transaction is then rolled back
+         */
+        void write(Connection connection, List<T> entities) throws SQLException;
+    }
+
+    /**
+     * An entity waiting to be written and the future of its caller.
+     */
+    private record Pending<T>(T entity, CompletableFuture<T> future) {
+    }
+
+    /**
+     * Constructs a writer and starts its thread.
+     *
+     * @param name           the name of the writer, used for its thread and its metrics
+     * @param dao            the DAO inserting the entities
+     * @param maxBatch       the largest number of entities written in one transaction
+     * @param maxDelayMillis the longest time the first entity of a group waits for more entities
+     * @param queueCapacity  the number of entities that can wait; callers block when it is reached
+     */
+    public GroupCommitWriter(String name, AbstractDAO<T> dao, int maxBatch, long maxDelayMillis, int queueCapacity) {
+        this(name, dao::insertAll, maxBatch, maxDelayMillis, queueCapacity);
+    }
+
+    /**
+     * Constructs a writer that writes each group with the given writer, and starts its thread.
+     *
+     * @param name           the name of the writer, used for its thread and its metrics
+     * @param groupWriter    writes the entities of a group, or a single entity when a group is retried
+     * @param maxBatch       the largest number of entities written in one transaction
+     * @param maxDelayMillis the longest time the first entity of a group waits for more entities
+     * @param queueCapacity  the number of entities that can wait; callers block when it is reached
+     */
+    public GroupCommitWriter(String name, GroupWriter<T> groupWriter, int maxBatch, long maxDelayMillis,
+                             int queueCapacity) {
+        if (maxBatch < 1 || maxDelayMillis < 0 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid group commit settings: maxBatch=" + maxBatch
+                    + ", maxDelayMillis=" + maxDelayMillis + ", queueCapacity=" + queueCapacity);
+        }
+        this.groupWriter = groupWriter;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.metrics = MetricsRegistry.operation(name + ".groupCommit");
+        this.writer = new Thread(this::work, name + "-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+        ConnectionFactory.addShutdownTask(this::close);
+    }
+
+    /**
+     * Queues an entity to be inserted with the next group. Blocks while the queue is full.
+     *
+     * @param entity the entity to insert
+     * @return a future completed with the entity once it was committed, or exceptionally with the
+     * {@link SQLException} that prevented it, or with an {@link IllegalStateException} if the writer is closed
+     */
+    public CompletableFuture<T> submit(T entity) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("The group commit writer is closed"));
+            return future;
+        }
+        Pending<T> pending = new Pending<>(entity, future);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        // closed while it was being queued: the writer and close() may both be done with the queue already,
+        // so fail the entity unless one of them took it
+        if (closed && queue.remove(pending)) {
+            future.completeExceptionally(new IllegalStateException("The group commit writer was closed"));
+        }
+        return future;
+    }
+
+    /**
+     * Returns the number of entities waiting to be written.
+     *
+     * @return the length of the queue
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    private void work() {
+        List<Pending<T>> group = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                Pending<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatch) {
+                    queue.drainTo(group, maxBatch - group.size());
+                    long wait = deadline - System.nanoTime();
+                    if (group.size() >= maxBatch || wait <= 0 || closed) {
+                        break;
+                    }
+                    Pending<T> next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                write(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts a group in one transaction, or, if that fails, each of its entities in its own transaction.
+     */
+    private void write(List<Pending<T>> group) {
+        long start = metrics.start();
+        List<T> entities = new ArrayList<>(group.size());
+        for (Pending<T> pending : group) {
+            entities.add(pending.entity());
+        }
+        try {
+            ConnectionFactory.inTransaction(connection -> {
+                groupWriter.write(connection, entities);
+                return null;
+            });
+            metrics.rows(group.size());
+            for (Pending<T> pending : group) {
+                pending.future().complete(pending.entity());
+            }
+        } catch (SQLException | RuntimeException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, "GroupCommitWriter:write " + e.getMessage());
+            for (Pending<T> pending : group) {
+                writeAlone(pending);
+            }
+        } finally {
+            metrics.finished(start);
+        }
+    }
+
+    private void writeAlone(Pending<T> pending) {
+        try {
+            pending.future().complete(ConnectionFactory.inTransaction(connection -> {
+                groupWriter.write(connection, List.of(pending.entity()));
+                return pending.entity();
+            }));
+        } catch (SQLException | RuntimeException e) {
+            pending.future().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops taking new entities, waits for the writer to write the queued ones and fails the futures of
+     * any left behind.
+     */
+    private void close() {
+        closed = true;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending<T> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new IllegalStateException("The group commit writer was closed"));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dataAccessLayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+
+import connection.ConnectionFactory;
+import connection.DatabaseConfig;
+
+/**
+ * The {@code HiLoIdAllocator} class hands out the IDs of one table from blocks reserved in the database, so a
+ * DAO knows the IDs of its rows before inserting them and batches of inserts need no generated keys. A block
+ * of {@code blockSize} IDs is reserved with one short transaction on the {@code IdBlock} table, then its IDs
+ * are handed out from memory; the IDs left in a block when the JVM stops are never used.
+ * <p>
+ * Each block starts after the highest ID of the table as well, so rows inserted before the allocator was used
+ * are never overwritten. A table whose DAO uses an allocator must get all its IDs from it, since the
+ * auto-increment counter of the database does not know about the reserved blocks.
+ * <p>
+ * Blocks are reserved on a connection of their own, opened outside the pool for each reservation and closed
+ * after it, so a caller holding a pooled connection in a transaction never waits for a second one, and no idle
+ * connection is left to be dropped by the server between reservations.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class HiLoIdAllocator {
+
+    /**
+     * The default number of IDs per block, the {@code dao.idBlockSize} setting of {@link DatabaseConfig}.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = DatabaseConfig.getInt("dao.idBlockSize", 1000);
+
+    private static final String createTableStatementString = "CREATE TABLE IF NOT EXISTS IdBlock ("
+            + "name VARCHAR(64) PRIMARY KEY, next_id INT NOT NULL)";
+    private static final String selectBlockStatementString = "SELECT next_id FROM IdBlock WHERE name = ? FOR UPDATE";
+    private static final String insertBlockStatementString = "INSERT INTO IdBlock (name, next_id) VALUES (?, ?)";
+    private static final String updateBlockStatementString = "UPDATE IdBlock SET next_id = ? WHERE name = ?";
+
+    private final String table;
+    private final String maxIdStatementString;
+    private final int blockSize;
+    private boolean tableCreated;
+    private int next;
+    private int end;
+
+    /**
+     * Constructs an allocator for the IDs of a table.
+     *
+     * @param table     the name of the table, also the name of its block counter
+     * @param idColumn  the ID column of the table
+     * @param blockSize the number of IDs reserved at once
+     */
+    public HiLoIdAllocator(String table, String idColumn, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The block size must be positive: " + blockSize);
+        }
+        this.table = table;
+        this.maxIdStatementString = "SELECT MAX(" + idColumn + ") FROM " + table;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next free ID, reserving a new block when the current one is used up.
+     *
+     * @return the ID
+     * @throws SQLException if a new block could not be reserved
+     */
+    public synchronized int nextId() throws SQLException {
+        if (next == end) {
+            reserveBlock();
+        }
+        return next++;
+    }
+
+    /**
+     * Reserves the next block: reads the counter of the table, locking its row, moves it past the block and
+     * commits. The first reservation of a table creates its counter; if another process created it at the
+     * same time, the reservation is retried once, reading the counter of the other process.
+     */
+    private void reserveBlock() throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = ConnectionFactory.openConnection()) {
+                createTable(connection);
+                connection.setAutoCommit(false);
+                try {
+                    int start = Math.max(readCounter(connection), readMaxId(connection) + 1);
+                    writeCounter(connection, start + blockSize);
+                    connection.commit();
+                    next = start;
+                    end = start + blockSize;
+                    return;
+                } catch (SQLException e) {
+                    try {
+                        connection.rollback();
+                    } catch (SQLException rollbackFailure) {
+                        e.addSuppressed(rollbackFailure);
+                    }
+                    throw e;
+                }
+            } catch (SQLIntegrityConstraintViolationException e) {
+                if (attempt == 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the counter table, the first time a block is reserved.
+     */
+    private void createTable(Connection connection) throws SQLException {
+        if (!tableCreated) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(createTableStatementString);
+            }
+            tableCreated = true;
+        }
+    }
+
+    /**
+     * Returns the counter of the table, creating the row of the table if needed, or {@code 0} if the row was
+     * just created.
+     */
+    private int readCounter(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(selectBlockStatementString)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt(1);
+                }
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement(insertBlockStatementString)) {
+            statement.setString(1, table);
+            statement.setInt(2, 0);
+            statement.executeUpdate();
+        }
+        return 0;
+    }
+
+    private int readMaxId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(maxIdStatementString)) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private void writeCounter(Connection connection, int nextId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(updateBlockStatementString)) {
+            statement.setInt(1, nextId);
+            statement.setString(2, table);
+            statement.executeUpdate();
+        }
+    }
+}
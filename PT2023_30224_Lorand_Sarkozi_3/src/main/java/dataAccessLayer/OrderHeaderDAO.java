@@ -0,0 +1,97 @@
+package dataAccessLayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.logging.Level;
+
+import connection.ConnectionFactory;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.OrderHeader;
+
+/**
+ * The {@code OrderHeaderDAO} class is responsible for performing CRUD operations on the "OrderHeader" table
+ * in the database. It provides methods for finding and inserting order headers through {@link AbstractDAO},
+ * and for reporting totals the checkouts of a range of IDs per client.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrderHeaderDAO extends AbstractDAO<OrderHeader> {
+
+    private static final String findIdRangeStatementString = "SELECT MIN(id), MAX(id) FROM OrderHeader";
+    private static final String totalInIdRangeStatementString =
+            "SELECT h.client_id, SUM(l.amount), COUNT(DISTINCT h.id) FROM OrderHeader h"
+                    + " JOIN OrderLine l ON l.order_id = h.id WHERE h.id >= ? AND h.id <= ? GROUP BY h.client_id";
+    private static final OperationMetrics forEachTotalInIdRangeMetrics =
+            MetricsRegistry.operation("OrderHeaderDAO.forEachTotalInIdRange");
+
+    /**
+     * Returns the lowest and the highest order header ID.
+     *
+     * @return the two IDs, {@code {0, 0}} if there are no orders, or {@code null} if they could not be read
+     */
+    public int[] findIdRange() {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(findIdRangeStatementString);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            return new int[]{resultSet.getInt(1), resultSet.getInt(2)};
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "OrderHeaderDAO:findIdRange " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+        }
+        return null;
+    }
+
+    /**
+     * Totals the checkouts with an ID in the given range per client, in the database, and passes the totals of
+     * each client to the action; each checkout counts as one order of its client, with the units of all its lines.
+     *
+     * @param fromId the lowest ID of the range
+     * @param toId   the highest ID of the range
+     * @param action receives the ID of each client with the units and the number of its checkouts in the range
+     * @return the number of clients, or -1 if the checkouts could not be read
+     */
+    public int forEachTotalInIdRange(int fromId, int toId, OrdersDAO.TotalConsumer action) {
+        OperationMetrics metrics = forEachTotalInIdRangeMetrics;
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, totalInIdRangeStatementString);
+            statement.setInt(1, fromId);
+            statement.setInt(2, toId);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3));
+                count++;
+            }
+            metrics.mapped(lap, count);
+            return count;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, "OrderHeaderDAO:forEachTotalInIdRange " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return -1;
+    }
+}
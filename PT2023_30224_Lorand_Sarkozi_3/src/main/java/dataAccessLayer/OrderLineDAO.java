@@ -0,0 +1,144 @@
+package dataAccessLayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import connection.ConnectionFactory;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.OrderLine;
+
+/**
+ * The {@code OrderLineDAO} class is responsible for performing CRUD operations on the "OrderLine" table
+ * in the database. Besides the operations of {@link AbstractDAO}, it finds the lines of an order, and for
+ * reporting totals the lines of a range of IDs per product.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrderLineDAO extends AbstractDAO<OrderLine> {
+
+    private static final String findByOrderIdStatementString =
+            "SELECT id, order_id, product_id, amount FROM OrderLine WHERE order_id = ? ORDER BY id";
+    private static final String findIdRangeStatementString = "SELECT MIN(id), MAX(id) FROM OrderLine";
+    private static final String totalInIdRangeStatementString =
+            "SELECT l.product_id, SUM(l.amount), COUNT(*) FROM OrderLine l JOIN OrderHeader h ON h.id = l.order_id"
+                    + " WHERE l.id >= ? AND l.id <= ? GROUP BY l.product_id";
+    private static final OperationMetrics forEachTotalInIdRangeMetrics =
+            MetricsRegistry.operation("OrderLineDAO.forEachTotalInIdRange");
+    private static final HiLoIdAllocator idAllocator =
+            new HiLoIdAllocator("OrderLine", "id", HiLoIdAllocator.DEFAULT_BLOCK_SIZE);
+
+    /**
+     * Finds the lines of an order, in the order they were inserted.
+     *
+     * @param orderId the ID of the order
+     * @return the lines of the order, or an empty list if it has none or they could not be read
+     */
+    public List<OrderLine> findByOrderId(int orderId) {
+        List<OrderLine> lines = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(findByOrderIdStatementString);
+            statement.setInt(1, orderId);
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                lines.add(new OrderLine(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3),
+                        resultSet.getInt(4)));
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "OrderLineDAO:findByOrderId " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the lowest and the highest order line ID.
+     *
+     * @return the two IDs, {@code {0, 0}} if there are no lines, or {@code null} if they could not be read
+     */
+    public int[] findIdRange() {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(findIdRangeStatementString);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            return new int[]{resultSet.getInt(1), resultSet.getInt(2)};
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "OrderLineDAO:findIdRange " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+        }
+        return null;
+    }
+
+    /**
+     * Totals the lines with an ID in the given range per product, in the database, and passes the totals of each
+     * product to the action; each line counts as one order of its product.
+     *
+     * @param fromId the lowest ID of the range
+     * @param toId   the highest ID of the range
+     * @param action receives the ID of each product with the units and the number of its lines in the range
+     * @return the number of products, or -1 if the lines could not be read
+     */
+    public int forEachTotalInIdRange(int fromId, int toId, OrdersDAO.TotalConsumer action) {
+        OperationMetrics metrics = forEachTotalInIdRangeMetrics;
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, totalInIdRangeStatementString);
+            statement.setInt(1, fromId);
+            statement.setInt(2, toId);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3));
+                count++;
+            }
+            metrics.mapped(lap, count);
+            return count;
+        } catch (SQLException e) {
+            metrics.error();
+            LOGGER.log(Level.WARNING, "OrderLineDAO:forEachTotalInIdRange " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
+        }
+        return -1;
+    }
+
+    /**
+     * The IDs of the order lines are reserved in blocks, so the lines of a checkout are batch-inserted with their
+     * IDs and do not depend on the database generating consecutive keys for a multi-row insert.
+     *
+     * @return the ID allocator of the table
+     */
+    @Override
+    protected HiLoIdAllocator idAllocator() {
+        return idAllocator;
+    }
+}
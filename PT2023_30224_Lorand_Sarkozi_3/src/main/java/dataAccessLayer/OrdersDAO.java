@@ -4,143 +4,328 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import connection.ConnectionFactory;
-import model.Client;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 import model.Orders;
 
 /**
  * The {@code OrdersDAO} class is responsible for performing CRUD operations on the "Orders" table in the database.
- * It provides methods for finding, inserting, and retrieving orders records.
+ * It provides methods for finding, inserting, and retrieving orders records through {@link AbstractDAO},
+ * and finds the orders of a client, of a product or of both a page at a time. Each of these lookups is answered
+ * by a covering index of the {@code schema.sql} script, starting with the filtered columns and then the ID.
+ * For reporting, it reads the columns of a range of orders, or of the orders after an ID, without mapping them to
+ * objects, and totals the orders per product or per client in the database, together with the lines of the
+ * checked out orders.
  *
  * @Author Sarkozi Lorand
  */
-public class OrdersDAO {
+public class OrdersDAO extends AbstractDAO<Orders> {
 
-    protected static final Logger LOGGER = Logger.getLogger(Orders.class.getName());
-    private static final String insertStatementString = "INSERT INTO Orders (client_id,product_id,ammount) VALUES (?,?,?)";
-    private final static String findStatementString = "SELECT * FROM Orders WHERE id = ?";
-    private final static String findStatementStringAll = "SELECT * FROM Orders";
+    private static final String findIdRangeStatementString = "SELECT MIN(id), MAX(id) FROM Orders";
+    private static final String findInIdRangeStatementString =
+            "SELECT client_id, product_id, ammount FROM Orders WHERE id >= ? AND id <= ?";
+    private static final String findAfterIdStatementString =
+            "SELECT id, client_id, product_id, ammount FROM Orders WHERE id > ? ORDER BY id";
+    private static final String totalByProductStatementString =
+            "SELECT product_id, SUM(units), SUM(orders) FROM ("
+                    + "SELECT product_id, SUM(ammount) AS units, COUNT(*) AS orders FROM Orders GROUP BY product_id"
+                    + " UNION ALL SELECT l.product_id, SUM(l.amount), COUNT(*) FROM OrderLine l"
+                    + " JOIN OrderHeader h ON h.id = l.order_id GROUP BY l.product_id"
+                    + ") t GROUP BY product_id";
+    private static final String totalByClientStatementString =
+            "SELECT client_id, SUM(units), SUM(orders) FROM ("
+                    + "SELECT client_id, SUM(ammount) AS units, COUNT(*) AS orders FROM Orders GROUP BY client_id"
+                    + " UNION ALL SELECT h.client_id, SUM(l.amount), COUNT(DISTINCT h.id) FROM OrderLine l"
+                    + " JOIN OrderHeader h ON h.id = l.order_id GROUP BY h.client_id"
+                    + ") t GROUP BY client_id";
+    private static final OperationMetrics forEachInIdRangeMetrics =
+            MetricsRegistry.operation("OrdersDAO.forEachInIdRange");
+    private static final OperationMetrics forEachAfterIdMetrics =
+            MetricsRegistry.operation("OrdersDAO.forEachAfterId");
+    private static final OperationMetrics totalByProductMetrics =
+            MetricsRegistry.operation("OrdersDAO.forEachTotalByProduct");
+    private static final OperationMetrics totalByClientMetrics =
+            MetricsRegistry.operation("OrdersDAO.forEachTotalByClient");
+    private static final HiLoIdAllocator idAllocator =
+            new HiLoIdAllocator("Orders", "id", HiLoIdAllocator.DEFAULT_BLOCK_SIZE);
+
+    private final PageQuery findByClientId = pageQuery("findByClientId", "clientId");
+    private final PageQuery findByProductId = pageQuery("findByProductId", "productId");
+    private final PageQuery findByClientAndProductId =
+            pageQuery("findByClientAndProductId", "clientId", "productId");
 
     /**
-     * Retrieves an order record with the specified ID from the database.
+     * Retrieves a page of the orders of a client, in ID order.
      *
-     * @param ordersId the ID of the order to retrieve
-     * @return the retrieved order object, or {@code null} if not found
+     * @param clientId the ID of the client
+     * @param afterId  the ID after which the page starts; 0 for the first page
+     * @param limit    the maximum number of orders of the page
+     * @return the orders of the page; empty if they could not be retrieved
+     */
+    public List<Orders> findByClientId(int clientId, int afterId, int limit) {
+        return findPage(findByClientId, afterId, limit, clientId);
+    }
+
+    /**
+     * Retrieves a page of the orders of a product, in ID order.
+     *
+     * @param productId the ID of the product
+     * @param afterId   the ID after which the page starts; 0 for the first page
+     * @param limit     the maximum number of orders of the page
+     * @return the orders of the page; empty if they could not be retrieved
+     */
+    public List<Orders> findByProductId(int productId, int afterId, int limit) {
+        return findPage(findByProductId, afterId, limit, productId);
+    }
+
+    /**
+     * Retrieves a page of the orders of a product by a client, in ID order.
+     *
+     * @param clientId  the ID of the client
+     * @param productId the ID of the product
+     * @param afterId   the ID after which the page starts; 0 for the first page
+     * @param limit     the maximum number of orders of the page
+     * @return the orders of the page; empty if they could not be retrieved
+     */
+    public List<Orders> findByClientAndProductId(int clientId, int productId, int afterId, int limit) {
+        return findPage(findByClientAndProductId, afterId, limit, clientId, productId);
+    }
+
+    /**
+     * Receives the columns of an order read by {@link #forEachInIdRange(int, int, RowConsumer)}.
      */
-    public static Orders findById(int ordersId) {
-        Orders toReturn = null;
+    @FunctionalInterface
+    public interface RowConsumer {
+        /**
+         * Receives an order.
+         *
+         * @param clientId  the ID of the client of the order
+         * @param productId the ID of the product of the order
+         * @param amount    the amount ordered
+         */
+        void accept(int clientId, int productId, int amount);
+    }
+
+    /**
+     * Receives the columns of an order read by {@link #forEachAfterId(int, OrderRowConsumer)}.
+     */
+    @FunctionalInterface
+    public interface OrderRowConsumer {
+        /**
+         * Receives an order.
+         *
+         * @param id        the ID of the order
+         * @param clientId  the ID of the client of the order
+         * @param productId the ID of the product of the order
+         * @param amount    the amount ordered
+         */
+        void accept(int id, int clientId, int productId, int amount);
+    }
 
-        Connection dbConnection = ConnectionFactory.getConnection();
-        PreparedStatement findStatement = null;
-        ResultSet rs = null;
+    /**
+     * Receives the totals of the orders of one product or one client.
+     */
+    @FunctionalInterface
+    public interface TotalConsumer {
+        /**
+         * Receives the totals of a key.
+         *
+         * @param key    the ID of the product or of the client
+         * @param units  the sum of the amounts of its orders
+         * @param orders the number of its orders
+         */
+        void accept(int key, long units, int orders);
+    }
+
+    /**
+     * Returns the lowest and the highest order ID.
+     *
+     * @return the two IDs, {@code {0, 0}} if there are no orders, or {@code null} if they could not be read
+     */
+    public int[] findIdRange() {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
         try {
-            findStatement = dbConnection.prepareStatement(findStatementString);
-            findStatement.setLong(1, ordersId);
-            rs = findStatement.executeQuery();
-            rs.next();
-
-            int client_id = rs.getInt("client_id");
-            int product_id = rs.getInt("product_id");
-            int ammount = rs.getInt("ammount");
-            toReturn = new Orders(ordersId, client_id, product_id, ammount);
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(findIdRangeStatementString);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            return new int[]{resultSet.getInt(1), resultSet.getInt(2)};
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "OrdersDAO:findById " + e.getMessage());
+            LOGGER.log(Level.WARNING, "OrdersDAO:findIdRange " + e.getMessage());
         } finally {
-            ConnectionFactory.close(rs);
-            ConnectionFactory.close(findStatement);
-            ConnectionFactory.close(dbConnection);
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
         }
-        return toReturn;
+        return null;
     }
 
     /**
-     * Inserts a new order record into the database.
+     * Passes the client, product and amount of every order with an ID in the given range to the action,
+     * one row at a time, as a streaming query; no {@link Orders} object is created.
      *
-     * @param orders the order object to insert
-     * @return the ID of the inserted order record
+     * @param fromId the lowest ID of the range
+     * @param toId   the highest ID of the range
+     * @param action the action to perform on each order
+     * @return the number of orders processed, or -1 if they could not be read
      */
-    public static int insert(Orders orders) {
-        Connection dbConnection = ConnectionFactory.getConnection();
-
-        PreparedStatement insertStatement = null;
-        int insertedId = -1;
+    public int forEachInIdRange(int fromId, int toId, RowConsumer action) {
+        OperationMetrics metrics = forEachInIdRangeMetrics;
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
         try {
-            insertStatement = dbConnection.prepareStatement(insertStatementString, Statement.RETURN_GENERATED_KEYS);
-            insertStatement.setInt(1, orders.getClientId());
-            insertStatement.setInt(2, orders.getProductId());
-            insertStatement.setInt(3, orders.getOrderAmm());
-            insertStatement.executeUpdate();
-
-            ResultSet rs = insertStatement.getGeneratedKeys();
-            if (rs.next()) {
-                insertedId = rs.getInt(1);
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, findInIdRangeStatementString);
+            statement.setInt(1, fromId);
+            statement.setInt(2, toId);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3));
+                count++;
             }
+            metrics.mapped(lap, count);
+            return count;
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "OrdersDAO:insert " + e.getMessage());
+            metrics.error();
+            LOGGER.log(Level.WARNING, "OrdersDAO:forEachInIdRange " + e.getMessage());
         } finally {
-            ConnectionFactory.close(insertStatement);
-            ConnectionFactory.close(dbConnection);
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
         }
-        return insertedId;
+        return -1;
     }
 
     /**
-     * Retrieves all order records from the database.
+     * Passes the columns of every order with an ID above the given one to the action, in ID order, one row at a
+     * time, as a streaming query; no {@link Orders} object is created.
      *
-     * @return a list of all order objects
+     * @param afterId the ID after which the orders are read; 0 for all the orders
+     * @param action  the action to perform on each order
+     * @return the number of orders processed, or -1 if they could not be read
      */
-    public List<Orders> findAll() {
-        Orders toReturn = null;
-
-        Connection dbConnection = ConnectionFactory.getConnection();
-        Statement findStatement = null;
-        ResultSet rs = null;
+    public int forEachAfterId(int afterId, OrderRowConsumer action) {
+        OperationMetrics metrics = forEachAfterIdMetrics;
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
         try {
-            findStatement = dbConnection.prepareStatement(findStatementStringAll);
-            rs = findStatement.executeQuery(findStatementStringAll);
-
-            return createObjects(rs);
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, findAfterIdStatementString);
+            statement.setInt(1, afterId);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3), resultSet.getInt(4));
+                count++;
+            }
+            metrics.mapped(lap, count);
+            return count;
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "OrdersDAO:findAll " + e.getMessage());
+            metrics.error();
+            LOGGER.log(Level.WARNING, "OrdersDAO:forEachAfterId " + e.getMessage());
         } finally {
-            ConnectionFactory.close(rs);
-            ConnectionFactory.close(findStatement);
-            ConnectionFactory.close(dbConnection);
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
         }
-        return createObjects(rs);
+        return -1;
     }
 
     /**
-     * Creates a list of order objects from the given result set.
+     * Totals the orders of every product in the database, with {@code GROUP BY product_id}, and passes the totals
+     * of each product to the action. Each line of a checked out order is counted as an order of its product.
      *
-     * @param resultSet the result set containing order records
-     * @return a list of order objects
+     * @param action receives the ID of each product with the units and the number of its orders
+     * @return the number of products, or -1 if the totals could not be read
      */
-    private List<Orders> createObjects(ResultSet resultSet) {
-        List<Orders> list = new ArrayList<Orders>();
+    public int forEachTotalByProduct(TotalConsumer action) {
+        return forEachTotal(totalByProductStatementString, totalByProductMetrics, "forEachTotalByProduct", action);
+    }
+
+    /**
+     * Totals the orders of every client in the database, with {@code GROUP BY client_id}, and passes the totals
+     * of each client to the action. Each checked out order is counted as one order of its client, with the units
+     * of all its lines.
+     *
+     * @param action receives the ID of each client with the units and the number of its orders
+     * @return the number of clients, or -1 if the totals could not be read
+     */
+    public int forEachTotalByClient(TotalConsumer action) {
+        return forEachTotal(totalByClientStatementString, totalByClientMetrics, "forEachTotalByClient", action);
+    }
+
+    private int forEachTotal(String sql, OperationMetrics metrics, String method, TotalConsumer action) {
+        long start = metrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
         try {
+            connection = ConnectionFactory.getConnection();
+            lap = metrics.acquired(lap);
+            statement = prepareStreaming(connection, sql);
+            resultSet = statement.executeQuery();
+            lap = metrics.executed(lap);
+            int count = 0;
             while (resultSet.next()) {
-                Orders order = new Orders(
-                        Integer.parseInt(resultSet.getObject("id").toString()),
-                        Integer.parseInt(resultSet.getObject("client_id").toString()),
-                        Integer.parseInt(resultSet.getObject("product_id").toString()),
-                        Integer.parseInt(resultSet.getObject("ammount").toString())
-                );
-                list.add(order);
+                action.accept(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3));
+                count++;
             }
-        } catch (SecurityException e) {
-            e.printStackTrace();
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
+            metrics.mapped(lap, count);
+            return count;
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            metrics.error();
+            LOGGER.log(Level.WARNING, "OrdersDAO:" + method + " " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            metrics.finished(start);
         }
-        return list;
+        return -1;
+    }
+
+    /**
+     * Maps the order amount to the "ammount" column; the other fields use the default snake_case columns.
+     *
+     * @param fieldName the name of the field
+     * @return the column name
+     */
+    @Override
+    protected String columnName(String fieldName) {
+        if (fieldName.equals("orderAmm")) {
+            return "ammount";
+        }
+        return super.columnName(fieldName);
+    }
+
+    /**
+     * The IDs of the orders are reserved in blocks, so group commits and batch inserts send them with the rows
+     * and do not depend on the database generating consecutive keys for a multi-row insert.
+     *
+     * @return the ID allocator of the table
+     */
+    @Override
+    protected HiLoIdAllocator idAllocator() {
+        return idAllocator;
     }
 }
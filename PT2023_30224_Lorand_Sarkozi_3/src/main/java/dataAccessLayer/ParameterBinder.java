@@ -0,0 +1,82 @@
+package dataAccessLayer;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@code ParameterBinder} class sets the fields of an entity as the parameters of a prepared statement,
+ * in a fixed order. The getters are generated once by {@link Accessors}, and primitive fields are bound with
+ * the typed setters of the statement, so no value is boxed.
+ *
+ * @param <T> the type of the bound entities
+ *
+ * @Author Sarkozi Lorand
+ */
+final class ParameterBinder<T> {
+
+    private final Parameter[] parameters;
+
+    /**
+     * Constructs a new binder for the given fields.
+     *
+     * @param type   the class declaring the fields
+     * @param fields the fields to bind, in parameter order
+     */
+    ParameterBinder(Class<T> type, List<Field> fields) {
+        this.parameters = new Parameter[fields.size()];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = parameter(type, fields.get(i));
+        }
+    }
+
+    /**
+     * Sets the fields of the entity as consecutive parameters of the statement.
+     *
+     * @param statement  the statement to bind
+     * @param entity     the entity whose fields are bound
+     * @param firstIndex the index of the first parameter
+     * @return the index of the parameter following the bound ones
+     * @throws SQLException if a parameter cannot be set
+     */
+    int bind(PreparedStatement statement, T entity, int firstIndex) throws SQLException {
+        int index = firstIndex;
+        for (Parameter parameter : parameters) {
+            parameter.bind(statement, index++, entity);
+        }
+        return index;
+    }
+
+    /**
+     * A field of the bound class, set with the statement setter matching its type.
+     */
+    private interface Parameter {
+        void bind(PreparedStatement statement, int index, Object entity) throws SQLException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Parameter parameter(Class<?> type, Field field) {
+        Object getter = Accessors.getter(type, field);
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            ToIntFunction<Object> intGetter = (ToIntFunction<Object>) getter;
+            return (statement, index, entity) -> statement.setInt(index, intGetter.applyAsInt(entity));
+        } else if (fieldType == long.class) {
+            ToLongFunction<Object> longGetter = (ToLongFunction<Object>) getter;
+            return (statement, index, entity) -> statement.setLong(index, longGetter.applyAsLong(entity));
+        } else if (fieldType == double.class) {
+            ToDoubleFunction<Object> doubleGetter = (ToDoubleFunction<Object>) getter;
+            return (statement, index, entity) -> statement.setDouble(index, doubleGetter.applyAsDouble(entity));
+        }
+        Function<Object, Object> objectGetter = (Function<Object, Object>) getter;
+        if (fieldType == String.class) {
+            return (statement, index, entity) -> statement.setString(index, (String) objectGetter.apply(entity));
+        }
+        return (statement, index, entity) -> statement.setObject(index, objectGetter.apply(entity));
+    }
+}
@@ -2,187 +2,101 @@ package dataAccessLayer;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import connection.ConnectionFactory;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 import model.Product;
 
 /**
  * The {@code ProductDAO} class is responsible for performing CRUD operations on the "Product" table in the database.
- * It provides methods for finding, inserting, updating, and deleting product records.
+ * It provides methods for finding, inserting, updating, and deleting product records through {@link AbstractDAO}.
  *
  * @Author Sarkozi Lorand
  */
-public class ProductDAO {
+public class ProductDAO extends AbstractDAO<Product> {
 
-    protected static final Logger LOGGER = Logger.getLogger(Product.class.getName());
-    private static final String insertStatementString = "INSERT INTO Product (name, ammount) VALUES (?, ?)";
-    private final static String findStatementString = "SELECT * FROM Product WHERE id = ?";
-    private final static String findStatementStringAll = "SELECT * FROM Product";
-    private static final String updateStatementString = "UPDATE Product SET name=?, ammount=? WHERE id=?";
-    private static final String deleteStatementString = "DELETE FROM Product WHERE id = ?";
+    private static final String reserveStockStatementString =
+            "UPDATE Product SET ammount = ammount - ? WHERE id = ? AND ammount >= ?";
+    private static final OperationMetrics reserveStockMetrics = MetricsRegistry.operation("ProductDAO.reserveStock");
+    private static final OperationMetrics reserveStockBatchMetrics =
+            MetricsRegistry.operation("ProductDAO.reserveStockBatch");
 
     /**
-     * Retrieves a product record with the specified ID from the database.
+     * Takes the given quantity out of the stock of a product, on the given connection, as part of the
+     * transaction of the caller. The check and the decrement are one conditional update, so the row lock
+     * of the database serializes concurrent reservations and the stock can never go below zero.
      *
-     * @param productId the ID of the product to retrieve
-     * @return the retrieved product object, or {@code null} if not found
+     * @param connection the connection to use; it is not closed
+     * @param productId  the ID of the product
+     * @param amount     the quantity to reserve
+     * @return {@code true} if the stock was decremented, {@code false} if the product does not exist
+     * or has less than {@code amount} in stock
+     * @throws SQLException if the stock could not be updated
      */
-    public static Product findById(int productId) {
-        Product toReturn = null;
-
-        Connection dbConnection = ConnectionFactory.getConnection();
-        PreparedStatement findStatement = null;
-        ResultSet rs = null;
-        try {
-            findStatement = dbConnection.prepareStatement(findStatementString);
-            findStatement.setLong(1, productId);
-            rs = findStatement.executeQuery();
-            rs.next();
-
-            String name = rs.getString("name");
-            Integer amount = rs.getInt("ammount");
-            toReturn = new Product(productId, name, amount);
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "ProductDAO:findById " + e.getMessage());
-        } finally {
-            ConnectionFactory.close(rs);
-            ConnectionFactory.close(findStatement);
-            ConnectionFactory.close(dbConnection);
-        }
-        return toReturn;
-    }
-
-    /**
-     * Updates a product record in the database.
-     *
-     * @param product the product object to update
-     */
-    public static void update(Product product) {
-        Connection dbConnection = ConnectionFactory.getConnection();
-
-        PreparedStatement updateStatement = null;
+    public boolean reserveStock(Connection connection, int productId, int amount) throws SQLException {
+        long start = reserveStockMetrics.start();
+        PreparedStatement statement = null;
         try {
-            updateStatement = dbConnection.prepareStatement(updateStatementString);
-            updateStatement.setString(1, product.getName());
-            updateStatement.setInt(2, product.getAmmount());
-            updateStatement.setInt(3, product.getId());
-            updateStatement.executeUpdate();
+            statement = connection.prepareStatement(reserveStockStatementString);
+            statement.setInt(1, amount);
+            statement.setInt(2, productId);
+            statement.setInt(3, amount);
+            int updated = statement.executeUpdate();
+            reserveStockMetrics.executed(start);
+            reserveStockMetrics.rows(updated);
+            return updated == 1;
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "ProductDAO:update " + e.getMessage());
+            reserveStockMetrics.error();
+            throw e;
         } finally {
-            ConnectionFactory.close(updateStatement);
-            ConnectionFactory.close(dbConnection);
+            ConnectionFactory.close(statement);
+            reserveStockMetrics.finished(start);
         }
     }
 
     /**
-     * Inserts a new product record into the database.
+     * Takes the given quantities out of the stock of several products, on the given connection, as part of
+     * the transaction of the caller, with one batch of conditional updates. The updates run in the order
+     * of the arrays, so callers should sort the products by ID: every transaction then locks the rows in
+     * the same order and two checkouts can never deadlock each other.
+     * <p>
+     * The caller must roll back when a product could not be reserved, since the products before it were.
      *
-     * @param product the product object to insert
-     * @return the ID of the inserted product record
+     * @param connection the connection to use; it is not closed
+     * @param productIds the IDs of the products, each at most once
+     * @param amounts    the quantity to reserve of each product
+     * @return the index of the first product that does not exist or has too little in stock,
+     * or {@code -1} if every product was reserved
+     * @throws SQLException if the stock could not be updated
      */
-    public static int insert(Product product) {
-        Connection dbConnection = ConnectionFactory.getConnection();
-
-        PreparedStatement insertStatement = null;
-        int insertedId = -1;
+    public int reserveStock(Connection connection, int[] productIds, int[] amounts) throws SQLException {
+        long start = reserveStockBatchMetrics.start();
+        PreparedStatement statement = null;
         try {
-            insertStatement = dbConnection.prepareStatement(insertStatementString, Statement.RETURN_GENERATED_KEYS);
-            insertStatement.setString(1, product.getName());
-            insertStatement.setInt(2, product.getAmmount());
-            insertStatement.executeUpdate();
-
-            ResultSet rs = insertStatement.getGeneratedKeys();
-            if (rs.next()) {
-                insertedId = rs.getInt(1);
+            statement = connection.prepareStatement(reserveStockStatementString);
+            for (int i = 0; i < productIds.length; i++) {
+                statement.setInt(1, amounts[i]);
+                statement.setInt(2, productIds[i]);
+                statement.setInt(3, amounts[i]);
+                statement.addBatch();
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "ProductDAO:insert " + e.getMessage());
-        } finally {
-            ConnectionFactory.close(insertStatement);
-            ConnectionFactory.close(dbConnection);
-        }
-        return insertedId;
-    }
-
-    /**
-     * Retrieves all product records from the database.
-     *
-     * @return a list of all product objects
-     */
-    public List<Product> findAll() {
-        Product toReturn = null;
-
-        Connection dbConnection = ConnectionFactory.getConnection();
-        Statement findStatement = null;
-        ResultSet rs = null;
-        try {
-            findStatement = dbConnection.prepareStatement(findStatementStringAll);
-
-            rs = findStatement.executeQuery(findStatementStringAll);
-
-            return createObjects(rs);
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "ProductDAO:findAll " + e.getMessage());
-        } finally {
-            ConnectionFactory.close(rs);
-            ConnectionFactory.close(findStatement);
-            ConnectionFactory.close(dbConnection);
-        }
-        return createObjects(rs);
-    }
-
-    /**
-     * Creates a list of product objects from the given result set.
-     *
-     * @param resultSet the result set containing product records
-     * @return a list of product objects
-     */
-    private List<Product> createObjects(ResultSet resultSet) {
-        List<Product> list = new ArrayList<Product>();
-        try {
-            while (resultSet.next()) {
-                Product product = new Product(
-                        Integer.parseInt(resultSet.getObject("id").toString()),
-                        resultSet.getObject("name").toString(),
-                        Integer.parseInt(resultSet.getObject("ammount").toString())
-                );
-                list.add(product);
+            int[] updated = statement.executeBatch();
+            reserveStockBatchMetrics.executed(start);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] != 1) {
+                    return i;
+                }
             }
-        } catch (SecurityException e) {
-            e.printStackTrace();
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-        return list;
-    }
-
-    /**
-     * Deletes a product record from the database.
-     *
-     * @param product the product object to delete
-     */
-    public static void delete(Product product) {
-        Connection dbConnection = ConnectionFactory.getConnection();
-        PreparedStatement deleteStatement = null;
-        try {
-            deleteStatement = dbConnection.prepareStatement(deleteStatementString);
-            deleteStatement.setInt(1, product.getId());
-            deleteStatement.executeUpdate();
+            reserveStockBatchMetrics.rows(updated.length);
+            return updated.length < productIds.length ? updated.length : -1;
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "ProductDAO:delete " + e.getMessage());
+            reserveStockBatchMetrics.error();
+            throw e;
         } finally {
-            ConnectionFactory.close(deleteStatement);
-            ConnectionFactory.close(dbConnection);
+            ConnectionFactory.close(statement);
+            reserveStockBatchMetrics.finished(start);
         }
     }
 }
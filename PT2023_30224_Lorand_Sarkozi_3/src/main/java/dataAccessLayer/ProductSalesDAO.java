@@ -0,0 +1,16 @@
+package dataAccessLayer;
+
+/**
+ * The {@code ProductSalesDAO} class reads and updates the sales counters of the products, in the "ProductSales" table.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class ProductSalesDAO extends SalesCounterDAO {
+
+    /**
+     * Constructs a DAO for the "ProductSales" table.
+     */
+    public ProductSalesDAO() {
+        super("ProductSales", "product_id");
+    }
+}
@@ -0,0 +1,254 @@
+package dataAccessLayer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The {@code RowMapper} class turns the rows of a {@link java.sql.ResultSet} into objects of type {@code T}.
+ * The mapping plan of a class (its no-argument constructor and one typed setter per field, generated by
+ * {@link Accessors}) is built once, so mapping a row does no reflection. The column of every field
+ * is resolved once per query from the {@link ResultSetMetaData}, and primitive fields are read with the typed
+ * getters of the result set, so no value is boxed.
+ *
+ * @param <T> the type of the mapped objects
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class RowMapper<T> {
+
+    private static final ClassValue<RowMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+            return new RowMapper<>(type, Function.identity());
+        }
+    };
+
+    private final Class<T> type;
+    private final Supplier<T> constructor;
+    private final Property[] properties;
+
+    private RowMapper(Class<T> type, Function<String, String> columnNames) {
+        this.type = type;
+        this.constructor = Accessors.constructor(type);
+        List<Property> list = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                list.add(property(type, field, columnNames.apply(field.getName())));
+            }
+        }
+        this.properties = list.toArray(new Property[0]);
+    }
+
+    /**
+     * Returns the cached mapper of the given class, reading every field from the column with the same name.
+     *
+     * @param type the class of the mapped objects; it needs a no-argument constructor
+     * @param <T>  the type of the mapped objects
+     * @return the mapper of the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> of(Class<T> type) {
+        return (RowMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Builds a new mapper of the given class, reading every field from the column named by {@code columnNames}.
+     * The mapper is not cached; callers are expected to keep it.
+     *
+     * @param type        the class of the mapped objects; it needs a no-argument constructor
+     * @param columnNames maps a field name to its column name
+     * @param <T>         the type of the mapped objects
+     * @return the mapper of the class
+     */
+    public static <T> RowMapper<T> of(Class<T> type, Function<String, String> columnNames) {
+        return new RowMapper<>(type, columnNames);
+    }
+
+    /**
+     * Resolves the column of every field in the given result set. Fields without a matching column
+     * (compared case-insensitively with the column label) are left untouched.
+     *
+     * @param resultSet the result set of the query
+     * @return a mapper bound to the columns of the result set
+     * @throws SQLException if the metadata of the result set cannot be read
+     */
+    public Bound<T> bind(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        int[] columns = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            for (int column = 1; column <= columnCount; column++) {
+                if (properties[i].column.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+                    columns[i] = column;
+                    break;
+                }
+            }
+        }
+        return new Bound<>(this, columns);
+    }
+
+    /**
+     * Maps every remaining row of the given result set.
+     *
+     * @param resultSet the result set of the query
+     * @return the mapped objects, in row order
+     * @throws SQLException if the result set cannot be read
+     */
+    public List<T> mapAll(ResultSet resultSet) throws SQLException {
+        Bound<T> bound = bind(resultSet);
+        List<T> list = new ArrayList<>();
+        while (resultSet.next()) {
+            list.add(bound.map(resultSet));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the class of the mapped objects.
+     *
+     * @return the mapped class
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * The {@code Bound} class is a {@link RowMapper} whose columns were resolved for one result set.
+     *
+     * @param <T> the type of the mapped objects
+     */
+    public static final class Bound<T> {
+
+        private final Property[] properties;
+        private final Supplier<T> constructor;
+        private final int[] columns;
+
+        private Bound(RowMapper<T> mapper, int[] columns) {
+            this.properties = mapper.properties;
+            this.constructor = mapper.constructor;
+            this.columns = columns;
+        }
+
+        /**
+         * Maps the current row of the result set.
+         *
+         * @param resultSet the result set the mapper was bound to, positioned on a row
+         * @return the mapped object
+         * @throws SQLException if a column cannot be read
+         */
+        public T map(ResultSet resultSet) throws SQLException {
+            T instance = constructor.get();
+            for (int i = 0; i < properties.length; i++) {
+                if (columns[i] != 0) {
+                    properties[i].read(resultSet, columns[i], instance);
+                }
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * A field of the mapped class, read from its column with the getter matching its type.
+     */
+    private abstract static class Property {
+
+        final String column;
+
+        Property(String column) {
+            this.column = column;
+        }
+
+        abstract void read(ResultSet resultSet, int index, Object target) throws SQLException;
+    }
+
+    private static final class IntProperty extends Property {
+        private final ObjIntConsumer<Object> setter;
+
+        IntProperty(String column, ObjIntConsumer<Object> setter) {
+            super(column);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, Object target) throws SQLException {
+            setter.accept(target, resultSet.getInt(index));
+        }
+    }
+
+    private static final class LongProperty extends Property {
+        private final ObjLongConsumer<Object> setter;
+
+        LongProperty(String column, ObjLongConsumer<Object> setter) {
+            super(column);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, Object target) throws SQLException {
+            setter.accept(target, resultSet.getLong(index));
+        }
+    }
+
+    private static final class DoubleProperty extends Property {
+        private final ObjDoubleConsumer<Object> setter;
+
+        DoubleProperty(String column, ObjDoubleConsumer<Object> setter) {
+            super(column);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, Object target) throws SQLException {
+            setter.accept(target, resultSet.getDouble(index));
+        }
+    }
+
+    private static final class ObjectProperty extends Property {
+        private final BiConsumer<Object, Object> setter;
+        private final Class<?> fieldType;
+
+        ObjectProperty(String column, BiConsumer<Object, Object> setter, Class<?> fieldType) {
+            super(column);
+            this.setter = setter;
+            this.fieldType = fieldType;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, Object target) throws SQLException {
+            Object value;
+            if (fieldType == String.class) {
+                value = resultSet.getString(index);
+            } else if (fieldType == boolean.class) {
+                value = resultSet.getBoolean(index);
+            } else {
+                value = resultSet.getObject(index, fieldType);
+            }
+            setter.accept(target, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Property property(Class<?> type, Field field, String column) {
+        Object setter = Accessors.setter(type, field);
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return new IntProperty(column, (ObjIntConsumer<Object>) setter);
+        } else if (fieldType == long.class) {
+            return new LongProperty(column, (ObjLongConsumer<Object>) setter);
+        } else if (fieldType == double.class) {
+            return new DoubleProperty(column, (ObjDoubleConsumer<Object>) setter);
+        }
+        return new ObjectProperty(column, (BiConsumer<Object, Object>) setter, fieldType);
+    }
+}
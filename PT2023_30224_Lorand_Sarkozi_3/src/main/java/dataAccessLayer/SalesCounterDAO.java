@@ -0,0 +1,224 @@
+package dataAccessLayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import connection.ConnectionFactory;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.SalesCounter;
+
+/**
+ * The {@code SalesCounterDAO} class reads and updates a table of sales counters: one row per product or per
+ * client, keyed by its ID, with the units and the number of its orders. The counters are added to in the
+ * transaction that inserts the orders, with one upsert per key, so reading the totals of a key is a primary key
+ * lookup however many orders there are.
+ * <p>
+ * Every transaction adding to a table locks its rows in ascending key order, so concurrent orders can wait for
+ * each other on a popular key but never deadlock.
+ *
+ * @Author Sarkozi Lorand
+ */
+public abstract class SalesCounterDAO {
+
+    private static final Logger LOGGER = Logger.getLogger(SalesCounterDAO.class.getName());
+
+    private final String addStatementString;
+    private final String insertStatementString;
+    private final String findStatementString;
+    private final String findAllStatementString;
+    private final String deleteAllStatementString;
+    private final String name;
+    private final OperationMetrics addMetrics;
+    private final OperationMetrics findMetrics;
+    private final OperationMetrics forEachMetrics;
+    private final OperationMetrics replaceMetrics;
+
+    /**
+     * Constructs a DAO for a table of counters.
+     *
+     * @param table     the name of the table
+     * @param keyColumn the column of the ID of the product or of the client
+     */
+    protected SalesCounterDAO(String table, String keyColumn) {
+        this.insertStatementString = "INSERT INTO " + table + " (" + keyColumn + ", units, order_count)"
+                + " VALUES (?, ?, ?)";
+        this.addStatementString = insertStatementString + " ON DUPLICATE KEY UPDATE units = units + VALUES(units),"
+                + " order_count = order_count + VALUES(order_count)";
+        this.findStatementString = "SELECT units, order_count FROM " + table + " WHERE " + keyColumn + " = ?";
+        this.findAllStatementString = "SELECT " + keyColumn + ", units, order_count FROM " + table;
+        this.deleteAllStatementString = "DELETE FROM " + table;
+        this.name = getClass().getSimpleName();
+        this.addMetrics = MetricsRegistry.operation(name + ".addOrders");
+        this.findMetrics = MetricsRegistry.operation(name + ".find");
+        this.forEachMetrics = MetricsRegistry.operation(name + ".forEach");
+        this.replaceMetrics = MetricsRegistry.operation(name + ".replaceAll");
+    }
+
+    /**
+     * Adds orders to the counters of their keys, on the given connection, as part of the transaction of the caller.
+     * The orders of the same key are added together, and the keys are updated in ascending order with one batch of
+     * upserts; a key without a counter gets one.
+     *
+     * @param connection the connection to use; it is not closed
+     * @param keys       the product or client ID of each order
+     * @param amounts    the amount of each order
+     * @throws SQLException if the counters could not be updated
+     */
+    public void addOrders(Connection connection, int[] keys, int[] amounts) throws SQLException {
+        long start = addMetrics.start();
+        PreparedStatement statement = null;
+        try {
+            // each order packed as key and amount, so sorting groups the orders of a key, in key order
+            long[] packed = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                packed[i] = (long) keys[i] << 32 | (amounts[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed);
+            statement = connection.prepareStatement(addStatementString);
+            int updated = 0;
+            for (int i = 0; i < packed.length; ) {
+                int key = (int) (packed[i] >> 32);
+                long units = 0;
+                int orders = 0;
+                for (; i < packed.length && (int) (packed[i] >> 32) == key; i++) {
+                    units += (int) packed[i];
+                    orders++;
+                }
+                statement.setInt(1, key);
+                statement.setLong(2, units);
+                statement.setInt(3, orders);
+                statement.addBatch();
+                updated++;
+            }
+            statement.executeBatch();
+            addMetrics.executed(start);
+            addMetrics.rows(updated);
+        } catch (SQLException e) {
+            addMetrics.error();
+            throw e;
+        } finally {
+            ConnectionFactory.close(statement);
+            addMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Reads the counter of a key.
+     *
+     * @param key the ID of the product or of the client
+     * @return the counter, with zero units and orders if the key has none, or {@code null} if it could not be read
+     */
+    public SalesCounter find(int key) {
+        long start = findMetrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = findMetrics.acquired(lap);
+            statement = connection.prepareStatement(findStatementString);
+            statement.setInt(1, key);
+            resultSet = statement.executeQuery();
+            lap = findMetrics.executed(lap);
+            SalesCounter counter = resultSet.next()
+                    ? new SalesCounter(key, resultSet.getLong(1), resultSet.getInt(2))
+                    : new SalesCounter(key, 0, 0);
+            findMetrics.mapped(lap, 1);
+            return counter;
+        } catch (SQLException e) {
+            findMetrics.error();
+            LOGGER.log(Level.WARNING, name + ":find " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            findMetrics.finished(start);
+        }
+        return null;
+    }
+
+    /**
+     * Passes every counter to the action, one row at a time, as a streaming query.
+     *
+     * @param action receives each key with its units and its number of orders
+     * @return the number of counters, or -1 if they could not be read
+     */
+    public int forEach(OrdersDAO.TotalConsumer action) {
+        long start = forEachMetrics.start();
+        long lap = start;
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = ConnectionFactory.getConnection();
+            lap = forEachMetrics.acquired(lap);
+            statement = AbstractDAO.prepareStreaming(connection, findAllStatementString);
+            resultSet = statement.executeQuery();
+            lap = forEachMetrics.executed(lap);
+            int count = 0;
+            while (resultSet.next()) {
+                action.accept(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3));
+                count++;
+            }
+            forEachMetrics.mapped(lap, count);
+            return count;
+        } catch (SQLException e) {
+            forEachMetrics.error();
+            LOGGER.log(Level.WARNING, name + ":forEach " + e.getMessage());
+        } finally {
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            forEachMetrics.finished(start);
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces all the counters of the table, on the given connection, as part of the transaction of the caller:
+     * deletes them, then inserts the given ones in batches of {@link AbstractDAO#DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param connection the connection to use; it is not closed
+     * @param keys       the ID of each product or client
+     * @param units      the units of each key
+     * @param orders     the number of orders of each key
+     * @throws SQLException if the counters could not be replaced
+     */
+    public void replaceAll(Connection connection, int[] keys, long[] units, int[] orders) throws SQLException {
+        long start = replaceMetrics.start();
+        Statement delete = null;
+        PreparedStatement insert = null;
+        try {
+            delete = connection.createStatement();
+            delete.executeUpdate(deleteAllStatementString);
+            insert = connection.prepareStatement(insertStatementString);
+            for (int i = 0; i < keys.length; i++) {
+                insert.setInt(1, keys[i]);
+                insert.setLong(2, units[i]);
+                insert.setInt(3, orders[i]);
+                insert.addBatch();
+                if ((i + 1) % AbstractDAO.DEFAULT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            replaceMetrics.executed(start);
+            replaceMetrics.rows(keys.length);
+        } catch (SQLException e) {
+            replaceMetrics.error();
+            throw e;
+        } finally {
+            ConnectionFactory.close(insert);
+            ConnectionFactory.close(delete);
+            replaceMetrics.finished(start);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The {@code LatencySnapshot} class holds the count and the percentiles of a {@link LatencyHistogram}
+ * at one moment, in microseconds. It is exported through JMX as composite data.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class LatencySnapshot {
+
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    /**
+     * Constructs a new snapshot.
+     *
+     * @param count      the number of recorded durations
+     * @param meanMicros the mean duration
+     * @param p50Micros  the median duration
+     * @param p90Micros  the 90th percentile
+     * @param p99Micros  the 99th percentile
+     * @param p999Micros the 99.9th percentile
+     * @param maxMicros  the longest duration
+     */
+    @ConstructorProperties({"count", "meanMicros", "p50Micros", "p90Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public LatencySnapshot(long count, double meanMicros, double p50Micros, double p90Micros, double p99Micros,
+                           double p999Micros, double maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean duration, in microseconds.
+     *
+     * @return the mean duration, in microseconds
+     */
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    /**
+     * Returns the median duration, in microseconds.
+     *
+     * @return the median duration, in microseconds
+     */
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    /**
+     * Returns the 90th percentile, in microseconds.
+     *
+     * @return the 90th percentile, in microseconds
+     */
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    /**
+     * Returns the 99th percentile, in microseconds.
+     *
+     * @return the 99th percentile, in microseconds
+     */
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    /**
+     * Returns the 99.9th percentile, in microseconds.
+     *
+     * @return the 99.9th percentile, in microseconds
+     */
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    /**
+     * Returns the longest duration, in microseconds.
+     *
+     * @return the longest duration, in microseconds
+     */
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f us",
+                count, meanMicros, p50Micros, p90Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,129 @@
+package metrics;
+
+import connection.DatabaseConfig;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code MetricsRegistry} class holds the {@link OperationMetrics} of every instrumented operation of the
+ * DAOs and the BLL. Each operation is registered in the platform MBean server, under
+ * {@code metrics:type=Operation,name=<operation>}, so it can be watched with JConsole or any JMX client,
+ * and all of them are logged every {@code metrics.dumpIntervalSeconds} seconds (60 by default, {@code 0} to
+ * disable), when calls were made since the last dump.
+ * <p>
+ * Recording costs a few {@code System.nanoTime()} calls and uncontended atomic increments per call, so the
+ * metrics are on by default; they can be turned off by setting {@code metrics.enabled} to {@code false}
+ * through {@link DatabaseConfig}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class MetricsRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+
+    static final boolean ENABLED = DatabaseConfig.getBoolean("metrics.enabled", true);
+    private static final long DUMP_INTERVAL_SECONDS = DatabaseConfig.getLong("metrics.dumpIntervalSeconds", 60L);
+
+    private static final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static long lastDumpedCalls;
+
+    static {
+        if (ENABLED && DUMP_INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(MetricsRegistry::dumpIfActive, DUMP_INTERVAL_SECONDS, DUMP_INTERVAL_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the metrics of the named operation, creating and registering them on the first call.
+     * Callers should keep the result in a field rather than look it up on every call.
+     *
+     * @param name the name of the operation, e.g. {@code ProductDAO.findById}
+     * @return the metrics of the operation
+     */
+    public static OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, MetricsRegistry::register);
+    }
+
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        if (ENABLED) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName("metrics:type=Operation,name=" + ObjectName.quote(name));
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metrics, objectName);
+                }
+            } catch (JMException e) {
+                LOGGER.log(Level.WARNING, "MetricsRegistry:register " + e.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of every operation, sorted by name.
+     *
+     * @return the registered operations
+     */
+    public static List<OperationMetrics> getOperations() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparing(OperationMetrics::getName));
+        return list;
+    }
+
+    /**
+     * Formats the metrics of every operation that was called, sorted by name.
+     *
+     * @return the metrics as text
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder("Operation metrics");
+        for (OperationMetrics metrics : getOperations()) {
+            if (metrics.getCalls() > 0) {
+                sb.append(System.lineSeparator()).append(metrics);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Clears the metrics of every operation.
+     */
+    public static void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+
+    private static void dumpIfActive() {
+        long calls = 0;
+        for (OperationMetrics metrics : operations.values()) {
+            calls += metrics.getCalls();
+        }
+        if (calls != lastDumpedCalls) {
+            lastDumpedCalls = calls;
+            LOGGER.log(Level.INFO, dump());
+        }
+    }
+}
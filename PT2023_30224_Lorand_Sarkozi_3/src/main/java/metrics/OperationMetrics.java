@@ -0,0 +1,201 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code OperationMetrics} class counts the calls, errors and rows of one operation, such as
+ * {@code ProductDAO.findById}, and records the latency of whole calls and, separately, of their phases:
+ * acquiring a pooled connection, executing the statements and mapping the rows.
+ * <p>
+ * A call is timed with plain {@code long} timestamps, so nothing is allocated:
+ * <pre>{@code
+ * long start = metrics.start();
+ * long lap = start;
+ * try {
+ *     Connection connection = ConnectionFactory.getConnection();
+ *     lap = metrics.acquired(lap);
+ *     ResultSet resultSet = statement.executeQuery();
+ *     lap = metrics.executed(lap);
+ *     List<T> rows = mapAll(resultSet);
+ *     metrics.mapped(lap, rows.size());
+ * } catch (SQLException e) {
+ *     metrics.error();
+ * } finally {
+ *     metrics.finished(start);
+ * }
+ * }</pre>
+ * When metrics are disabled with the {@code metrics.enabled} setting, every method returns at once.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram acquire = new LatencyHistogram();
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram map = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts timing a call.
+     *
+     * @return the start of the call, to pass to the other methods
+     */
+    public long start() {
+        return MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time spent acquiring a connection since the given timestamp.
+     *
+     * @param since the start of the phase
+     * @return the end of the phase, i.e. the start of the next one
+     */
+    public long acquired(long since) {
+        return lap(acquire, since);
+    }
+
+    /**
+     * Records the time spent executing statements since the given timestamp.
+     *
+     * @param since the start of the phase
+     * @return the end of the phase, i.e. the start of the next one
+     */
+    public long executed(long since) {
+        return lap(execute, since);
+    }
+
+    /**
+     * Records the time spent mapping rows since the given timestamp, and the number of rows.
+     *
+     * @param since the start of the phase
+     * @param count the number of rows read or written
+     * @return the end of the phase
+     */
+    public long mapped(long since, int count) {
+        rows(count);
+        return lap(map, since);
+    }
+
+    /**
+     * Counts rows read or written.
+     *
+     * @param count the number of rows
+     */
+    public void rows(int count) {
+        if (MetricsRegistry.ENABLED && count > 0) {
+            rows.add(count);
+        }
+    }
+
+    /**
+     * Counts a failed call.
+     */
+    public void error() {
+        if (MetricsRegistry.ENABLED) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Counts a call and records its latency.
+     *
+     * @param start the value returned by {@link #start()}
+     */
+    public void finished(long start) {
+        if (MetricsRegistry.ENABLED) {
+            calls.increment();
+            total.record(System.nanoTime() - start);
+        }
+    }
+
+    private static long lap(LatencyHistogram histogram, long since) {
+        if (!MetricsRegistry.ENABLED) {
+            return since;
+        }
+        long now = System.nanoTime();
+        histogram.record(now - since);
+        return now;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public LatencySnapshot getTotal() {
+        return total.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getAcquire() {
+        return acquire.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getExecute() {
+        return execute.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getMap() {
+        return map.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        total.reset();
+        acquire.reset();
+        execute.reset();
+        map.reset();
+    }
+
+    /**
+     * Formats the counters and the non-empty histograms, one per line.
+     *
+     * @return the metrics as text
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(": calls=").append(getCalls()).append(" errors=").append(getErrors())
+                .append(" rows=").append(getRows());
+        append(sb, "total", total);
+        append(sb, "acquire", acquire);
+        append(sb, "execute", execute);
+        append(sb, "map", map);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String phase, LatencyHistogram histogram) {
+        if (histogram.getCount() > 0) {
+            sb.append(System.lineSeparator()).append("    ").append(phase).append(": ").append(histogram.snapshot());
+        }
+    }
+}
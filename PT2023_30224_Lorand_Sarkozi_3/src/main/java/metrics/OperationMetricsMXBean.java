@@ -0,0 +1,55 @@
+package metrics;
+
+/**
+ * The {@code OperationMetricsMXBean} interface exports the metrics of one operation through JMX,
+ * under the name {@code metrics:type=Operation,name=<operation>}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return the name of the operation, e.g. {@code ProductDAO.findById}
+     */
+    String getName();
+
+    /**
+     * @return the number of calls
+     */
+    long getCalls();
+
+    /**
+     * @return the number of calls that failed
+     */
+    long getErrors();
+
+    /**
+     * @return the number of rows read or written
+     */
+    long getRows();
+
+    /**
+     * @return the latency of whole calls
+     */
+    LatencySnapshot getTotal();
+
+    /**
+     * @return the time spent waiting for a pooled connection
+     */
+    LatencySnapshot getAcquire();
+
+    /**
+     * @return the time spent preparing and executing statements
+     */
+    LatencySnapshot getExecute();
+
+    /**
+     * @return the time spent reading and mapping rows
+     */
+    LatencySnapshot getMap();
+
+    /**
+     * Clears the counters and the histograms.
+     */
+    void reset();
+}
@@ -0,0 +1,41 @@
+package model;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The {@code DisplayColumn} annotation sets how a field of an entity is shown as a column of a table.
+ * Columns are sorted by their order, and fields with the same order keep their declaration order;
+ * fields without the annotation are shown after the annotated ones, under their own name.
+ *
+ * @Author Sarkozi Lorand
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface DisplayColumn {
+
+    /**
+     * The header of the column.
+     *
+     * @return the header, or an empty string to use the name of the field
+     */
+    String name() default "";
+
+    /**
+     * The position of the column; lower values are shown first.
+     *
+     * @return the order of the column
+     */
+    int order() default Integer.MAX_VALUE;
+
+    /**
+     * Whether the field is left out of the table.
+     *
+     * @return {@code true} if the field is not shown
+     */
+    boolean hidden() default false;
+}
@@ -0,0 +1,76 @@
+package model;
+/**
+ * The {@code OrderHeader} class represents an order of several products, placed at once by one client.
+ * The products and their amounts are the {@link OrderLine}s of the order, which refer to it by its ID.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrderHeader {
+    private int id;
+    private int clientId;
+
+    /**
+     * Constructs an {@code OrderHeader} object with the specified ID and client ID.
+     *
+     * @param id       the unique identifier of the order
+     * @param clientId the client ID associated with the order
+     */
+    public OrderHeader(int id, int clientId) {
+        super();
+        this.id = id;
+        this.clientId = clientId;
+    }
+
+    /**
+     * Constructs a new empty {@code OrderHeader} object.
+     */
+    public OrderHeader() {
+
+    }
+
+    /**
+     * Returns the ID of the order.
+     *
+     * @return the ID of the order
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the order.
+     *
+     * @param id the ID of the order to set
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the client ID associated with the order.
+     *
+     * @return the client ID associated with the order
+     */
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Sets the client ID associated with the order.
+     *
+     * @param clientId the client ID associated with the order to set
+     */
+    public void setClientId(int clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Returns a string representation of the order.
+     *
+     * @return a string representation of the order
+     */
+    @Override
+    public String toString() {
+        return "OrderHeader [id=" + id + ", clientId=" + clientId + "]";
+    }
+}
@@ -0,0 +1,118 @@
+package model;
+/**
+ * The {@code OrderLine} class represents one product of an {@link OrderHeader}: the ordered product and its amount.
+ * It provides methods to get and set the line's ID, order ID, product ID, and amount.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrderLine {
+    private int id;
+    private int orderId;
+    private int productId;
+    private int amount;
+
+    /**
+     * Constructs an {@code OrderLine} object with the specified ID, order ID, product ID, and amount.
+     *
+     * @param id        the unique identifier of the line
+     * @param orderId   the ID of the order the line belongs to
+     * @param productId the product ID associated with the line
+     * @param amount    the ordered amount of the product
+     */
+    public OrderLine(int id, int orderId, int productId, int amount) {
+        super();
+        this.id = id;
+        this.orderId = orderId;
+        this.productId = productId;
+        this.amount = amount;
+    }
+
+    /**
+     * Constructs a new empty {@code OrderLine} object.
+     */
+    public OrderLine() {
+
+    }
+
+    /**
+     * Returns the ID of the line.
+     *
+     * @return the ID of the line
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the line.
+     *
+     * @param id the ID of the line to set
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the ID of the order the line belongs to.
+     *
+     * @return the ID of the order
+     */
+    public int getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Sets the ID of the order the line belongs to.
+     *
+     * @param orderId the ID of the order to set
+     */
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * Returns the product ID associated with the line.
+     *
+     * @return the product ID associated with the line
+     */
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * Sets the product ID associated with the line.
+     *
+     * @param productId the product ID associated with the line to set
+     */
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Returns the ordered amount of the product.
+     *
+     * @return the ordered amount
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Sets the ordered amount of the product.
+     *
+     * @param amount the ordered amount to set
+     */
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * Returns a string representation of the line.
+     *
+     * @return a string representation of the line
+     */
+    @Override
+    public String toString() {
+        return "OrderLine [id=" + id + ", orderId=" + orderId + ", productId=" + productId + ", amount=" + amount + "]";
+    }
+}
@@ -27,6 +27,13 @@ public class Orders {
         this.orderAmm = orderAmm;
     }
 
+    /**
+     * Constructs a new empty {@code Orders} object.
+     */
+    public Orders() {
+
+    }
+
     /**
      * Returns the ID of the order.
      *
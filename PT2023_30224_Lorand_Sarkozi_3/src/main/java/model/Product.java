@@ -8,6 +8,7 @@ package model;
 public class Product {
     private int id;
     private String name;
+    @DisplayColumn(name = "amount")
     private int ammount;
 
     /**
@@ -36,6 +37,13 @@ public class Product {
         this.ammount = ammount;
     }
 
+    /**
+     * Constructs a new empty {@code Product} object.
+     */
+    public Product() {
+
+    }
+
     /**
      * Returns the ID of the product.
      *
@@ -0,0 +1,62 @@
+package model;
+/**
+ * The {@code SalesCounter} class represents the running totals of the orders of one product or one client:
+ * the units ordered and the number of orders.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesCounter {
+    private final int key;
+    private final long units;
+    private final int orders;
+
+    /**
+     * Constructs a {@code SalesCounter} object.
+     *
+     * @param key    the ID of the product or of the client
+     * @param units  the units ordered
+     * @param orders the number of orders
+     */
+    public SalesCounter(int key, long units, int orders) {
+        this.key = key;
+        this.units = units;
+        this.orders = orders;
+    }
+
+    /**
+     * Returns the ID of the product or of the client.
+     *
+     * @return the ID of the product or of the client
+     */
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the units ordered.
+     *
+     * @return the units ordered
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * Returns the number of orders.
+     *
+     * @return the number of orders
+     */
+    public int getOrders() {
+        return orders;
+    }
+
+    /**
+     * Returns a string representation of the counter.
+     *
+     * @return a string representation of the counter
+     */
+    @Override
+    public String toString() {
+        return "SalesCounter [key=" + key + ", units=" + units + ", orders=" + orders + "]";
+    }
+}
@@ -4,44 +4,71 @@ import businessLayer.ClientBLL;
 import businessLayer.ProductBLL;
 import model.Orders;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-public record Bill(Orders order) {
+public record Bill(Orders order) implements Billable {
+
+    private static final Logger LOGGER = Logger.getLogger(Bill.class.getName());
 
     /**
-     * Generates a bill for the given order.
+     * Generates a bill for the given order, on the calling thread.
+     * Orders placed from the GUI are billed in the background by the {@link BillPipeline} instead.
      *
      * @Author Sarkozi Lorand
      */
     public void generateBill() {
-        String billContent = createBillContent();
-        writeBillToFile(billContent);
+        String clientName = new ClientBLL().findClientById(order.getClientId()).getName();
+        String productName = new ProductBLL().findProductById(order.getProductId()).getName();
+        try {
+            writeBillToFile(Path.of(""), createBillContent(clientName, productName));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Bill:generateBill " + e.getMessage());
+        }
     }
 
-    private String createBillContent() {
+    /**
+     * Renders the text of the bill.
+     *
+     * @param clientName  the name of the client of the order
+     * @param productName the name of the product of the order
+     * @return the text of the bill
+     */
+    String createBillContent(String clientName, String productName) {
         StringBuilder content = new StringBuilder();
         content.append("Order id: ").append(order.getId()).append("\n");
-
-        ClientBLL clientBLL = new ClientBLL();
-        String clientName = clientBLL.findClientById(order.getClientId()).getName();
         content.append("Client: ").append(clientName).append("\n");
-
-        ProductBLL productBLL = new ProductBLL();
-        String productName = productBLL.findProductById(order.getProductId()).getName();
         content.append("Product bought: ").append(productName).append("\n");
         content.append("Amount: ").append(order.getOrderAmm()).append("\n");
-
         return content.toString();
     }
 
-    private void writeBillToFile(String billContent) {
-        String FILE_PATH = "Order" + order.getId() + ".txt";
-        try (FileWriter fileWriter = new FileWriter(FILE_PATH, true)) {
-            fileWriter.write(billContent);
-            fileWriter.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    @Override
+    public int clientId() {
+        return order.getClientId();
+    }
+
+    @Override
+    public int[] productIds() {
+        return new int[]{order.getProductId()};
+    }
+
+    @Override
+    public String createBillContent(String clientName, IntFunction<String> productNames) {
+        return createBillContent(clientName, productNames.apply(order.getProductId()));
+    }
+
+    /**
+     * Returns the file {@code Order<id>.txt} of the given directory.
+     *
+     * @param directory the directory of the bill files
+     * @return the file of the bill
+     */
+    @Override
+    public Path billFile(Path directory) {
+        return directory.resolve("Order" + order.getId() + ".txt");
     }
 }
@@ -0,0 +1,237 @@
+package presentation;
+
+import businessLayer.ClientBLL;
+import businessLayer.ProductBLL;
+import connection.ConnectionFactory;
+import connection.DatabaseConfig;
+import model.Client;
+import model.OrderHeader;
+import model.OrderLine;
+import model.Orders;
+import model.Product;
+import util.IntHashMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code BillPipeline} class generates the bills of placed and checked-out orders in the background,
+ * so placing an order does not wait for the bill. Orders are put in a bounded queue and taken by a few
+ * worker threads in batches; the clients and products of a whole batch are looked up together, and each
+ * bill is written with one NIO call. When the queue is full, the submitting thread writes the batch itself,
+ * which slows the producers down instead of growing the queue. Pending bills are written when the JVM shuts down.
+ * <p>
+ * The pipeline is configured with the {@code bills.queueCapacity}, {@code bills.workers},
+ * {@code bills.batchSize}, {@code bills.directory} and {@code bills.shutdownTimeoutMillis} settings of
+ * {@link DatabaseConfig}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class BillPipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(BillPipeline.class.getName());
+    private static final int QUEUE_CAPACITY = DatabaseConfig.getInt("bills.queueCapacity", 1024);
+    private static final int WORKERS = DatabaseConfig.getInt("bills.workers", 2);
+    private static final int BATCH_SIZE = DatabaseConfig.getInt("bills.batchSize", 64);
+    private static final Path DIRECTORY = Path.of(DatabaseConfig.get("bills.directory", ""));
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = DatabaseConfig.getLong("bills.shutdownTimeoutMillis", 10_000L);
+
+    private static final BillPipeline singleInstance = new BillPipeline();
+
+    private final BlockingQueue<Billable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private volatile boolean closed;
+
+    private BillPipeline() {
+        for (int i = 0; i < WORKERS; i++) {
+            Thread worker = new Thread(this::work, "bill-writer-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        ConnectionFactory.addShutdownTask(this::close);
+    }
+
+    /**
+     * Queues the bill of a placed order. Returns as soon as the order is queued; if the queue is full,
+     * the bills of the queued orders are written on the calling thread first.
+     *
+     * @param order the placed order, with its ID set
+     */
+    public static void submit(Orders order) {
+        singleInstance.enqueue(new Bill(order));
+    }
+
+    /**
+     * Queues the single bill of a checked-out order of several products, like {@link #submit(Orders)}.
+     *
+     * @param order the checked-out order, with its ID set
+     * @param lines the lines of the order
+     */
+    public static void submit(OrderHeader order, List<OrderLine> lines) {
+        singleInstance.enqueue(new CheckoutBill(order, List.copyOf(lines)));
+    }
+
+    /**
+     * Waits until every submitted bill was written or failed.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return {@code true} if every bill was handled, {@code false} if the time ran out
+     */
+    public static boolean flush(long timeoutMillis) {
+        return singleInstance.awaitIdle(timeoutMillis);
+    }
+
+    /**
+     * Returns a summary of the counters of the pipeline.
+     *
+     * @return the submitted, written, failed and caller-written bills and the queue length
+     */
+    public static String getStatistics() {
+        BillPipeline pipeline = singleInstance;
+        return "BillPipeline [submitted=" + pipeline.submitted + ", written=" + pipeline.written
+                + ", failed=" + pipeline.failed + ", callerRuns=" + pipeline.callerRuns
+                + ", queued=" + pipeline.queue.size() + "]";
+    }
+
+    private void enqueue(Billable bill) {
+        submitted.incrementAndGet();
+        if (!closed && queue.offer(bill)) {
+            return;
+        }
+        callerRuns.incrementAndGet();
+        List<Billable> batch = new ArrayList<>(BATCH_SIZE);
+        batch.add(bill);
+        queue.drainTo(batch, BATCH_SIZE - 1);
+        writeBills(batch);
+    }
+
+    private void work() {
+        List<Billable> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Billable first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                writeBills(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // keep the worker alive, or the bills would be written on the threads submitting them
+                LOGGER.log(Level.WARNING, "BillPipeline:work " + e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Looks up the clients and products of the batch together and writes one bill per order. A bill whose client
+     * or products could not be found is counted as failed rather than written without them, and so is the whole
+     * batch if the lookup fails.
+     */
+    private void writeBills(List<Billable> batch) {
+        int[] clientIds = new int[batch.size()];
+        int[][] productIds = new int[batch.size()][];
+        int productCount = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            clientIds[i] = batch.get(i).clientId();
+            productIds[i] = batch.get(i).productIds();
+            productCount += productIds[i].length;
+        }
+        int[] allProductIds = new int[productCount];
+        int next = 0;
+        for (int[] ids : productIds) {
+            System.arraycopy(ids, 0, allProductIds, next, ids.length);
+            next += ids.length;
+        }
+        IntHashMap<Client> clients;
+        IntHashMap<Product> products;
+        try {
+            clients = ClientBLL.findClientsByIds(clientIds);
+            products = ProductBLL.findProductsByIds(allProductIds);
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            LOGGER.log(Level.WARNING, "BillPipeline:writeBills " + batch.size() + " bills not written: " + e);
+            return;
+        }
+        for (Billable bill : batch) {
+            Client client = clients.get(bill.clientId());
+            String missing = client == null ? "client " + bill.clientId() : missingProduct(bill, products);
+            if (missing != null) {
+                failed.incrementAndGet();
+                LOGGER.log(Level.WARNING, "BillPipeline:writeBills " + bill.billFile(DIRECTORY)
+                        + " not written: " + missing + " could not be found");
+                continue;
+            }
+            try {
+                bill.writeBillToFile(DIRECTORY, bill.createBillContent(client.getName(),
+                        productId -> products.get(productId).getName()));
+                written.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                LOGGER.log(Level.WARNING, "BillPipeline:writeBills " + e.getMessage());
+            }
+        }
+    }
+
+    private static String missingProduct(Billable bill, IntHashMap<Product> products) {
+        for (int productId : bill.productIds()) {
+            if (products.get(productId) == null) {
+                return "product " + productId;
+            }
+        }
+        return null;
+    }
+
+    private boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (written.get() + failed.get() < submitted.get()) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops taking new orders and waits for the workers to write the queued bills.
+     */
+    private void close() {
+        closed = true;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.log(Level.WARNING, "BillPipeline: " + queue.size() + " bills were not written before shutdown");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package presentation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code Billable} interface is what the {@link BillPipeline} needs to write a bill: the client and the
+ * products to look up, the text of the bill once their names are known, and the file it is written to.
+ *
+ * @Author Sarkozi Lorand
+ */
+interface Billable {
+
+    /**
+     * @return the ID of the client of the order
+     */
+    int clientId();
+
+    /**
+     * @return the IDs of the products of the order
+     */
+    int[] productIds();
+
+    /**
+     * Renders the text of the bill.
+     *
+     * @param clientName   the name of the client of the order
+     * @param productNames maps a product ID to the name of the product
+     * @return the text of the bill
+     */
+    String createBillContent(String clientName, IntFunction<String> productNames);
+
+    /**
+     * Returns the file of the bill in the given directory.
+     *
+     * @param directory the directory of the bill files
+     * @return the file of the bill
+     */
+    Path billFile(Path directory);
+
+    /**
+     * Writes the bill to its file in the given directory, replacing an older bill of the same order.
+     *
+     * @param directory   the directory of the bill files
+     * @param billContent the text of the bill
+     * @throws IOException if the file cannot be written
+     */
+    default void writeBillToFile(Path directory, String billContent) throws IOException {
+        Files.write(billFile(directory), billContent.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,54 @@
+package presentation;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.IntConsumer;
+
+/**
+ * The {@code BusyIndicator} class is a small panel showing that database work of the
+ * {@link DataAccessExecutor} is in flight, with a button to cancel the reads. It is hidden while nothing runs.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class BusyIndicator extends JPanel {
+    private final JLabel label;
+    private final IntConsumer listener;
+
+    /**
+     * Constructs a new instance of the {@code BusyIndicator} class.
+     */
+    public BusyIndicator() {
+        setLayout(new FlowLayout(FlowLayout.LEFT));
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        label = new JLabel();
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setToolTipText("Cancels the reads in flight; changes are always completed");
+        cancelButton.addActionListener(e -> DataAccessExecutor.cancelAll());
+
+        add(progressBar);
+        add(label);
+        add(cancelButton);
+
+        listener = this::update;
+        update(DataAccessExecutor.getInFlight());
+    }
+
+    private void update(int inFlight) {
+        label.setText("Loading (" + inFlight + ")");
+        setVisible(inFlight > 0);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        DataAccessExecutor.addInFlightListener(listener);
+        update(DataAccessExecutor.getInFlight());
+    }
+
+    @Override
+    public void removeNotify() {
+        DataAccessExecutor.removeInFlightListener(listener);
+        super.removeNotify();
+    }
+}
@@ -0,0 +1,62 @@
+package presentation;
+
+import model.OrderHeader;
+import model.OrderLine;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code CheckoutBill} record is the single bill of an order of several products, listing one line
+ * per ordered product. Checked-out orders are billed in the background by the {@link BillPipeline}.
+ *
+ * @param order the checked-out order, with its ID set
+ * @param lines the lines of the order
+ *
+ * @Author Sarkozi Lorand
+ */
+public record CheckoutBill(OrderHeader order, List<OrderLine> lines) implements Billable {
+
+    @Override
+    public int clientId() {
+        return order.getClientId();
+    }
+
+    @Override
+    public int[] productIds() {
+        int[] productIds = new int[lines.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = lines.get(i).getProductId();
+        }
+        return productIds;
+    }
+
+    @Override
+    public String createBillContent(String clientName, IntFunction<String> productNames) {
+        StringBuilder content = new StringBuilder();
+        content.append("Order id: ").append(order.getId()).append("\n");
+        content.append("Client: ").append(clientName).append("\n");
+        content.append("Products bought:").append("\n");
+        long total = 0;
+        for (OrderLine line : lines) {
+            content.append("  ").append(productNames.apply(line.getProductId()))
+                    .append(" x ").append(line.getAmount()).append("\n");
+            total += line.getAmount();
+        }
+        content.append("Total amount: ").append(total).append("\n");
+        return content.toString();
+    }
+
+    /**
+     * Returns the file {@code Checkout<id>.txt} of the given directory, so the bills of multi-line orders
+     * never replace the bills of single-product orders with the same ID.
+     *
+     * @param directory the directory of the bill files
+     * @return the file of the bill
+     */
+    @Override
+    public Path billFile(Path directory) {
+        return directory.resolve("Checkout" + order.getId() + ".txt");
+    }
+}
@@ -1,16 +1,14 @@
 package presentation;
 
 import businessLayer.ClientBLL;
+import businessLayer.search.SearchHit;
 import dataAccessLayer.ClientDAO;
 import model.Client;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * The {@code ClientPanel} class represents the GUI panel for managing clients.
@@ -19,7 +17,7 @@ import java.util.List;
  * @Author Sarkozi Lorand
  */
 public class ClientPanel extends JFrame {
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Client> tableModel;
     private JTable clientTable;
     private JScrollPane scrollPane;
     private JTextField nameTextField;
@@ -28,24 +26,23 @@ public class ClientPanel extends JFrame {
     private JButton deleteButton;
     private JButton updateButton;
     private JButton backButton;
-    private List<Client> clientList;
+    private final ClientDAO clientDAO = new ClientDAO();
 
     /**
      * Constructs a new instance of the {@code ClientPanel} class.
      * Initializes the GUI components and sets up the event listeners.
+     * The database is only accessed in the background, through the {@link DataAccessExecutor}.
      */
     public ClientPanel() {
         setLayout(new BorderLayout());
-        setSize(800, 200);
+        setSize(900, 250);
 
-        clientList = new ArrayList<>();
-        clientList.addAll(new ClientDAO().findAll());
-
-        tableModel = RefelectionExample.retrieveProperties(clientList);
+        tableModel = new PagedTableModel<>(Client.class, clientDAO::findPage, Client::getId);
         clientTable = new JTable(tableModel);
 
         scrollPane = new JScrollPane(clientTable);
         add(scrollPane, BorderLayout.CENTER);
+        add(new BusyIndicator(), BorderLayout.NORTH);
 
         JPanel inputPanel = new JPanel();
         inputPanel.setLayout(new GridLayout(5, 1));
@@ -79,6 +76,8 @@ public class ClientPanel extends JFrame {
 
         add(inputPanel, BorderLayout.WEST);
         add(backButton, BorderLayout.SOUTH);
+        add(new SearchBox(query -> ClientBLL.searchClients(query, SearchBox.MAX_HITS), this::showHit),
+                BorderLayout.EAST);
 
         addButton.addActionListener(new ActionListener() {
             @Override
@@ -107,14 +106,13 @@ public class ClientPanel extends JFrame {
                 goBack();
             }
         });
-
-        updateTableModel();
     }
 
     /**
      * Adds a new client when the add button is clicked.
      * Retrieves the client information from the input fields, creates a new client object, and inserts it into the database.
-     * Updates the table model and clears the input fields.
+     * The client is inserted with the chosen ID in one statement; if the ID is taken, nothing is inserted.
+     * Shows the new client in its row of the table and clears the input fields.
      */
     private void addClient() {
         String name = nameTextField.getText().trim();
@@ -122,85 +120,98 @@ public class ClientPanel extends JFrame {
         if (!name.isEmpty() && !idText.isEmpty()) {
             int id = Integer.parseInt(idText);
             Client client = new Client(id, name);
-            clientList.add(client);
-            int insertedId = ClientBLL.insertClient(client);
-            client.setId(insertedId);
-            updateTableModel();
-            clearInputFields();
+            DataAccessExecutor.submitWrite(() -> ClientBLL.insertClient(client), insertedId -> {
+                if (insertedId == -1) {
+                    JOptionPane.showMessageDialog(this, "Client with ID " + id + " could not be added.");
+                    return;
+                }
+                tableModel.rowInserted(client);
+                clearInputFields();
+            });
         }
     }
 
     /**
      * Deletes a client when the delete button is clicked.
      * Retrieves the client ID from the input field, finds the corresponding client object, and deletes it from the database.
-     * Updates the table model and clears the input fields.
+     * A client shown in the table is found in its ID index; only other clients are looked up in the database.
+     * Removes its row from the table and clears the input fields.
      */
     private void deleteClient() {
         String idText = idTextField.getText().trim();
         if (!idText.isEmpty()) {
             int deleteId = Integer.parseInt(idText);
-            Client clientToDelete = getClientById(deleteId);
-            if (clientToDelete != null) {
-                ClientBLL.deleteClient(clientToDelete);
-                clientList.remove(clientToDelete);
-                updateTableModel();
-                clearInputFields();
-            } else {
-                JOptionPane.showMessageDialog(this, "Client with ID " + deleteId + " not found.");
-            }
+            Client shown = tableModel.findById(deleteId);
+            DataAccessExecutor.submitWrite(() -> {
+                Client clientToDelete = shown != null ? shown : getClientById(deleteId);
+                if (clientToDelete != null && !ClientBLL.deleteClient(clientToDelete)) {
+                    throw new IllegalStateException("Client with ID " + deleteId + " could not be deleted.");
+                }
+                return clientToDelete;
+            }, deleted -> {
+                if (deleted != null) {
+                    tableModel.rowDeleted(deleteId);
+                    clearInputFields();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Client with ID " + deleteId + " not found.");
+                }
+            });
         }
     }
 
     /**
      * Updates the information of a client when the update button is clicked.
      * Retrieves the client information from the input fields, finds the corresponding client object,
-     * and updates its name in the database.
-     * Updates the table model and clears the input fields.
+     * and updates its name in the database. A client shown in the table is found in its ID index;
+     * only other clients are looked up in the database.
+     * Repaints its row of the table and clears the input fields.
      */
     private void updateClient() {
         String name = nameTextField.getText().trim();
         String idText = idTextField.getText().trim();
         if (!name.isEmpty() && !idText.isEmpty()) {
             int id = Integer.parseInt(idText);
-            Client clientToUpdate = getClientById(id);
-            if (clientToUpdate != null) {
-                clientToUpdate.setName(name);
-                ClientBLL.updateClient(clientToUpdate);
-                updateTableModel();
-                clearInputFields();
-            } else {
-                JOptionPane.showMessageDialog(this, "Client with ID " + id + " not found.");
-            }
+            Client shown = tableModel.findById(id);
+            DataAccessExecutor.submitWrite(() -> {
+                Client clientToUpdate = shown != null ? new Client(id, shown.getName()) : getClientById(id);
+                if (clientToUpdate != null) {
+                    clientToUpdate.setName(name);
+                    if (!ClientBLL.updateClient(clientToUpdate)) {
+                        throw new IllegalStateException("Client with ID " + id + " could not be updated.");
+                    }
+                }
+                return clientToUpdate;
+            }, updated -> {
+                if (updated != null) {
+                    tableModel.rowUpdated(updated);
+                    clearInputFields();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Client with ID " + id + " not found.");
+                }
+            });
         } else {
             JOptionPane.showMessageDialog(this, "Please enter a valid name and ID.");
         }
     }
 
     /**
-     * Retrieves a client object by its ID from the client list.
+     * Fills the input fields with the client selected in the search box.
      *
-     * @param id the ID of the client to retrieve
-     * @return the client object with the given ID, or {@code null} if not found
+     * @param hit the selected client
      */
-    private Client getClientById(int id) {
-        for (Client client : clientList) {
-            if (client.getId() == id) {
-                return client;
-            }
-        }
-        return null;
+    private void showHit(SearchHit hit) {
+        idTextField.setText(String.valueOf(hit.id()));
+        nameTextField.setText(hit.name());
     }
 
     /**
-     * Updates the table model with the current client list data.
-     * Clears the table model and adds rows for each client in the client list.
+     * Retrieves a client object by its ID from the database. Called on the {@link DataAccessExecutor}.
+     *
+     * @param id the ID of the client to retrieve
+     * @return the client object with the given ID, or {@code null} if not found
      */
-    private void updateTableModel() {
-        tableModel.setRowCount(0);
-        for (Client client : clientList) {
-            tableModel.addRow(new Object[]{client.getId(), client.getName()});
-        }
-        tableModel.fireTableDataChanged();
+    private Client getClientById(int id) {
+        return clientDAO.findById(id);
     }
 
     /**
@@ -0,0 +1,265 @@
+package presentation;
+
+import connection.PoolConfig;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code DataAccessExecutor} class runs the database work of the GUI off the event dispatch thread,
+ * so a slow query never blocks repainting. Each piece of work runs on its own virtual thread when the JVM
+ * supports them (Java 21 and later), and on a pool of daemon platform threads, as large as the connection
+ * pool, otherwise. Results and errors are published back on the event dispatch thread.
+ * <p>
+ * The number of tasks in flight can be observed, e.g. by a {@link BusyIndicator}, and reads can be cancelled:
+ * the result of a cancelled task is discarded and its worker thread is interrupted, though a statement
+ * already sent to the database may still run to completion. Writes, submitted with
+ * {@link #submitWrite(Callable, Consumer)}, are never cancelled, since a write that committed anyway would
+ * lose its outcome and invite the user to repeat it.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class DataAccessExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(DataAccessExecutor.class.getName());
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final Set<Task> running = ConcurrentHashMap.newKeySet();
+    private static final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private DataAccessExecutor() {
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor when the JVM supports them, looked up reflectively so the
+     * application still runs on Java 17, or a bounded pool of daemon platform threads otherwise.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = new PoolConfig().getMaxSize();
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "data-access-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Runs the work in the background and passes its result to {@code onSuccess} on the event dispatch thread.
+     * Errors are shown in a message dialog.
+     *
+     * @param work      the database work
+     * @param onSuccess receives the result of the work
+     * @param <T>       the type of the result
+     * @return the handle of the task
+     */
+    public static <T> Task submit(Callable<T> work, Consumer<? super T> onSuccess) {
+        return submit(work, onSuccess, DataAccessExecutor::showError);
+    }
+
+    /**
+     * Runs the work in the background and passes its result to {@code onSuccess}, or the exception it threw
+     * to {@code onFailure}, on the event dispatch thread. If the task is cancelled, {@code onFailure} receives
+     * a {@link CancellationException}.
+     *
+     * @param work      the database work
+     * @param onSuccess receives the result of the work
+     * @param onFailure receives the exception thrown by the work, or a {@link CancellationException}
+     * @param <T>       the type of the result
+     * @return the handle of the task
+     */
+    public static <T> Task submit(Callable<T> work, Consumer<? super T> onSuccess, Consumer<? super Throwable> onFailure) {
+        return submit(work, onSuccess, onFailure, true);
+    }
+
+    /**
+     * Runs a write in the background and passes its result to {@code onSuccess} on the event dispatch thread.
+     * Errors are shown in a message dialog. Unlike the reads of {@link #submit(Callable, Consumer)}, the task
+     * cannot be cancelled, so the outcome of the write is always published.
+     *
+     * @param work      the database work, changing the database
+     * @param onSuccess receives the result of the work
+     * @param <T>       the type of the result
+     * @return the handle of the task
+     */
+    public static <T> Task submitWrite(Callable<T> work, Consumer<? super T> onSuccess) {
+        return submit(work, onSuccess, DataAccessExecutor::showError, false);
+    }
+
+    private static <T> Task submit(Callable<T> work, Consumer<? super T> onSuccess,
+                                   Consumer<? super Throwable> onFailure, boolean cancellable) {
+        Task task = new Task(onFailure, cancellable);
+        running.add(task);
+        fireInFlightChanged();
+        task.future = EXECUTOR.submit(() -> {
+            T result = null;
+            Throwable error = null;
+            try {
+                result = work.call();
+            } catch (Throwable e) {
+                error = e;
+            }
+            T value = result;
+            Throwable failure = error;
+            SwingUtilities.invokeLater(() -> {
+                if (task.finish()) {
+                    if (failure == null) {
+                        onSuccess.accept(value);
+                    } else {
+                        onFailure.accept(failure);
+                    }
+                }
+            });
+        });
+        return task;
+    }
+
+    /**
+     * Cancels every read in flight; writes are left to finish.
+     */
+    public static void cancelAll() {
+        for (Task task : running.toArray(new Task[0])) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Returns the number of tasks in flight.
+     *
+     * @return the number of submitted tasks whose result was not published yet
+     */
+    public static int getInFlight() {
+        return running.size();
+    }
+
+    /**
+     * Registers a listener notified on the event dispatch thread with the number of tasks in flight,
+     * whenever it changes.
+     *
+     * @param listener the listener
+     */
+    public static void addInFlightListener(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addInFlightListener(IntConsumer)}.
+     *
+     * @param listener the listener
+     */
+    public static void removeInFlightListener(IntConsumer listener) {
+        listeners.remove(listener);
+    }
+
+    private static void fireInFlightChanged() {
+        SwingUtilities.invokeLater(() -> {
+            int inFlight = running.size();
+            for (IntConsumer listener : listeners) {
+                listener.accept(inFlight);
+            }
+        });
+    }
+
+    /**
+     * Shows the error of a task in a message dialog. Validation errors are shown as they are;
+     * cancelled tasks are ignored.
+     */
+    private static void showError(Throwable error) {
+        if (error instanceof CancellationException) {
+            return;
+        }
+        if (error instanceof IllegalArgumentException || error instanceof NoSuchElementException) {
+            JOptionPane.showMessageDialog(null, error.getMessage());
+            return;
+        }
+        LOGGER.log(Level.WARNING, "DataAccessExecutor: " + error);
+        JOptionPane.showMessageDialog(null, "The operation failed: " + error.getMessage());
+    }
+
+    /**
+     * The {@code Task} class is the handle of a submitted piece of work.
+     */
+    public static final class Task {
+
+        private final Consumer<? super Throwable> onFailure;
+        private final boolean cancellable;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile Future<?> future;
+
+        private static final int RUNNING = 0;
+        private static final int DONE = 1;
+        private static final int CANCELLED = 2;
+
+        private Task(Consumer<? super Throwable> onFailure, boolean cancellable) {
+            this.onFailure = onFailure;
+            this.cancellable = cancellable;
+        }
+
+        /**
+         * Marks the task as done, unless it was cancelled.
+         *
+         * @return {@code true} if the result should be published
+         */
+        private boolean finish() {
+            if (state.compareAndSet(RUNNING, DONE)) {
+                running.remove(this);
+                fireInFlightChanged();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cancels the task: its result is discarded and {@code onFailure} receives a {@link CancellationException}.
+         *
+         * Writes cannot be cancelled.
+         *
+         * @return {@code true} if the task was cancelled, {@code false} if it had already finished or is a write
+         */
+        public boolean cancel() {
+            if (!cancellable || !state.compareAndSet(RUNNING, CANCELLED)) {
+                return false;
+            }
+            Future<?> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+            running.remove(this);
+            fireInFlightChanged();
+            SwingUtilities.invokeLater(() -> onFailure.accept(new CancellationException("The task was cancelled")));
+            return true;
+        }
+
+        /**
+         * Returns whether the task finished or was cancelled.
+         *
+         * @return {@code true} if the result was published or the task was cancelled
+         */
+        public boolean isDone() {
+            return state.get() != RUNNING;
+        }
+    }
+}
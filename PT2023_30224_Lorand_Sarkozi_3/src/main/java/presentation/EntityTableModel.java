@@ -0,0 +1,59 @@
+package presentation;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * The {@code EntityTableModel} class is a read-only table model over a list of entities. Nothing is copied:
+ * a cell is read from its entity, through the cached column accessors of the entity class, only when the
+ * table asks for it. The model is created by {@link TableModelFactory}.
+ *
+ * @param <T> the type of the entities shown in the table
+ *
+ * @Author Sarkozi Lorand
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+
+    private final TableColumns columns;
+    private final List<T> rows;
+
+    EntityTableModel(TableColumns columns, List<T> rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Returns the entity shown in the given row.
+     *
+     * @param row the index of the row
+     * @return the entity of the row
+     */
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.count();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.name(column);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columns.type(column);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return columns.value(rows.get(row), column);
+    }
+}
@@ -7,7 +7,7 @@ import java.awt.event.ActionListener;
 
 /**
  * The {@code MainPanel} class represents the main GUI panel of the application.
- * It provides buttons to navigate to different panels: Client, Product, and Orders.
+ * It provides buttons to navigate to different panels: Client, Product, Orders, and Reports.
  *
  * @Author Sarkozi Lorand
  */
@@ -15,6 +15,7 @@ public class MainPanel extends JFrame {
     private JButton clientButton;
     private JButton productButton;
     private JButton ordersButton;
+    private JButton reportsButton;
 
     /**
      * Constructs a new instance of the {@code MainPanel} class.
@@ -29,6 +30,7 @@ public class MainPanel extends JFrame {
         clientButton = new JButton("Client");
         productButton = new JButton("Product");
         ordersButton = new JButton("Orders");
+        reportsButton = new JButton("Reports");
 
         clientButton.addActionListener(new ActionListener() {
             @Override
@@ -51,11 +53,19 @@ public class MainPanel extends JFrame {
             }
         });
 
+        reportsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openReportPanel();
+            }
+        });
+
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(3, 1));
+        panel.setLayout(new GridLayout(4, 1));
         panel.add(clientButton);
         panel.add(productButton);
         panel.add(ordersButton);
+        panel.add(reportsButton);
 
         getContentPane().add(panel);
     }
@@ -93,6 +103,17 @@ public class MainPanel extends JFrame {
         dispose();
     }
 
+    /**
+     * Opens the report panel when the reports button is clicked.
+     */
+    private void openReportPanel() {
+        ReportPanel reportPanel = new ReportPanel();
+        reportPanel.setVisible(true);
+        revalidate();
+        repaint();
+        dispose();
+    }
+
     /**
      * The entry point of the application.
      * Creates an instance of the {@code MainPanel} and makes it visible.
@@ -1,10 +1,11 @@
 package presentation;
 
-import businessLayer.ClientBLL;
+import businessLayer.CheckoutResult;
+import businessLayer.OrderResult;
 import businessLayer.OrdersBLL;
-import businessLayer.ProductBLL;
+import model.OrderHeader;
+import model.OrderLine;
 import model.Orders;
-import model.Product;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,8 +16,9 @@ import java.util.List;
 
 /**
  * The {@code OrdersPanel} class represents the GUI panel for creating orders.
- * It allows the user to enter client ID, product ID, and amount to create an order.
- * The created orders are displayed in a text area.
+ * It allows the user to enter client ID, product ID, and amount to create an order, or to add several
+ * products to a cart and check them out as one order.
+ * The created orders and the cart are displayed in a text area.
  *
  * @Author Sarkozi Lorand
  */
@@ -27,6 +29,7 @@ public class OrdersPanel extends JFrame {
     private JTextArea ordersTextArea;
     private JButton backButton;
     private List<Orders> ordersList;
+    private List<OrderLine> cartLines;
 
     /**
      * Constructs a new instance of the {@code OrdersPanel} class.
@@ -34,8 +37,8 @@ public class OrdersPanel extends JFrame {
      */
     public OrdersPanel() {
         setLayout(new BorderLayout());
-        setSize(800, 200);
-        JPanel inputPanel = new JPanel(new GridLayout(4, 2));
+        setSize(800, 250);
+        JPanel inputPanel = new JPanel(new GridLayout(5, 2));
 
         JLabel clientIdLabel = new JLabel("Client ID:");
         clientIdTextField = new JTextField();
@@ -55,6 +58,12 @@ public class OrdersPanel extends JFrame {
         JButton createButton = new JButton("Create");
         inputPanel.add(createButton);
 
+        JButton addToCartButton = new JButton("Add to cart");
+        inputPanel.add(addToCartButton);
+
+        JButton checkoutButton = new JButton("Checkout");
+        inputPanel.add(checkoutButton);
+
         backButton = new JButton("Back");
         inputPanel.add(backButton);
 
@@ -64,6 +73,18 @@ public class OrdersPanel extends JFrame {
                 createOrder();
             }
         });
+        addToCartButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                addToCart();
+            }
+        });
+        checkoutButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkout();
+            }
+        });
         backButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -79,17 +100,19 @@ public class OrdersPanel extends JFrame {
         scrollPane.setViewportView(ordersTextArea);
 
         add(scrollPane, BorderLayout.CENTER);
+        add(new BusyIndicator(), BorderLayout.SOUTH);
 
         ordersList = new ArrayList<>();
+        cartLines = new ArrayList<>();
 
         displayOrders();
     }
 
     /**
      * Creates a new order when the create button is clicked.
-     * Retrieves the client ID, product ID, and amount from the input fields.
-     * Checks if the client and product exist and if there is sufficient quantity of the product.
-     * Inserts the order into the database, updates the product quantity, generates a bill, and displays the order.
+     * Retrieves the client ID, product ID, and amount from the input fields and places the order in the background,
+     * which checks the client, reserves the product quantity and inserts the order in one transaction.
+     * Queues the bill of the order and displays the order if it was placed, or shows why it was not.
      * Clears the input fields.
      */
     private void createOrder() {
@@ -97,44 +120,108 @@ public class OrdersPanel extends JFrame {
         int productId = Integer.parseInt(productIdTextField.getText());
         int amount = Integer.parseInt(amountTextField.getText());
 
-        ClientBLL clientBLL = new ClientBLL();
-        ProductBLL productBLL = new ProductBLL();
-
-        if (clientBLL.findClientById(clientId) != null && productBLL.findProductById(productId) != null) {
-            Product product = productBLL.findProductById(productId);
-            if (amount <= product.getAmmount()) {
-                Orders order = new Orders(0, clientId, productId, amount);
-                OrdersBLL ordersBLL = new OrdersBLL();
-                ordersBLL.insertOrder(order);
-                JOptionPane.showMessageDialog(this, "Order created successfully.");
+        Orders order = new Orders(0, clientId, productId, amount);
+        DataAccessExecutor.submitWrite(() -> {
+            OrderResult result = new OrdersBLL().placeOrder(order);
+            if (result.isPlaced()) {
+                BillPipeline.submit(order);
+            }
+            return result;
+        }, result -> {
+            switch (result.status()) {
+                case PLACED:
+                    JOptionPane.showMessageDialog(this, "Order created successfully.");
+                    ordersList.add(order);
+                    displayOrders();
+                    break;
+                case INSUFFICIENT_STOCK:
+                    JOptionPane.showMessageDialog(this, "Insufficient quantity of the product.");
+                    break;
+                case UNKNOWN_CLIENT:
+                case UNKNOWN_PRODUCT:
+                    JOptionPane.showMessageDialog(this, "Invalid client ID or product ID.");
+                    break;
+                default:
+                    JOptionPane.showMessageDialog(this, "The order could not be created.");
+                    break;
+            }
+        });
 
-                product.setAmmount(product.getAmmount() - amount);
-                productBLL.updateProduct(product);
+        clearInputFields();
+    }
 
-                Bill bill = new Bill(order);
-                bill.generateBill();
+    /**
+     * Adds the product ID and amount of the input fields to the cart and displays the cart.
+     * Keeps the client ID, which the cart is checked out for, and clears the other fields.
+     */
+    private void addToCart() {
+        int productId = Integer.parseInt(productIdTextField.getText());
+        int amount = Integer.parseInt(amountTextField.getText());
+        cartLines.add(new OrderLine(0, 0, productId, amount));
+        productIdTextField.setText("");
+        amountTextField.setText("");
+        displayOrders();
+    }
 
-                ordersList.add(order);
-                displayOrders();
-            } else {
-                JOptionPane.showMessageDialog(this, "Insufficient quantity of the product.");
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid client ID or product ID.");
+    /**
+     * Checks out the cart for the client ID of the input field in the background, which checks the client,
+     * reserves the quantities of all the products and inserts the order and its lines in one transaction.
+     * Queues the single bill of the order and empties the cart if it was placed, or shows why it was not.
+     */
+    private void checkout() {
+        if (cartLines.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "The cart is empty.");
+            return;
         }
-
-        clearInputFields();
+        int clientId = Integer.parseInt(clientIdTextField.getText());
+        OrderHeader order = new OrderHeader(0, clientId);
+        List<OrderLine> lines = new ArrayList<>(cartLines);
+        DataAccessExecutor.submitWrite(() -> {
+            CheckoutResult result = new OrdersBLL().checkout(order, lines);
+            if (result.isPlaced()) {
+                BillPipeline.submit(order, lines);
+            }
+            return result;
+        }, result -> {
+            switch (result.status()) {
+                case PLACED:
+                    JOptionPane.showMessageDialog(this, "Order " + order.getId() + " with " + lines.size()
+                            + " products created successfully.");
+                    cartLines.clear();
+                    displayOrders();
+                    break;
+                case INSUFFICIENT_STOCK:
+                    JOptionPane.showMessageDialog(this,
+                            "Insufficient quantity of product " + result.productId() + ".");
+                    break;
+                case UNKNOWN_CLIENT:
+                    JOptionPane.showMessageDialog(this, "Invalid client ID.");
+                    break;
+                case UNKNOWN_PRODUCT:
+                    JOptionPane.showMessageDialog(this, "Invalid product ID " + result.productId() + ".");
+                    break;
+                default:
+                    JOptionPane.showMessageDialog(this, "The order could not be created.");
+                    break;
+            }
+        });
     }
 
     /**
-     * Displays the orders in the ordersTextArea.
-     * Clears the text area and appends each order's information.
+     * Displays the orders and the cart in the ordersTextArea.
+     * Clears the text area and appends each order's information, then each line of the cart.
      */
     private void displayOrders() {
         ordersTextArea.setText("");
         for (Orders order : ordersList) {
             ordersTextArea.append(order.toString() + "\n");
         }
+        if (!cartLines.isEmpty()) {
+            ordersTextArea.append("Cart:\n");
+            for (OrderLine line : cartLines) {
+                ordersTextArea.append("  product " + line.getProductId() + " x " + line.getAmount() + "\n");
+            }
+        }
     }
 
     /**
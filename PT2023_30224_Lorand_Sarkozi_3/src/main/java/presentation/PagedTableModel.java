@@ -0,0 +1,450 @@
+package presentation;
+
+import util.IntHashMap;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * The {@code PagedTableModel} class is a table model that loads its rows from the database one page at a time,
+ * using keyset pagination on the ID of the entities. Only the first page is loaded when the model is created;
+ * the next page is fetched when the table shows the last loaded rows, so the table grows as the user scrolls.
+ * Only the most recently used pages are kept in memory; a page evicted from the cache is fetched again,
+ * starting after the same ID, when it is shown again.
+ * <p>
+ * Rows are kept in ID order. The model remembers, for every page, the ID it starts after, its number of rows
+ * and its first row, so the row of an ID is found with two binary searches. Single-row edits made through
+ * {@link #rowInserted(Object)}, {@link #rowUpdated(Object)} and {@link #rowDeleted(int)} change only the
+ * affected page and fire an event for that row alone, instead of reloading the table. The entities in memory
+ * are also indexed by ID in an {@link IntHashMap}, so {@link #findById(int)} finds a shown entity in constant time.
+ * <p>
+ * Pages are fetched on the {@link DataAccessExecutor}, never on the event dispatch thread: the cells of a row
+ * whose page is being fetched are empty until it arrives. The model must only be used on the event dispatch thread.
+ * <p>
+ * The columns are the fields of the entity class, ordered and named as set by their
+ * {@link model.DisplayColumn} annotations.
+ *
+ * @param <T> the type of the entities shown in the table
+ *
+ * @Author Sarkozi Lorand
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * The default number of rows fetched per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * The default number of pages kept in memory.
+     */
+    public static final int DEFAULT_CACHED_PAGES = 8;
+
+    /**
+     * The {@code PageSource} interface fetches a page of entities in ID order, such as
+     * {@link dataAccessLayer.AbstractDAO#findPage(int, int)}.
+     *
+     * @param <T> the type of the entities
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        /**
+         * Fetches the entities following the given ID, in ID order.
+         *
+         * @param afterId the ID after which the page starts
+         * @param limit   the maximum number of entities
+         * @return the entities of the page
+         */
+        List<T> findPage(int afterId, int limit);
+    }
+
+    private final PageSource<T> source;
+    private final ToIntFunction<T> idOf;
+    private final int pageSize;
+    private final TableColumns columns;
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private final IntHashMap<T> byId = new IntHashMap<>();
+    private int[] pageAfterIds = new int[16];
+    private int[] pageSizes = new int[16];
+    private int[] pageFirstRows = new int[16];
+    private int pageCount;
+    private int rowCount;
+    private int lastLoadedId = Integer.MIN_VALUE;
+    private boolean exhausted = true;
+    private boolean growing;
+    private int generation;
+
+    /**
+     * Constructs a new paged table model with the default page size and page cache, and starts loading
+     * the first page.
+     *
+     * @param type   the class of the entities
+     * @param source the source of the pages
+     * @param idOf   returns the ID of an entity
+     */
+    public PagedTableModel(Class<T> type, PageSource<T> source, ToIntFunction<T> idOf) {
+        this(type, source, idOf, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Constructs a new paged table model and starts loading the first page.
+     *
+     * @param type        the class of the entities
+     * @param source      the source of the pages
+     * @param idOf        returns the ID of an entity
+     * @param pageSize    the number of rows fetched per page
+     * @param cachedPages the number of pages kept in memory
+     */
+    public PagedTableModel(Class<T> type, PageSource<T> source, ToIntFunction<T> idOf, int pageSize, int cachedPages) {
+        if (pageSize < 1 || cachedPages < 1) {
+            throw new IllegalArgumentException("The page size and the number of cached pages must be positive");
+        }
+        this.source = source;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                if (size() <= cachedPages) {
+                    return false;
+                }
+                unindex(eldest.getValue());
+                return true;
+            }
+        };
+        this.columns = TableColumns.of(type);
+        reload();
+    }
+
+    /**
+     * Loads the first page again and discards the other pages once it arrived, e.g. after many entities
+     * were modified. The rows loaded so far stay visible in the meantime.
+     */
+    public void reload() {
+        int reloadGeneration = ++generation;
+        loadingPages.clear();
+        growing = false;
+        DataAccessExecutor.submit(() -> source.findPage(Integer.MIN_VALUE, pageSize), first -> {
+            if (reloadGeneration != generation) {
+                return;
+            }
+            pages.clear();
+            byId.clear();
+            pageCount = 0;
+            rowCount = 0;
+            lastLoadedId = Integer.MIN_VALUE;
+            appendPage(Integer.MIN_VALUE, first);
+            exhausted = first.size() < pageSize;
+            fireTableDataChanged();
+        });
+    }
+
+    /**
+     * Shows a new entity in its row, by ID order, and fires an insert event for that row only.
+     * Entities after the last loaded row are ignored, as they are fetched with the next page.
+     *
+     * @param entity the inserted entity
+     */
+    public void rowInserted(T entity) {
+        int id = idOf.applyAsInt(entity);
+        if (pageCount == 0 || (!exhausted && id > lastLoadedId)) {
+            return;
+        }
+        int index = pageOfId(id);
+        List<T> page = pages.get(index);
+        int offset;
+        if (page != null) {
+            offset = indexOfId(page, id);
+            if (offset >= 0) {
+                page.set(offset, entity);
+                byId.put(id, entity);
+                fireTableRowsUpdated(pageFirstRows[index] + offset, pageFirstRows[index] + offset);
+                return;
+            }
+            offset = -offset - 1;
+            page.add(offset, entity);
+            byId.put(id, entity);
+        } else {
+            offset = pageSizes[index];
+        }
+        pageSizes[index]++;
+        shiftFirstRows(index, 1);
+        lastLoadedId = Math.max(lastLoadedId, id);
+        int row = pageFirstRows[index] + offset;
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Replaces the shown entity with the same ID and fires an update event for its row only.
+     * Entities whose page is not in memory are ignored, as the page is fetched again when shown.
+     *
+     * @param entity the updated entity
+     */
+    public void rowUpdated(T entity) {
+        int id = idOf.applyAsInt(entity);
+        if (!byId.containsKey(id)) {
+            return;
+        }
+        int index = pageOfId(id);
+        List<T> page = pages.get(index);
+        int offset = indexOfId(page, id);
+        if (offset >= 0) {
+            page.set(offset, entity);
+            byId.put(id, entity);
+            fireTableRowsUpdated(pageFirstRows[index] + offset, pageFirstRows[index] + offset);
+        }
+    }
+
+    /**
+     * Removes the entity with the given ID and fires a delete event for its row only.
+     *
+     * @param id the ID of the deleted entity
+     */
+    public void rowDeleted(int id) {
+        if (pageCount == 0 || (!exhausted && id > lastLoadedId)) {
+            return;
+        }
+        int index = pageOfId(id);
+        if (pageSizes[index] == 0) {
+            return;
+        }
+        List<T> page = pages.get(index);
+        int offset;
+        if (page != null) {
+            offset = indexOfId(page, id);
+            if (offset < 0) {
+                return;
+            }
+            page.remove(offset);
+            byId.remove(id);
+        } else {
+            offset = pageSizes[index] - 1;
+        }
+        pageSizes[index]--;
+        shiftFirstRows(index, -1);
+        int row = pageFirstRows[index] + offset;
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Returns the shown entity with the given ID, if its page is in memory.
+     *
+     * @param id the ID of the entity
+     * @return the entity, or {@code null} if it is not shown or its page is not in memory
+     */
+    public T findById(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the entity shown in the given row. If its page is not in memory, the page is fetched
+     * in the background and {@code null} is returned until it arrives.
+     *
+     * @param row the index of the row
+     * @return the entity of the row, or {@code null} if its page is being fetched
+     * or the row no longer exists in the database
+     */
+    public T getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int index = pageOfRow(row);
+        List<T> page = pages.get(index);
+        if (page == null) {
+            requestPage(index);
+            return null;
+        }
+        if (index == pageCount - 1 && !exhausted) {
+            requestNextPage(index, page);
+        }
+        int offset = row - pageFirstRows[index];
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Returns the page containing the given row: the last page starting at or before it.
+     */
+    private int pageOfRow(int row) {
+        int low = 0;
+        int high = pageCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (pageFirstRows[middle] <= row) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the page the given ID belongs to: the last page starting after a smaller ID.
+     */
+    private int pageOfId(int id) {
+        int low = 0;
+        int high = pageCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (pageAfterIds[middle] < id) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Searches a page, sorted by ID, for the given ID.
+     *
+     * @return the index of the entity, or {@code -(insertion point) - 1} if it is not in the page
+     */
+    private int indexOfId(List<T> page, int id) {
+        int low = 0;
+        int high = page.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = idOf.applyAsInt(page.get(middle));
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void indexPage(List<T> page) {
+        for (T entity : page) {
+            byId.put(idOf.applyAsInt(entity), entity);
+        }
+    }
+
+    private void unindex(List<T> page) {
+        for (T entity : page) {
+            byId.remove(idOf.applyAsInt(entity));
+        }
+    }
+
+    private void shiftFirstRows(int afterPage, int delta) {
+        for (int i = afterPage + 1; i < pageCount; i++) {
+            pageFirstRows[i] += delta;
+        }
+        rowCount += delta;
+    }
+
+    private void appendPage(int afterId, List<T> page) {
+        if (pageCount == pageAfterIds.length) {
+            pageAfterIds = Arrays.copyOf(pageAfterIds, pageCount * 2);
+            pageSizes = Arrays.copyOf(pageSizes, pageCount * 2);
+            pageFirstRows = Arrays.copyOf(pageFirstRows, pageCount * 2);
+        }
+        pageAfterIds[pageCount] = afterId;
+        pageSizes[pageCount] = page.size();
+        pageFirstRows[pageCount] = rowCount;
+        pages.put(pageCount, new ArrayList<>(page));
+        indexPage(page);
+        pageCount++;
+        rowCount += page.size();
+        if (!page.isEmpty()) {
+            lastLoadedId = Math.max(lastLoadedId, idOf.applyAsInt(page.get(page.size() - 1)));
+        }
+    }
+
+    /**
+     * Fetches a page that was evicted from the cache, and repaints its rows when it arrives.
+     */
+    private void requestPage(int index) {
+        if (!loadingPages.add(index)) {
+            return;
+        }
+        int requestGeneration = generation;
+        int afterId = pageAfterIds[index];
+        int size = pageSizes[index];
+        DataAccessExecutor.submit(() -> source.findPage(afterId, size), page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loadingPages.remove(index);
+            if (pageSizes[index] != size) {
+                // rows were inserted or deleted meanwhile; the page is fetched again when shown
+                return;
+            }
+            pages.put(index, new ArrayList<>(page));
+            indexPage(page);
+            if (size > 0) {
+                fireTableRowsUpdated(pageFirstRows[index], pageFirstRows[index] + size - 1);
+            }
+        }, error -> {
+            if (requestGeneration == generation) {
+                loadingPages.remove(index);
+            }
+        });
+    }
+
+    /**
+     * Fetches the page following the last loaded one, and appends its rows when it arrives.
+     */
+    private void requestNextPage(int index, List<T> last) {
+        if (growing) {
+            return;
+        }
+        growing = true;
+        int requestGeneration = generation;
+        int afterId = last.isEmpty() ? pageAfterIds[index] : idOf.applyAsInt(last.get(last.size() - 1));
+        DataAccessExecutor.submit(() -> source.findPage(afterId, pageSize), next -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            growing = false;
+            exhausted = next.size() < pageSize;
+            if (next.isEmpty()) {
+                return;
+            }
+            int firstRow = rowCount;
+            appendPage(afterId, next);
+            fireTableRowsInserted(firstRow, rowCount - 1);
+        }, error -> {
+            if (requestGeneration == generation) {
+                growing = false;
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.count();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.name(column);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columns.type(column);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = getRow(row);
+        return entity == null ? null : columns.value(entity, column);
+    }
+}
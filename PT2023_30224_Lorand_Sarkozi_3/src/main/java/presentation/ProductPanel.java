@@ -1,19 +1,14 @@
 package presentation;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
 
-import businessLayer.ClientBLL;
-import dataAccessLayer.ClientDAO;
-import model.Client;
 import model.Product;
 import dataAccessLayer.ProductDAO;
 import businessLayer.ProductBLL;
+import businessLayer.search.SearchHit;
 
 /**
  * The {@code ProductPanel} class represents the GUI panel for managing products.
@@ -23,7 +18,7 @@ import businessLayer.ProductBLL;
  */
 public class ProductPanel extends JFrame {
     private JTable productTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Product> tableModel;
     private JTextField nameTextField;
     private JTextField amountTextField;
     private JTextField idTextField;
@@ -31,35 +26,39 @@ public class ProductPanel extends JFrame {
     private JButton deleteButton;
     private JButton updateButton;
     private JButton backButton;
-    private List<Product> productList;
+    private final ProductDAO productDAO = new ProductDAO();
 
     /**
      * Constructs a new instance of the {@code ProductPanel} class.
      * Initializes the GUI components, sets up the table, input fields, and buttons.
-     * Retrieves the product data from the database and updates the table model.
+     * The products are loaded from the database one page at a time, as the table is scrolled,
+     * and the database is only accessed in the background, through the {@link DataAccessExecutor}.
      */
     public ProductPanel() {
         setLayout(new BorderLayout());
-        setSize(800, 300);
-        productList = new ArrayList<>();
-        productList.addAll(new ProductDAO().findAll());
+        setSize(1000, 300);
         initTable();
         initInputFields();
         initButtons();
-
-        updateTableModel();
     }
 
     /**
      * Initializes the table component and sets up the table model.
-     * Uses reflection to retrieve the properties of the product objects and create the table model.
-     * Adds the table to a scroll pane and sets it as the center component of the panel.
+     * The table model pages through the products by ID, so only the rows being shown are loaded.
+     * Adds the table to a scroll pane and sets it as the center component of the panel, with the busy
+     * indicator and the search box on its right.
      */
     private void initTable() {
-        tableModel = RefelectionExample.retrieveProperties(productList);
+        tableModel = new PagedTableModel<>(Product.class, productDAO::findPage, Product::getId);
         productTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(productTable);
         add(scrollPane, BorderLayout.CENTER);
+
+        JPanel sidePanel = new JPanel(new BorderLayout());
+        sidePanel.add(new BusyIndicator(), BorderLayout.NORTH);
+        sidePanel.add(new SearchBox(query -> ProductBLL.searchProducts(query, SearchBox.MAX_HITS), this::showHit),
+                BorderLayout.CENTER);
+        add(sidePanel, BorderLayout.EAST);
     }
 
     /**
@@ -138,7 +137,7 @@ public class ProductPanel extends JFrame {
     /**
      * Adds a new product based on the input field values.
      * Creates a new {@code Product} object and inserts it into the database.
-     * If the insertion is successful, updates the table model and clears the input fields.
+     * If the insertion is successful, shows the product in its row of the table and clears the input fields.
      */
     private void addProduct() {
         String name = nameTextField.getText();
@@ -147,40 +146,47 @@ public class ProductPanel extends JFrame {
         Product product = new Product(name, amount);
         ProductBLL productBLL = new ProductBLL();
 
-        int insertedId = productBLL.insertProduct(product);
-        if (insertedId != -1) {
-            product.setId(insertedId);
-            productList.add(product);
-            updateTableModel();
-            clearInputFields();
-        }
+        DataAccessExecutor.submitWrite(() -> productBLL.insertProduct(product), insertedId -> {
+            if (insertedId != -1) {
+                product.setId(insertedId);
+                tableModel.rowInserted(product);
+                clearInputFields();
+            }
+        });
     }
 
     /**
      * Deletes a product based on the input field value (ID).
-     * Retrieves the product from the list by ID and deletes it from the database.
-     * If the deletion is successful, updates the table model and clears the input fields.
+     * Retrieves the product by ID, from the ID index of the table if it is shown, and deletes it from the database.
+     * If the deletion is successful, removes its row from the table and clears the input fields.
      */
     private void deleteProduct() {
         String deleteIdText = idTextField.getText().trim();
         if (!deleteIdText.isEmpty()) {
             int deleteId = Integer.parseInt(deleteIdText);
-            Product productToDelete = getProductById(deleteId);
-            if (productToDelete != null) {
-                ProductBLL.deleteProduct(productToDelete);
-                productList.remove(productToDelete);
-                updateTableModel();
-                clearInputFields();
-            } else {
-                JOptionPane.showMessageDialog(this, "Product with ID " + deleteId + " not found.");
-            }
+            Product shown = tableModel.findById(deleteId);
+            DataAccessExecutor.submitWrite(() -> {
+                Product productToDelete = shown != null ? shown : getProductById(deleteId);
+                if (productToDelete != null && !ProductBLL.deleteProduct(productToDelete)) {
+                    throw new IllegalStateException("Product with ID " + deleteId + " could not be deleted.");
+                }
+                return productToDelete;
+            }, deleted -> {
+                if (deleted != null) {
+                    tableModel.rowDeleted(deleteId);
+                    clearInputFields();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Product with ID " + deleteId + " not found.");
+                }
+            });
         }
     }
 
     /**
      * Updates a product based on the input field values (ID, name, amount).
-     * Retrieves the product from the list by ID and updates its name and amount in the database.
-     * If the update is successful, updates the table model and clears the input fields.
+     * Retrieves the product by ID, from the ID index of the table if it is shown, and updates its name and amount
+     * in the database.
+     * If the update is successful, repaints its row of the table and clears the input fields.
      */
     private void updateProduct() {
         String idText = idTextField.getText().trim();
@@ -190,16 +196,26 @@ public class ProductPanel extends JFrame {
             int amount = Integer.parseInt(amountTextField.getText().trim());
 
             if (!name.isEmpty()) {
-                Product productToUpdate = getProductById(id);
-                if (productToUpdate != null) {
-                    productToUpdate.setName(name);
-                    productToUpdate.setAmmount(amount);
-                    ProductBLL.updateProduct(productToUpdate);
-                    updateTableModel();
-                    clearInputFields();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Product with ID " + id + " not found.");
-                }
+                Product shown = tableModel.findById(id);
+                DataAccessExecutor.submitWrite(() -> {
+                    Product productToUpdate = shown != null
+                            ? new Product(id, shown.getName(), shown.getAmmount()) : getProductById(id);
+                    if (productToUpdate != null) {
+                        productToUpdate.setName(name);
+                        productToUpdate.setAmmount(amount);
+                        if (!ProductBLL.updateProduct(productToUpdate)) {
+                            throw new IllegalStateException("Product with ID " + id + " could not be updated.");
+                        }
+                    }
+                    return productToUpdate;
+                }, updated -> {
+                    if (updated != null) {
+                        tableModel.rowUpdated(updated);
+                        clearInputFields();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Product with ID " + id + " not found.");
+                    }
+                });
             } else {
                 JOptionPane.showMessageDialog(this, "Please enter a valid name.");
             }
@@ -208,19 +224,6 @@ public class ProductPanel extends JFrame {
         }
     }
 
-    /**
-     * Updates the table model with the current product list.
-     * Clears the previous data and adds each product's ID, name, and amount as a row to the table model.
-     */
-    private void updateTableModel() {
-        tableModel.setRowCount(0); // Clear previous data
-
-        for (Product product : productList) {
-            Object[] rowData = {product.getId(), product.getName(), product.getAmmount()};
-            tableModel.addRow(rowData);
-        }
-    }
-
     /**
      * Clears the input fields for name, amount, and ID.
      */
@@ -231,18 +234,35 @@ public class ProductPanel extends JFrame {
     }
 
     /**
-     * Retrieves a product from the list by its ID.
+     * Fills the input fields with the product selected in the search box. Its amount is taken from the table
+     * if the product is shown, or else read in the background.
+     *
+     * @param hit the selected product
+     */
+    private void showHit(SearchHit hit) {
+        idTextField.setText(String.valueOf(hit.id()));
+        nameTextField.setText(hit.name());
+        Product shown = tableModel.findById(hit.id());
+        if (shown != null) {
+            amountTextField.setText(String.valueOf(shown.getAmmount()));
+            return;
+        }
+        amountTextField.setText("");
+        DataAccessExecutor.submit(() -> getProductById(hit.id()), product -> {
+            if (product != null && idTextField.getText().trim().equals(String.valueOf(hit.id()))) {
+                amountTextField.setText(String.valueOf(product.getAmmount()));
+            }
+        });
+    }
+
+    /**
+     * Retrieves a product from the database by its ID. Called on the {@link DataAccessExecutor}.
      *
      * @param id the ID of the product to retrieve
      * @return the {@code Product} object with the specified ID, or {@code null} if not found
      */
     private Product getProductById(int id) {
-        for (Product product : productList) {
-            if (product.getId() == id) {
-                return product;
-            }
-        }
-        return null;
+        return productDAO.findById(id);
     }
 
     /**
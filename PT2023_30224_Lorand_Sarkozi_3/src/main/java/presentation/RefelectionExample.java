@@ -1,14 +1,15 @@
 package presentation;
 
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableModel;
-import java.lang.reflect.Field;
 import java.util.List;
 
 public class RefelectionExample {
 
     /**
      * Retrieves the properties of objects in a list and constructs a DefaultTableModel.
+     * The columns are looked up once per class and cached; an empty list gives an empty model.
+     * The values of every cell are copied into the model: prefer {@link TableModelFactory},
+     * which reads them lazily.
      *
      * @param objects the list of objects
      * @return a DefaultTableModel representing the properties of the objects
@@ -16,37 +17,28 @@ public class RefelectionExample {
      * @Author Sarkozi Lorand
      */
     public static DefaultTableModel retrieveProperties(List<?> objects) {
-        DefaultTableModel tableModel = new DefaultTableModel();
-        tableModel.setRowCount(0);
+        if (objects.isEmpty()) {
+            return new DefaultTableModel();
+        }
+        TableColumns columns = TableColumns.of(objects.get(0).getClass());
 
         // Prepare header
-        String[] header = new String[objects.get(0).getClass().getDeclaredFields().length];
-        int i = 0;
-        for (Field field : objects.get(0).getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            header[i] = field.getName();
-            i++;
+        String[] header = new String[columns.count()];
+        for (int j = 0; j < header.length; j++) {
+            header[j] = columns.name(j);
         }
 
         // Prepare data
         Object[][] data = new Object[objects.size()][header.length];
-        i = 0;
+        int i = 0;
         for (Object object : objects) {
-            int j = 0;
-            for (Field field : object.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                try {
-                    data[i][j] = field.get(object);
-                    j++;
-                } catch (IllegalArgumentException | IllegalAccessException e) {
-                    e.printStackTrace();
-                }
+            for (int j = 0; j < header.length; j++) {
+                data[i][j] = columns.value(object, j);
             }
             i++;
         }
 
         // Create and return the DefaultTableModel
-        tableModel = new DefaultTableModel(data, header);
-        return tableModel;
+        return new DefaultTableModel(data, header);
     }
 }
@@ -0,0 +1,100 @@
+package presentation;
+
+import reporting.ClientSales;
+import reporting.ProductSales;
+import reporting.SalesAggregator;
+import reporting.SalesReport;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * The {@code ReportPanel} class represents the GUI panel showing the sales report: the totals of all the orders
+ * and the products and clients with the most units. Only the ranked rows reach the tables; the totals are computed
+ * by a {@link SalesAggregator} in the background, through the {@link DataAccessExecutor}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class ReportPanel extends JFrame {
+
+    private static final int TOP = 20;
+
+    private final JComboBox<SalesAggregator.Mode> modeComboBox = new JComboBox<>(SalesAggregator.Mode.values());
+    private final JLabel summaryLabel = new JLabel("Press Refresh to compute the report.");
+    private final JTable productTable = new JTable(TableModelFactory.create(ProductSales.class, List.of()));
+    private final JTable clientTable = new JTable(TableModelFactory.create(ClientSales.class, List.of()));
+    private final JButton refreshButton = new JButton("Refresh");
+
+    /**
+     * The rows of a computed report.
+     */
+    private record Loaded(SalesReport report, List<ProductSales> products, List<ClientSales> clients) {
+    }
+
+    /**
+     * Constructs a new instance of the {@code ReportPanel} class.
+     * Initializes the GUI components and sets up the event listeners.
+     */
+    public ReportPanel() {
+        setLayout(new BorderLayout());
+        setSize(1000, 450);
+
+        modeComboBox.setSelectedItem(SalesAggregator.DEFAULT_MODE);
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlPanel.add(new JLabel("Mode:"));
+        controlPanel.add(modeComboBox);
+        controlPanel.add(refreshButton);
+        controlPanel.add(summaryLabel);
+        controlPanel.add(new BusyIndicator());
+        add(controlPanel, BorderLayout.NORTH);
+
+        JPanel tablesPanel = new JPanel(new GridLayout(1, 2));
+        JScrollPane productScrollPane = new JScrollPane(productTable);
+        productScrollPane.setBorder(BorderFactory.createTitledBorder("Top " + TOP + " products"));
+        JScrollPane clientScrollPane = new JScrollPane(clientTable);
+        clientScrollPane.setBorder(BorderFactory.createTitledBorder("Top " + TOP + " clients"));
+        tablesPanel.add(productScrollPane);
+        tablesPanel.add(clientScrollPane);
+        add(tablesPanel, BorderLayout.CENTER);
+
+        JButton backButton = new JButton("Back");
+        add(backButton, BorderLayout.SOUTH);
+
+        refreshButton.addActionListener(e -> refresh());
+        backButton.addActionListener(e -> goBack());
+    }
+
+    /**
+     * Computes the report in the background with the selected mode, then shows it.
+     */
+    private void refresh() {
+        SalesAggregator.Mode mode = (SalesAggregator.Mode) modeComboBox.getSelectedItem();
+        refreshButton.setEnabled(false);
+        summaryLabel.setText("Computing...");
+        DataAccessExecutor.submit(() -> {
+            SalesAggregator aggregator = new SalesAggregator(mode, SalesAggregator.DEFAULT_CHUNK_SIZE,
+                    SalesAggregator.DEFAULT_PARALLELISM);
+            SalesReport report = aggregator.aggregate();
+            return new Loaded(report, aggregator.topProducts(report, TOP), aggregator.topClients(report, TOP));
+        }, loaded -> {
+            refreshButton.setEnabled(true);
+            summaryLabel.setText(loaded.report().toString());
+            productTable.setModel(TableModelFactory.create(ProductSales.class, loaded.products()));
+            clientTable.setModel(TableModelFactory.create(ClientSales.class, loaded.clients()));
+        }, error -> {
+            refreshButton.setEnabled(true);
+            summaryLabel.setText("The report could not be computed.");
+            JOptionPane.showMessageDialog(this, "Report failed: " + error.getMessage());
+        });
+    }
+
+    /**
+     * Closes the current panel and goes back to the main panel.
+     */
+    private void goBack() {
+        MainPanel mainPanel = new MainPanel();
+        mainPanel.setVisible(true);
+        dispose();
+    }
+}
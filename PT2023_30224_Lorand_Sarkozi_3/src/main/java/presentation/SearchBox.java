@@ -0,0 +1,112 @@
+package presentation;
+
+import businessLayer.search.SearchHit;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The {@code SearchBox} class is a search field with a list of the entities whose names match it, updated
+ * as the user types. The search runs once typing pauses for {@link #DEBOUNCE_MILLIS} milliseconds, in the
+ * background through the {@link DataAccessExecutor}; a search still running when the text changes again is
+ * cancelled, and results for an outdated text are dropped. Selecting a hit passes it to the panel.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SearchBox extends JPanel {
+
+    /**
+     * The pause in typing after which the search runs.
+     */
+    public static final int DEBOUNCE_MILLIS = 250;
+
+    /**
+     * The largest number of hits a search should return.
+     */
+    public static final int MAX_HITS = 20;
+
+    private final JTextField queryTextField = new JTextField(15);
+    private final DefaultListModel<SearchHit> hitsModel = new DefaultListModel<>();
+    private final JList<SearchHit> hitsList = new JList<>(hitsModel);
+    private final Function<String, List<SearchHit>> search;
+    private final Timer debounceTimer;
+    private DataAccessExecutor.Task running;
+
+    /**
+     * Constructs a new instance of the {@code SearchBox} class.
+     *
+     * @param search   returns the hits for a query, up to {@link #MAX_HITS}; called in the background
+     * @param onSelect receives the hit selected by the user, on the event dispatch thread
+     */
+    public SearchBox(Function<String, List<SearchHit>> search, Consumer<SearchHit> onSelect) {
+        this.search = search;
+        setLayout(new BorderLayout());
+
+        JPanel queryPanel = new JPanel(new FlowLayout());
+        queryPanel.add(new JLabel("Search:"));
+        queryPanel.add(queryTextField);
+        add(queryPanel, BorderLayout.NORTH);
+
+        hitsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        hitsList.setVisibleRowCount(6);
+        add(new JScrollPane(hitsList), BorderLayout.CENTER);
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> runSearch());
+        debounceTimer.setRepeats(false);
+
+        queryTextField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+
+        hitsList.addListSelectionListener(e -> {
+            SearchHit hit = hitsList.getSelectedValue();
+            if (!e.getValueIsAdjusting() && hit != null) {
+                onSelect.accept(hit);
+            }
+        });
+    }
+
+    /**
+     * Searches for the current text, cancelling the previous search if it is still running.
+     */
+    private void runSearch() {
+        if (running != null) {
+            running.cancel();
+        }
+        String query = queryTextField.getText().trim();
+        if (query.isEmpty()) {
+            running = null;
+            hitsModel.clear();
+            return;
+        }
+        running = DataAccessExecutor.submit(() -> search.apply(query), hits -> {
+            if (query.equals(queryTextField.getText().trim())) {
+                hitsModel.clear();
+                hitsModel.addAll(hits);
+            }
+        }, error -> {
+            if (!(error instanceof CancellationException)) {
+                JOptionPane.showMessageDialog(this, "Search failed: " + error.getMessage());
+            }
+        });
+    }
+}
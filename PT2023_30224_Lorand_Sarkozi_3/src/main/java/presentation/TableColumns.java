@@ -0,0 +1,121 @@
+package presentation;
+
+import model.DisplayColumn;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@code TableColumns} class describes the columns of a table showing entities of a class: their headers,
+ * their types and a method handle reading each of them. The columns are the instance fields of the class,
+ * ordered and named as set by their {@link DisplayColumn} annotations. They are computed once per class
+ * and cached, so building a table model or reading a cell never goes through reflection.
+ *
+ * @Author Sarkozi Lorand
+ */
+final class TableColumns {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<TableColumns> CACHE = new ClassValue<>() {
+        @Override
+        protected TableColumns computeValue(Class<?> type) {
+            return new TableColumns(type);
+        }
+    };
+
+    private final String[] names;
+    private final Class<?>[] types;
+    private final MethodHandle[] getters;
+
+    private TableColumns(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            DisplayColumn column = field.getAnnotation(DisplayColumn.class);
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()
+                    && (column == null || !column.hidden())) {
+                fields.add(field);
+            }
+        }
+        // a stable sort keeps the declaration order of columns with the same order
+        fields.sort(Comparator.comparingInt(TableColumns::orderOf));
+        names = new String[fields.size()];
+        types = new Class<?>[fields.size()];
+        getters = new MethodHandle[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            DisplayColumn column = field.getAnnotation(DisplayColumn.class);
+            names[i] = column == null || column.name().isEmpty() ? field.getName() : column.name();
+            types[i] = boxed(field.getType());
+            try {
+                getters[i] = MethodHandles.privateLookupIn(type, LOOKUP).unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read the field " + type.getName() + "." + field.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the columns of the given class, computing them on the first call.
+     *
+     * @param type the class of the entities
+     * @return the columns of the class
+     */
+    static TableColumns of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    private static int orderOf(Field field) {
+        DisplayColumn column = field.getAnnotation(DisplayColumn.class);
+        return column == null ? Integer.MAX_VALUE : column.order();
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        }
+        return type;
+    }
+
+    int count() {
+        return names.length;
+    }
+
+    String name(int column) {
+        return names[column];
+    }
+
+    Class<?> type(int column) {
+        return types[column];
+    }
+
+    /**
+     * Reads a column of an entity.
+     *
+     * @param entity the entity, an instance of the class of the columns
+     * @param column the index of the column
+     * @return the value of the field, boxed if it is primitive
+     */
+    Object value(Object entity, int column) {
+        try {
+            return (Object) getters[column].invokeExact(entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
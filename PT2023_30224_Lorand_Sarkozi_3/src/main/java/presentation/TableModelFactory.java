@@ -0,0 +1,30 @@
+package presentation;
+
+import java.util.List;
+
+/**
+ * The {@code TableModelFactory} class creates table models showing lists of entities. The columns of an
+ * entity class are looked up once and cached, and the rows are read lazily from the list, so creating
+ * a model takes constant time whatever the size of the list.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class TableModelFactory {
+
+    private TableModelFactory() {
+    }
+
+    /**
+     * Creates a table model showing the given entities. The columns are the fields of the class,
+     * ordered and named as set by their {@link model.DisplayColumn} annotations, even if the list is empty.
+     * The list is not copied, so it must not be modified while the model is shown.
+     *
+     * @param type     the class of the entities
+     * @param entities the entities, one per row
+     * @param <T>      the type of the entities
+     * @return the table model
+     */
+    public static <T> EntityTableModel<T> create(Class<T> type, List<T> entities) {
+        return new EntityTableModel<>(TableColumns.of(type), entities);
+    }
+}
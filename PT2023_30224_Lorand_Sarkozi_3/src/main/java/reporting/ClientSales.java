@@ -0,0 +1,19 @@
+package reporting;
+
+import model.DisplayColumn;
+
+/**
+ * The {@code ClientSales} record is a row of the client ranking of a {@link SalesReport}.
+ *
+ * @param clientId the ID of the client
+ * @param name     the name of the client, or {@code null} if it was deleted
+ * @param units    the units ordered
+ * @param orders   the number of orders
+ *
+ * @Author Sarkozi Lorand
+ */
+public record ClientSales(@DisplayColumn(name = "id", order = 0) int clientId,
+                          @DisplayColumn(order = 1) String name,
+                          @DisplayColumn(order = 2) long units,
+                          @DisplayColumn(order = 3) int orders) {
+}
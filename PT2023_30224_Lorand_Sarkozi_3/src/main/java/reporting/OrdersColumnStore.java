@@ -0,0 +1,413 @@
+package reporting;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import connection.DatabaseConfig;
+import dataAccessLayer.OrdersDAO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+
+/**
+ * The {@code OrdersColumnStore} class keeps a snapshot of the {@code Orders} table in memory for analytics, one
+ * packed {@code int[]} per column: the ID, the client, the product and the amount of the order at the same index
+ * of each array. A row costs 16 bytes, against about 36 for an {@link model.Orders} object and its reference in a
+ * list, and the scans are counted loops over primitive arrays, which the JIT compiles without any object access
+ * and can unroll and vectorize.
+ * <p>
+ * The orders are loaded in ID order through the streaming query of {@link OrdersDAO#forEachAfterId}, without
+ * creating an object per row. {@link #refresh()} loads only the orders with an ID above the last loaded one.
+ * Orders whose IDs were reserved before the last refresh but committed after it, e.g. by another instance of the
+ * application, are only seen by {@link #reload()}; so are updated and deleted orders.
+ * <p>
+ * The store is safe to read while it is refreshed: every query works on the snapshot published by the last
+ * completed refresh, and a refresh only appends past the end of that snapshot, or copies the columns to larger
+ * arrays, before publishing the next one.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class OrdersColumnStore {
+
+    /**
+     * The columns orders can be filtered and grouped by.
+     */
+    public enum Column {
+        /**
+         * The ID of the client of the order.
+         */
+        CLIENT,
+        /**
+         * The ID of the product of the order.
+         */
+        PRODUCT
+    }
+
+    /**
+     * The default smallest number of rows totalled by one task of a group-by, read from the
+     * {@code columnStore.chunkSize} setting of {@link DatabaseConfig}.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = DatabaseConfig.getInt("columnStore.chunkSize", 1 << 16);
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final Snapshot EMPTY = new Snapshot(new int[0], new int[0], new int[0], new int[0], 0, 0);
+    private static final OperationMetrics refreshMetrics = MetricsRegistry.operation("OrdersColumnStore.refresh");
+    private static final OperationMetrics groupByMetrics = MetricsRegistry.operation("OrdersColumnStore.groupBy");
+
+    private final OrdersDAO ordersDAO = new OrdersDAO();
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * The loaded rows: the first {@code size} elements of the columns, the last of them with the ID
+     * {@code lastId}. The arrays may be longer, and their elements past {@code size} may change.
+     */
+    private record Snapshot(int[] ids, int[] clientIds, int[] productIds, int[] amounts, int size, int lastId) {
+
+        int[] keys(Column column) {
+            return column == Column.CLIENT ? clientIds : productIds;
+        }
+    }
+
+    /**
+     * Constructs an empty store, whose group-bys run on the common fork-join pool.
+     */
+    public OrdersColumnStore() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param pool      the pool running the group-bys
+     * @param chunkSize the smallest number of rows totalled by one task of a group-by
+     */
+    public OrdersColumnStore(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the orders with an ID above the last loaded one.
+     *
+     * @return the number of orders loaded, or -1 if they could not be read; the store is then unchanged
+     */
+    public synchronized int refresh() {
+        return load(snapshot);
+    }
+
+    /**
+     * Loads all the orders again, replacing the loaded ones once they are read.
+     *
+     * @return the number of orders loaded, or -1 if they could not be read; the store is then unchanged
+     */
+    public synchronized int reload() {
+        return load(EMPTY);
+    }
+
+    private int load(Snapshot base) {
+        long start = refreshMetrics.start();
+        try {
+            Appender appender = new Appender(base);
+            int read = ordersDAO.forEachAfterId(base.lastId(), appender);
+            if (read < 0) {
+                refreshMetrics.error();
+                return -1;
+            }
+            snapshot = appender.snapshot();
+            refreshMetrics.rows(read);
+            return read;
+        } finally {
+            refreshMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Appends the rows read by a refresh to the columns of a snapshot, growing them by half when they are full.
+     */
+    private static final class Appender implements OrdersDAO.OrderRowConsumer {
+
+        private int[] ids;
+        private int[] clientIds;
+        private int[] productIds;
+        private int[] amounts;
+        private int size;
+        private int lastId;
+
+        Appender(Snapshot base) {
+            ids = base.ids();
+            clientIds = base.clientIds();
+            productIds = base.productIds();
+            amounts = base.amounts();
+            size = base.size();
+            lastId = base.lastId();
+        }
+
+        @Override
+        public void accept(int id, int clientId, int productId, int amount) {
+            if (size == ids.length) {
+                int capacity = Math.max(MIN_CAPACITY, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                clientIds = Arrays.copyOf(clientIds, capacity);
+                productIds = Arrays.copyOf(productIds, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            ids[size] = id;
+            clientIds[size] = clientId;
+            productIds[size] = productId;
+            amounts[size] = amount;
+            size++;
+            lastId = id;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(ids, clientIds, productIds, amounts, size, lastId);
+        }
+    }
+
+    /**
+     * Returns the number of loaded orders.
+     *
+     * @return the number of orders
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Returns the highest loaded order ID, the one after which {@link #refresh()} loads.
+     *
+     * @return the ID, 0 if no order is loaded
+     */
+    public int getLastLoadedId() {
+        return snapshot.lastId();
+    }
+
+    /**
+     * Returns the heap taken by the columns, including their unused capacity.
+     *
+     * @return the size of the columns in bytes
+     */
+    public long getMemoryBytes() {
+        return 4L * Integer.BYTES * snapshot.ids().length;
+    }
+
+    /**
+     * Returns the units of all the loaded orders.
+     *
+     * @return the total units
+     */
+    public long sumAmount() {
+        Snapshot s = snapshot;
+        int[] amounts = s.amounts();
+        long sum = 0;
+        for (int i = 0; i < s.size(); i++) {
+            sum += amounts[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Counts the orders of a client or of a product.
+     *
+     * @param column the column to filter on
+     * @param key    the ID of the client or of the product
+     * @return the number of orders
+     */
+    public int count(Column column, int key) {
+        Snapshot s = snapshot;
+        return count(s, s.keys(column), key);
+    }
+
+    /**
+     * Returns the units of the orders of a client or of a product.
+     *
+     * @param column the column to filter on
+     * @param key    the ID of the client or of the product
+     * @return the total units
+     */
+    public long sumAmount(Column column, int key) {
+        Snapshot s = snapshot;
+        int[] keys = s.keys(column);
+        int[] amounts = s.amounts();
+        long sum = 0;
+        for (int i = 0; i < s.size(); i++) {
+            sum += keys[i] == key ? amounts[i] : 0;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the IDs of the orders of a client or of a product, in ID order.
+     *
+     * @param column the column to filter on
+     * @param key    the ID of the client or of the product
+     * @return the order IDs
+     */
+    public int[] findIds(Column column, int key) {
+        Snapshot s = snapshot;
+        int[] keys = s.keys(column);
+        int[] ids = s.ids();
+        int[] found = new int[count(s, keys, key)];
+        int n = 0;
+        for (int i = 0; i < s.size() && n < found.length; i++) {
+            if (keys[i] == key) {
+                found[n++] = ids[i];
+            }
+        }
+        return found;
+    }
+
+    private static int count(Snapshot s, int[] keys, int key) {
+        int count = 0;
+        for (int i = 0; i < s.size(); i++) {
+            count += keys[i] == key ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Totals the units and the orders of every client or every product, in parallel: the rows are split into
+     * chunks of at least {@code chunkSize} rows, a few per thread of the pool, each totalled by a task, and the
+     * totals merged as the tasks join. When the IDs of the column are not negative and smaller than the number of
+     * rows of a chunk, as with the generated IDs of a table, the chunks are totalled into arrays indexed by the ID,
+     * which are added element by element, instead of hash tables; the arrays of a chunk then take less memory than
+     * its rows.
+     *
+     * @param column the column to group by
+     * @return the totals per client or per product
+     */
+    public SalesTotals groupBy(Column column) {
+        long start = groupByMetrics.start();
+        try {
+            Snapshot s = snapshot;
+            int[] keys = s.keys(column);
+            int size = s.size();
+            SalesTotals totals = new SalesTotals();
+            if (size > 0) {
+                int chunk = Math.max(chunkSize, size / (pool.getParallelism() * 4) + 1);
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                for (int i = 0; i < size; i++) {
+                    min = Math.min(min, keys[i]);
+                    max = Math.max(max, keys[i]);
+                }
+                if (min >= 0 && max < chunk) {
+                    DenseTotals dense = pool.invoke(new DenseGroupTask(keys, s.amounts(), 0, size, chunk, max + 1));
+                    for (int key = 0; key <= max; key++) {
+                        if (dense.orders[key] > 0) {
+                            totals.add(key, dense.units[key], dense.orders[key]);
+                        }
+                    }
+                } else {
+                    totals = pool.invoke(new GroupTask(keys, s.amounts(), 0, size, chunk));
+                }
+            }
+            groupByMetrics.rows(size);
+            return totals;
+        } catch (RuntimeException e) {
+            groupByMetrics.error();
+            throw e;
+        } finally {
+            groupByMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Totals the rows from {@code from}, inclusive, to {@code to}, exclusive, into hash tables: splits them in
+     * halves down to {@code chunk} rows, then adds them up.
+     */
+    private static final class GroupTask extends RecursiveTask<SalesTotals> {
+
+        private final int[] keys;
+        private final int[] amounts;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        GroupTask(int[] keys, int[] amounts, int from, int to, int chunk) {
+            this.keys = keys;
+            this.amounts = amounts;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected SalesTotals compute() {
+            if (to - from <= chunk) {
+                SalesTotals totals = new SalesTotals();
+                for (int i = from; i < to; i++) {
+                    totals.add(keys[i], amounts[i]);
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask left = new GroupTask(keys, amounts, from, middle, chunk);
+            GroupTask right = new GroupTask(keys, amounts, middle, to, chunk);
+            left.fork();
+            SalesTotals rightTotals = right.compute();
+            return SalesTotals.combine(left.join(), rightTotals);
+        }
+    }
+
+    /**
+     * The totals of a chunk of rows, indexed by the ID of the client or of the product.
+     */
+    private record DenseTotals(long[] units, int[] orders) {
+
+        DenseTotals add(DenseTotals other) {
+            for (int key = 0; key < units.length; key++) {
+                units[key] += other.units[key];
+                orders[key] += other.orders[key];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Totals the rows from {@code from}, inclusive, to {@code to}, exclusive, into arrays of {@code keys} slots:
+     * splits them in halves down to {@code chunk} rows, then adds them up.
+     */
+    private static final class DenseGroupTask extends RecursiveTask<DenseTotals> {
+
+        private final int[] keys;
+        private final int[] amounts;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final int slots;
+
+        DenseGroupTask(int[] keys, int[] amounts, int from, int to, int chunk, int slots) {
+            this.keys = keys;
+            this.amounts = amounts;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.slots = slots;
+        }
+
+        @Override
+        protected DenseTotals compute() {
+            if (to - from <= chunk) {
+                long[] units = new long[slots];
+                int[] orders = new int[slots];
+                for (int i = from; i < to; i++) {
+                    units[keys[i]] += amounts[i];
+                    orders[keys[i]]++;
+                }
+                return new DenseTotals(units, orders);
+            }
+            int middle = (from + to) >>> 1;
+            DenseGroupTask left = new DenseGroupTask(keys, amounts, from, middle, chunk, slots);
+            DenseGroupTask right = new DenseGroupTask(keys, amounts, middle, to, chunk, slots);
+            left.fork();
+            DenseTotals rightTotals = right.compute();
+            return left.join().add(rightTotals);
+        }
+    }
+}
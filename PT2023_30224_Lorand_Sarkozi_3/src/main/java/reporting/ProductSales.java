@@ -0,0 +1,23 @@
+package reporting;
+
+import model.DisplayColumn;
+
+/**
+ * The {@code ProductSales} record is a row of the product ranking of a {@link SalesReport}.
+ *
+ * @param productId the ID of the product
+ * @param name      the name of the product, or {@code null} if it was deleted
+ * @param units     the units ordered
+ * @param orders    the number of orders
+ * @param stock     the current stock of the product
+ * @param turnover  the units ordered per unit of current stock; infinite when the product is out of stock
+ *
+ * @Author Sarkozi Lorand
+ */
+public record ProductSales(@DisplayColumn(name = "id", order = 0) int productId,
+                           @DisplayColumn(order = 1) String name,
+                           @DisplayColumn(order = 2) long units,
+                           @DisplayColumn(order = 3) int orders,
+                           @DisplayColumn(order = 4) int stock,
+                           @DisplayColumn(order = 5) double turnover) {
+}
@@ -0,0 +1,357 @@
+package reporting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import connection.DatabaseConfig;
+import connection.PoolConfig;
+import dataAccessLayer.ClientDAO;
+import dataAccessLayer.ClientSalesDAO;
+import dataAccessLayer.OrderHeaderDAO;
+import dataAccessLayer.OrderLineDAO;
+import dataAccessLayer.OrdersDAO;
+import dataAccessLayer.ProductDAO;
+import dataAccessLayer.ProductSalesDAO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.Client;
+import model.Product;
+import util.IntHashMap;
+
+/**
+ * The {@code SalesAggregator} class totals the units and the orders of every product and every client, without
+ * loading the orders into memory. The checked out orders are counted too: each of their lines as an order of its
+ * product, and each {@code OrderHeader} as one order of its client. It works in one of these ways:
+ * <ul>
+ *     <li>{@link Mode#SQL} pushes the aggregation down to the database, with one {@code GROUP BY} query per total,
+ *     which reads the covering indexes of the {@code Orders} table and the checked out orders, and sends back one
+ *     row per product or client;</li>
+ *     <li>{@link Mode#PARALLEL} splits the ID ranges of the orders, the order lines and the order headers into
+ *     chunks of {@code chunkSize} IDs on a fork-join pool. Each chunk is streamed by its own query, straight into
+ *     primitive {@link SalesTotals}, the lines and headers already totalled per product and per client, and the
+ *     totals of the chunks are merged as the tasks join. The heap holds one fetch of rows per running query and a
+ *     few sets of totals per thread, whatever the number of orders;</li>
+ *     <li>{@link Mode#COUNTERS} reads the sales counters kept with the orders, one row per product or client,
+ *     without reading any order. They miss the orders loaded without them until
+ *     {@link SalesCounterRebuild} recomputes them.</li>
+ * </ul>
+ * {@link Mode#AUTO}, the default, pushes the aggregation down and computes it in parallel only if the database
+ * fails to. The mode, the chunk size and the parallelism are set with the {@code reporting.mode},
+ * {@code reporting.chunkSize} and {@code reporting.parallelism} settings of {@link DatabaseConfig}.
+ * <p>
+ * The orders and checkouts inserted while a parallel run is in progress are counted only if their IDs fall in the
+ * ranges read at its start.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesAggregator {
+
+    /**
+     * How the totals are computed.
+     */
+    public enum Mode {
+        /**
+         * In the database, falling back to {@link #PARALLEL} if the database fails.
+         */
+        AUTO,
+        /**
+         * In the database, with {@code GROUP BY}.
+         */
+        SQL,
+        /**
+         * In the application, from the streamed orders, on a fork-join pool.
+         */
+        PARALLEL,
+        /**
+         * From the sales counters updated with each order.
+         */
+        COUNTERS
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(SalesAggregator.class.getName());
+
+    /**
+     * The default mode, the {@code reporting.mode} setting; {@link Mode#AUTO} if it names no mode.
+     */
+    public static final Mode DEFAULT_MODE = parseMode(DatabaseConfig.get("reporting.mode", "auto"));
+
+    /**
+     * The default number of order IDs per chunk, the {@code reporting.chunkSize} setting.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = DatabaseConfig.getInt("reporting.chunkSize", 100_000);
+
+    /**
+     * The default number of chunks read at once, the {@code reporting.parallelism} setting.
+     * Defaults to the number of processors, at most the size of the connection pool, since each chunk holds a
+     * connection while it is read.
+     */
+    public static final int DEFAULT_PARALLELISM = DatabaseConfig.getInt("reporting.parallelism",
+            Math.min(Runtime.getRuntime().availableProcessors(), new PoolConfig().getMaxSize()));
+
+    private static final OperationMetrics aggregateMetrics = MetricsRegistry.operation("SalesAggregator.aggregate");
+
+    private final OrdersDAO ordersDAO = new OrdersDAO();
+    private final OrderLineDAO orderLineDAO = new OrderLineDAO();
+    private final OrderHeaderDAO orderHeaderDAO = new OrderHeaderDAO();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final ClientDAO clientDAO = new ClientDAO();
+    private final ProductSalesDAO productSalesDAO = new ProductSalesDAO();
+    private final ClientSalesDAO clientSalesDAO = new ClientSalesDAO();
+    private final Mode mode;
+    private final int chunkSize;
+    private final int parallelism;
+
+    /**
+     * Constructs an aggregator with the default settings.
+     */
+    public SalesAggregator() {
+        this(DEFAULT_MODE, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Constructs an aggregator.
+     *
+     * @param mode        how the totals are computed
+     * @param chunkSize   the number of order IDs read by one task in parallel mode
+     * @param parallelism the number of tasks run at once in parallel mode
+     */
+    public SalesAggregator(Mode mode, int chunkSize, int parallelism) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid reporting settings: chunkSize=" + chunkSize
+                    + ", parallelism=" + parallelism);
+        }
+        this.mode = mode;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    private static Mode parseMode(String value) {
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "SalesAggregator: reporting.mode is not a mode: " + value);
+            return Mode.AUTO;
+        }
+    }
+
+    /**
+     * Totals the orders per product and per client.
+     *
+     * @return the report
+     * @throws IllegalStateException if the orders could not be read
+     */
+    public SalesReport aggregate() {
+        long start = aggregateMetrics.start();
+        long began = System.nanoTime();
+        try {
+            SalesReport report = null;
+            if (mode == Mode.COUNTERS) {
+                report = readCounters(began);
+            } else if (mode != Mode.PARALLEL) {
+                report = aggregateInDatabase(began);
+                if (report == null && mode == Mode.SQL) {
+                    throw new IllegalStateException("The database could not total the orders");
+                }
+            }
+            if (report == null) {
+                report = aggregateInParallel(began);
+            }
+            aggregateMetrics.rows((int) Math.min(Integer.MAX_VALUE, report.getOrders()));
+            return report;
+        } catch (RuntimeException e) {
+            aggregateMetrics.error();
+            throw e;
+        } finally {
+            aggregateMetrics.finished(start);
+        }
+    }
+
+    /**
+     * Totals the orders with {@code GROUP BY} queries.
+     *
+     * @return the report, or {@code null} if a query failed
+     */
+    private SalesReport aggregateInDatabase(long began) {
+        SalesTotals products = new SalesTotals();
+        SalesTotals clients = new SalesTotals();
+        if (ordersDAO.forEachTotalByProduct(products::add) < 0 || ordersDAO.forEachTotalByClient(clients::add) < 0) {
+            LOGGER.log(Level.INFO, "SalesAggregator: the database could not total the orders");
+            return null;
+        }
+        return new SalesReport(products, clients, Mode.SQL, elapsedMillis(began));
+    }
+
+    /**
+     * Reads the totals from the sales counters.
+     *
+     * @throws IllegalStateException if the counters could not be read
+     */
+    private SalesReport readCounters(long began) {
+        SalesTotals products = new SalesTotals();
+        SalesTotals clients = new SalesTotals();
+        if (productSalesDAO.forEach(products::add) < 0 || clientSalesDAO.forEach(clients::add) < 0) {
+            throw new IllegalStateException("The sales counters could not be read");
+        }
+        return new SalesReport(products, clients, Mode.COUNTERS, elapsedMillis(began));
+    }
+
+    private SalesReport aggregateInParallel(long began) {
+        int[] orderRange = ordersDAO.findIdRange();
+        int[] lineRange = orderLineDAO.findIdRange();
+        int[] headerRange = orderHeaderDAO.findIdRange();
+        if (orderRange == null || lineRange == null || headerRange == null) {
+            throw new IllegalStateException("The orders could not be read");
+        }
+        Partial total = new Partial();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            if (orderRange[1] != 0) {
+                total.merge(pool.invoke(new ChunkTask((fromId, toId, partial) ->
+                        ordersDAO.forEachInIdRange(fromId, toId, (clientId, productId, amount) -> {
+                            partial.products.add(productId, amount);
+                            partial.clients.add(clientId, amount);
+                        }), "orders", orderRange[0], orderRange[1])));
+            }
+            if (lineRange[1] != 0) {
+                total.merge(pool.invoke(new ChunkTask((fromId, toId, partial) ->
+                        orderLineDAO.forEachTotalInIdRange(fromId, toId, partial.products::add),
+                        "order lines", lineRange[0], lineRange[1])));
+            }
+            if (headerRange[1] != 0) {
+                total.merge(pool.invoke(new ChunkTask((fromId, toId, partial) ->
+                        orderHeaderDAO.forEachTotalInIdRange(fromId, toId, partial.clients::add),
+                        "order headers", headerRange[0], headerRange[1])));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new SalesReport(total.products, total.clients, Mode.PARALLEL, elapsedMillis(began));
+    }
+
+    private static long elapsedMillis(long began) {
+        return (System.nanoTime() - began) / 1_000_000;
+    }
+
+    /**
+     * Returns the products with the most units of a report, most first, with their names and current stock.
+     *
+     * @param report the report
+     * @param n      the number of products
+     * @return at most {@code n} rows
+     */
+    public List<ProductSales> topProducts(SalesReport report, int n) {
+        SalesTotals totals = report.getProductTotals();
+        int[] ids = totals.top(n);
+        IntHashMap<Product> products = new IntHashMap<>(ids.length);
+        for (Product product : productDAO.findByIds(ids)) {
+            products.put(product.getId(), product);
+        }
+        List<ProductSales> rows = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Product product = products.get(id);
+            long units = totals.getUnits(id);
+            int stock = product == null ? 0 : product.getAmmount();
+            double turnover = stock > 0 ? (double) units / stock : Double.POSITIVE_INFINITY;
+            rows.add(new ProductSales(id, product == null ? null : product.getName(), units, totals.getOrders(id),
+                    stock, turnover));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the clients with the most units of a report, most first, with their names.
+     *
+     * @param report the report
+     * @param n      the number of clients
+     * @return at most {@code n} rows
+     */
+    public List<ClientSales> topClients(SalesReport report, int n) {
+        SalesTotals totals = report.getClientTotals();
+        int[] ids = totals.top(n);
+        IntHashMap<Client> clients = new IntHashMap<>(ids.length);
+        for (Client client : clientDAO.findByIds(ids)) {
+            clients.put(client.getId(), client);
+        }
+        List<ClientSales> rows = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Client client = clients.get(id);
+            rows.add(new ClientSales(id, client == null ? null : client.getName(), totals.getUnits(id),
+                    totals.getOrders(id)));
+        }
+        return rows;
+    }
+
+    /**
+     * The totals of a range of orders.
+     */
+    private static final class Partial {
+
+        private SalesTotals products = new SalesTotals();
+        private SalesTotals clients = new SalesTotals();
+
+        /**
+         * Adds the totals of another range, merging the smaller totals into the larger ones.
+         */
+        Partial merge(Partial other) {
+            products = SalesTotals.combine(products, other.products);
+            clients = SalesTotals.combine(clients, other.clients);
+            return this;
+        }
+    }
+
+    /**
+     * Reads the rows of a range of IDs of one table into the totals of a chunk.
+     */
+    @FunctionalInterface
+    private interface RangeReader {
+        /**
+         * Reads the rows with IDs from {@code fromId} to {@code toId}.
+         *
+         * @return the number of rows or totals read, or -1 if they could not be read
+         */
+        int read(int fromId, int toId, Partial partial);
+    }
+
+    /**
+     * Totals the rows with IDs from {@code fromId} to {@code toId}: splits the range in halves down to
+     * {@code chunkSize} IDs, then streams the chunk.
+     */
+    private final class ChunkTask extends RecursiveTask<Partial> {
+
+        private final RangeReader reader;
+        private final String rows;
+        private final int fromId;
+        private final int toId;
+
+        ChunkTask(RangeReader reader, String rows, int fromId, int toId) {
+            this.reader = reader;
+            this.rows = rows;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Partial compute() {
+            if ((long) toId - fromId < chunkSize) {
+                Partial partial = new Partial();
+                int read = reader.read(fromId, toId, partial);
+                if (read < 0) {
+                    throw new IllegalStateException("The " + rows + " " + fromId + " to " + toId
+                            + " could not be read");
+                }
+                return partial;
+            }
+            int middle = (int) (((long) fromId + toId) / 2);
+            ChunkTask left = new ChunkTask(reader, rows, fromId, middle);
+            ChunkTask right = new ChunkTask(reader, rows, middle + 1, toId);
+            left.fork();
+            Partial rightTotals = right.compute();
+            return left.join().merge(rightTotals);
+        }
+    }
+}
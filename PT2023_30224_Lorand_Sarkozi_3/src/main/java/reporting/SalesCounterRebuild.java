@@ -0,0 +1,136 @@
+package reporting;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import connection.ConnectionFactory;
+import dataAccessLayer.ClientSalesDAO;
+import dataAccessLayer.ProductSalesDAO;
+import dataAccessLayer.SalesCounterDAO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+
+/**
+ * The {@code SalesCounterRebuild} class recomputes the sales counters from the orders and the checked out orders,
+ * to fill them after orders were loaded without them, e.g. by {@link dataAccessLayer.DataGenerator} or a database
+ * import, and to check that they still agree with the orders. The totals are computed by a {@link SalesAggregator}
+ * in {@link SalesAggregator.Mode#PARALLEL} mode, a chunk of order, order line or order header IDs per task, then
+ * compared with the current counters; a rebuild replaces both counter tables in one transaction.
+ * <p>
+ * The orders committed while the totals are computed may be counted twice or not at all, so a rebuild should run
+ * while no orders are being inserted; a check only reports them as differences.
+ * <p>
+ * Run it with {@code java reporting.SalesCounterRebuild [--check]}; the database and the chunks are set with the
+ * settings read by {@link connection.DatabaseConfig} and {@link SalesAggregator}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesCounterRebuild {
+
+    private static final Logger LOGGER = Logger.getLogger(SalesCounterRebuild.class.getName());
+    private static final OperationMetrics rebuildMetrics = MetricsRegistry.operation("SalesCounterRebuild.rebuild");
+
+    private final ProductSalesDAO productSalesDAO = new ProductSalesDAO();
+    private final ClientSalesDAO clientSalesDAO = new ClientSalesDAO();
+    private final SalesAggregator aggregator;
+
+    /**
+     * Constructs a rebuild job with the default chunk size and parallelism of {@link SalesAggregator}.
+     */
+    public SalesCounterRebuild() {
+        this(SalesAggregator.DEFAULT_CHUNK_SIZE, SalesAggregator.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Constructs a rebuild job.
+     *
+     * @param chunkSize   the number of order IDs read by one task
+     * @param parallelism the number of tasks run at once
+     */
+    public SalesCounterRebuild(int chunkSize, int parallelism) {
+        this.aggregator = new SalesAggregator(SalesAggregator.Mode.PARALLEL, chunkSize, parallelism);
+    }
+
+    /**
+     * Compares the counters with the totals of the orders, without changing them.
+     *
+     * @return the number of products and clients whose counters are wrong or missing
+     * @throws IllegalStateException if the orders or the counters could not be read
+     */
+    public int check() {
+        SalesReport report = aggregator.aggregate();
+        return differences(report);
+    }
+
+    /**
+     * Recomputes the counters from the orders and replaces them, in one transaction.
+     *
+     * @return the number of products and clients whose counters were wrong or missing
+     * @throws IllegalStateException if the orders or the counters could not be read or the counters could not be
+     *                               replaced
+     */
+    public int rebuild() {
+        long start = rebuildMetrics.start();
+        try {
+            SalesReport report = aggregator.aggregate();
+            int differences = differences(report);
+            ConnectionFactory.inTransaction(connection -> {
+                replace(connection, productSalesDAO, report.getProductTotals());
+                replace(connection, clientSalesDAO, report.getClientTotals());
+                return null;
+            });
+            rebuildMetrics.rows(report.getProductTotals().size() + report.getClientTotals().size());
+            LOGGER.log(Level.INFO, "SalesCounterRebuild: " + differences + " counters corrected, " + report);
+            return differences;
+        } catch (SQLException e) {
+            rebuildMetrics.error();
+            throw new IllegalStateException("The sales counters could not be replaced: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            rebuildMetrics.error();
+            throw e;
+        } finally {
+            rebuildMetrics.finished(start);
+        }
+    }
+
+    private int differences(SalesReport report) {
+        SalesTotals products = new SalesTotals();
+        SalesTotals clients = new SalesTotals();
+        if (productSalesDAO.forEach(products::add) < 0 || clientSalesDAO.forEach(clients::add) < 0) {
+            throw new IllegalStateException("The sales counters could not be read");
+        }
+        return report.getProductTotals().differences(products) + report.getClientTotals().differences(clients);
+    }
+
+    private static void replace(Connection connection, SalesCounterDAO dao, SalesTotals totals)
+            throws SQLException {
+        int[] keys = new int[totals.size()];
+        long[] units = new long[keys.length];
+        int[] orders = new int[keys.length];
+        int[] count = new int[1];
+        totals.forEach((key, keyUnits, keyOrders) -> {
+            keys[count[0]] = key;
+            units[count[0]] = keyUnits;
+            orders[count[0]] = keyOrders;
+            count[0]++;
+        });
+        dao.replaceAll(connection, keys, units, orders);
+    }
+
+    /**
+     * Rebuilds the counters, or only checks them.
+     *
+     * @param args {@code --check} to only count the wrong counters
+     */
+    public static void main(String[] args) {
+        boolean checkOnly = args.length > 0 && args[0].equals("--check");
+        SalesCounterRebuild job = new SalesCounterRebuild();
+        if (checkOnly) {
+            System.out.println(job.check() + " sales counters differ from the orders");
+        } else {
+            System.out.println(job.rebuild() + " sales counters corrected");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package reporting;
+
+/**
+ * The {@code SalesReport} class holds the result of a {@link SalesAggregator} run: the units and orders of every
+ * product and every client, how they were computed and how long it took.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesReport {
+
+    private final SalesTotals productTotals;
+    private final SalesTotals clientTotals;
+    private final SalesAggregator.Mode source;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a report.
+     *
+     * @param productTotals the totals per product
+     * @param clientTotals  the totals per client
+     * @param source        {@link SalesAggregator.Mode#SQL} if the database computed the totals,
+     *                      {@link SalesAggregator.Mode#PARALLEL} if they were computed from the orders,
+     *                      {@link SalesAggregator.Mode#COUNTERS} if they were read from the sales counters
+     * @param elapsedMillis the time taken to compute the totals
+     */
+    public SalesReport(SalesTotals productTotals, SalesTotals clientTotals, SalesAggregator.Mode source,
+                       long elapsedMillis) {
+        this.productTotals = productTotals;
+        this.clientTotals = clientTotals;
+        this.source = source;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns the totals per product.
+     *
+     * @return the product totals
+     */
+    public SalesTotals getProductTotals() {
+        return productTotals;
+    }
+
+    /**
+     * Returns the totals per client.
+     *
+     * @return the client totals
+     */
+    public SalesTotals getClientTotals() {
+        return clientTotals;
+    }
+
+    /**
+     * Returns how the totals were computed.
+     *
+     * @return {@link SalesAggregator.Mode#SQL}, {@link SalesAggregator.Mode#PARALLEL} or
+     * {@link SalesAggregator.Mode#COUNTERS}
+     */
+    public SalesAggregator.Mode getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the time taken to compute the totals.
+     *
+     * @return the time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the number of orders.
+     *
+     * @return the number of orders
+     */
+    public long getOrders() {
+        return productTotals.getTotalOrders();
+    }
+
+    /**
+     * Returns the units of all the orders.
+     *
+     * @return the total units
+     */
+    public long getUnits() {
+        return productTotals.getTotalUnits();
+    }
+
+    @Override
+    public String toString() {
+        return "Sales report (" + source + ", " + elapsedMillis + " ms): " + getOrders() + " orders, " + getUnits()
+                + " units, " + productTotals.size() + " products, " + clientTotals.size() + " clients";
+    }
+}
@@ -0,0 +1,47 @@
+package reporting;
+
+import java.util.List;
+
+/**
+ * The {@code SalesReportMain} class prints a sales report without the GUI, e.g. from a scheduled job:
+ * the totals of all the orders, then the products and the clients with the most units.
+ * <p>
+ * Run it with {@code java reporting.SalesReportMain [top]}; the database and the way the totals are computed are
+ * set with the settings read by {@link connection.DatabaseConfig} and {@link SalesAggregator}.
+ *
+ * @Author Sarkozi Lorand
+ */
+public final class SalesReportMain {
+
+    private SalesReportMain() {
+    }
+
+    /**
+     * Computes and prints the report.
+     *
+     * @param args optionally the number of products and clients listed, 10 by default
+     */
+    public static void main(String[] args) {
+        int top = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        SalesAggregator aggregator = new SalesAggregator();
+        SalesReport report = aggregator.aggregate();
+        System.out.println(report);
+
+        List<ProductSales> products = aggregator.topProducts(report, top);
+        System.out.println();
+        System.out.println("Top " + products.size() + " products");
+        System.out.printf("%10s  %-30s %12s %10s %10s %10s%n", "id", "name", "units", "orders", "stock", "turnover");
+        for (ProductSales row : products) {
+            System.out.printf("%10d  %-30s %12d %10d %10d %10.2f%n", row.productId(), row.name(), row.units(),
+                    row.orders(), row.stock(), row.turnover());
+        }
+
+        List<ClientSales> clients = aggregator.topClients(report, top);
+        System.out.println();
+        System.out.println("Top " + clients.size() + " clients");
+        System.out.printf("%10s  %-30s %12s %10s%n", "id", "name", "units", "orders");
+        for (ClientSales row : clients) {
+            System.out.printf("%10d  %-30s %12d %10d%n", row.clientId(), row.name(), row.units(), row.orders());
+        }
+    }
+}
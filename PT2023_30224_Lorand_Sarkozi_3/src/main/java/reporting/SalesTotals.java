@@ -0,0 +1,321 @@
+package reporting;
+
+import dataAccessLayer.OrdersDAO;
+
+/**
+ * The {@code SalesTotals} class accumulates the units and the number of orders of each product or each client,
+ * keyed by its ID. Like {@link util.IntHashMap}, it uses open addressing over primitive arrays, so adding an order
+ * allocates nothing; the units are summed in a {@code long}, so they cannot overflow.
+ * <p>
+ * Partial totals built by different threads are combined with {@link #merge(SalesTotals)}. The class is not
+ * thread-safe: each thread fills its own totals.
+ *
+ * @Author Sarkozi Lorand
+ */
+public class SalesTotals {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private long[] units;
+    private int[] orders;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private long totalUnits;
+    private long totalOrders;
+
+    /**
+     * Constructs empty totals.
+     */
+    public SalesTotals() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        units = new long[capacity];
+        orders = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slot(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Adds one order.
+     *
+     * @param key    the ID of the product or of the client
+     * @param amount the units of the order
+     */
+    public void add(int key, int amount) {
+        add(key, amount, 1);
+    }
+
+    /**
+     * Adds the totals of several orders of a key. Matches {@link OrdersDAO.TotalConsumer}, so the totals computed
+     * by the database can be added directly.
+     *
+     * @param key         the ID of the product or of the client
+     * @param addedUnits  the units of the orders
+     * @param addedOrders the number of orders
+     */
+    public void add(int key, long addedUnits, int addedOrders) {
+        int slot = slot(key);
+        if (!used[slot]) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        units[slot] += addedUnits;
+        orders[slot] += addedOrders;
+        totalUnits += addedUnits;
+        totalOrders += addedOrders;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldUnits = units;
+        int[] oldOrders = orders;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                units[slot] = oldUnits[i];
+                orders[slot] = oldOrders[i];
+            }
+        }
+    }
+
+    /**
+     * Adds the totals of another instance to these.
+     *
+     * @param other the totals to add; they are not changed
+     */
+    public void merge(SalesTotals other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.used[i]) {
+                add(other.keys[i], other.units[i], other.orders[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds two partial totals, merging the smaller into the larger, and returns the sum; both may be changed.
+     *
+     * @param a some totals
+     * @param b other totals
+     * @return {@code a} or {@code b}, holding the totals of both
+     */
+    static SalesTotals combine(SalesTotals a, SalesTotals b) {
+        if (a.size < b.size) {
+            b.merge(a);
+            return b;
+        }
+        a.merge(b);
+        return a;
+    }
+
+    /**
+     * Returns the units ordered for a key.
+     *
+     * @param key the ID of the product or of the client
+     * @return the units, {@code 0} if the key has no orders
+     */
+    public long getUnits(int key) {
+        int slot = slot(key);
+        return used[slot] ? units[slot] : 0;
+    }
+
+    /**
+     * Returns the number of orders of a key.
+     *
+     * @param key the ID of the product or of the client
+     * @return the number of orders, {@code 0} if the key has none
+     */
+    public int getOrders(int key) {
+        int slot = slot(key);
+        return used[slot] ? orders[slot] : 0;
+    }
+
+    /**
+     * Returns the number of keys with orders.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the units of all the keys.
+     *
+     * @return the total units
+     */
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    /**
+     * Returns the number of orders of all the keys.
+     *
+     * @return the total number of orders
+     */
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    /**
+     * Passes the totals of every key to the action, in no particular order.
+     *
+     * @param action receives each key with its units and its number of orders
+     */
+    public void forEach(OrdersDAO.TotalConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i], units[i], orders[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys with the most units, most first; keys with the same units are ordered by ID.
+     * Only a heap of {@code n} slots is kept while the totals are scanned.
+     *
+     * @param n the number of keys
+     * @return at most {@code n} keys
+     */
+    public int[] top(int n) {
+        int count = Math.min(n, size);
+        if (count <= 0) {
+            return new int[0];
+        }
+        // a min-heap of slots, whose root is the weakest of the best slots found so far
+        int[] heap = new int[count];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (!used[slot]) {
+                continue;
+            }
+            if (heapSize < count) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (ranksAbove(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+        int[] top = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            top[i] = keys[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        return top;
+    }
+
+    private boolean ranksAbove(int slot, int other) {
+        if (units[slot] != units[other]) {
+            return units[slot] > units[other];
+        }
+        return keys[slot] < keys[other];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksAbove(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= heapSize) {
+                return;
+            }
+            if (child + 1 < heapSize && ranksAbove(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksAbove(heap[index], heap[child])) {
+                return;
+            }
+            swap(heap, index, child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    @Override
+    public String toString() {
+        return "SalesTotals{keys=" + size + ", units=" + totalUnits + ", orders=" + totalOrders + "}";
+    }
+
+    /**
+     * Returns whether two instances hold the same totals for the same keys.
+     *
+     * @param other the totals to compare with
+     * @return {@code true} if the totals are equal
+     */
+    public boolean sameAs(SalesTotals other) {
+        if (size != other.size || totalUnits != other.totalUnits || totalOrders != other.totalOrders) {
+            return false;
+        }
+        return differences(other) == 0;
+    }
+
+    /**
+     * Returns the number of keys whose totals differ between two instances, counting the keys present in only one
+     * of them.
+     *
+     * @param other the totals to compare with
+     * @return the number of differing keys, {@code 0} if the totals are equal
+     */
+    public int differences(SalesTotals other) {
+        int differences = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && (!other.contains(keys[i]) || other.getUnits(keys[i]) != units[i]
+                    || other.getOrders(keys[i]) != orders[i])) {
+                differences++;
+            }
+        }
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.used[i] && !contains(other.keys[i])) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    private boolean contains(int key) {
+        return used[slot(key)];
+    }
+}
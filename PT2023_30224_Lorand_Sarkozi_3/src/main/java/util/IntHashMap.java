@@ -0,0 +1,253 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntHashMap} class is a hash map from {@code int} keys to objects, used to index entities by ID.
+ * Unlike a {@code HashMap<Integer, V>}, the keys are stored in a primitive array, so looking up, adding
+ * or removing an ID does not box it into an {@code Integer} and does not allocate an entry object.
+ * <p>
+ * The map uses open addressing with linear probing and a load factor of one half; removals shift the following
+ * entries back, so no tombstones are left behind. All operations take constant time on average.
+ * The map is not thread-safe.
+ *
+ * @param <V> the type of the values
+ *
+ * @Author Sarkozi Lorand
+ */
+public class IntHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    /**
+     * Constructs a new, empty map.
+     */
+    public IntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs a new, empty map able to hold the given number of entries without growing.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("The expected size must not be negative");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Spreads the bits of the key, so consecutive IDs do not fill consecutive slots.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value mapped to the key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Returns whether the key is mapped.
+     *
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Maps the key to the value, replacing the previous value.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, or {@code null} if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        // shift back the entries of the probe sequence, so lookups never stop at the freed slot
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[free] = false;
+        values[free] = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the map is empty.
+     *
+     * @return {@code true} if no key is mapped
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order.
+     *
+     * @return a new array holding the keys
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                result[count++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes every entry to the action, in no particular order.
+     *
+     * @param action receives the key and the value of each entry
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjConsumer<? super V> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                action.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * The {@code IntObjConsumer} interface receives an entry of an {@link IntHashMap}.
+     *
+     * @param <V> the type of the value
+     */
+    @FunctionalInterface
+    public interface IntObjConsumer<V> {
+        /**
+         * Receives an entry.
+         *
+         * @param key   the key
+         * @param value the value
+         */
+        void accept(int key, V value);
+    }
+}
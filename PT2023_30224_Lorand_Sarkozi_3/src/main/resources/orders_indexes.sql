@@ -0,0 +1,5 @@
+-- Adds the indexes of the Orders lookups to a database created before them; schema.sql creates them with the
+-- table. Run it once, e.g. with -Ddb.schema=orders_indexes.sql; an index that already exists makes it fail.
+CREATE INDEX orders_client_id ON Orders (client_id, id, product_id, ammount);
+CREATE INDEX orders_product_id ON Orders (product_id, id, client_id, ammount);
+CREATE INDEX orders_client_product ON Orders (client_id, product_id, id, ammount);
@@ -0,0 +1,13 @@
+-- Adds the sales counter tables to a database created before them; schema.sql creates them with the other tables.
+-- Run it once, e.g. with -Ddb.schema=sales_counters.sql, then fill the counters with reporting.SalesCounterRebuild.
+CREATE TABLE IF NOT EXISTS ProductSales (
+    product_id  INT PRIMARY KEY,
+    units       BIGINT NOT NULL,
+    order_count INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ClientSales (
+    client_id   INT PRIMARY KEY,
+    units       BIGINT NOT NULL,
+    order_count INT NOT NULL
+);
@@ -0,0 +1,58 @@
+-- Tables of the orders_management database, run by ConnectionFactory with the h2 profile.
+-- The statements are also valid MySQL, so the script can create an empty MySQL database as well.
+CREATE TABLE IF NOT EXISTS Client (
+    id   INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(45)
+);
+
+CREATE TABLE IF NOT EXISTS Product (
+    id      INT AUTO_INCREMENT PRIMARY KEY,
+    name    VARCHAR(45),
+    ammount INT
+);
+
+-- The lookups of OrdersDAO filter on the leading columns of an index and page through its ID; the remaining
+-- columns make each index covering, so a page is read from the index alone. orders_indexes.sql adds them to an
+-- existing database.
+CREATE TABLE IF NOT EXISTS Orders (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    client_id  INT,
+    product_id INT,
+    ammount    INT,
+    INDEX orders_client_id (client_id, id, product_id, ammount),
+    INDEX orders_product_id (product_id, id, client_id, ammount),
+    INDEX orders_client_product (client_id, product_id, id, ammount)
+);
+
+CREATE TABLE IF NOT EXISTS OrderHeader (
+    id        INT AUTO_INCREMENT PRIMARY KEY,
+    client_id INT
+);
+
+CREATE TABLE IF NOT EXISTS OrderLine (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    order_id   INT NOT NULL,
+    product_id INT,
+    amount     INT,
+    INDEX order_line_order_id (order_id)
+);
+
+-- ID blocks reserved by HiLoIdAllocator, one row per table; also created on first use.
+CREATE TABLE IF NOT EXISTS IdBlock (
+    name    VARCHAR(64) PRIMARY KEY,
+    next_id INT NOT NULL
+);
+
+-- Running totals of the orders of each product and each client, updated by OrdersBLL in the transaction of each
+-- order, and recomputed from Orders by reporting.SalesCounterRebuild.
+CREATE TABLE IF NOT EXISTS ProductSales (
+    product_id  INT PRIMARY KEY,
+    units       BIGINT NOT NULL,
+    order_count INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ClientSales (
+    client_id   INT PRIMARY KEY,
+    units       BIGINT NOT NULL,
+    order_count INT NOT NULL
+);